@@ -0,0 +1,90 @@
+package dca_ijoc;
+
+/*
+ *  JMH benchmarks of the solvers for DRAP and DRAP-NC with linear objectives.
+ *
+ * See RAPNCBenchmark for the setup. RAP.solveRAPLinear shifts the bounds and the budget of its RAP by the lower
+ * bounds, so solveRAPLinear builds the relaxation in each call like DCA does (including the O(n) copy of the bounds).
+ * LinearMDA needs objectives with penalties (see RAPNC.MDA()): when the budget of one of its subproblems lies outside
+ * the sums of the variable bounds of the range, it spreads the excess in proportion to how far the bounds of MDA
+ * extend the variable bounds, which divides by zero on the instances of generateInstanceData. Its benchmark solves
+ * the penalty form of the same instance instead: every variable bound is extended by the total budget B, so that
+ * every budget of a subproblem, a difference of nested bounds between -B and B, lies between the sums of the bounds.
+ * On the seeded instances LinearMDA and LinearDCA reach the same objective value on the penalty form.
+ *     java -jar target/benchmarks.jar LinearRAPNCBenchmark
+ */
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(2)
+@State(Scope.Thread)
+public class LinearRAPNCBenchmark {
+    @Param({"800", "6400", "51200"})
+    public int size;
+
+    @Param({"100"})
+    public int varBound;
+
+    @Param({"9999"})
+    public long seed;
+
+    RAPNCTestUtils.RAPNCInstanceData data;
+    RAPNCTestUtils.RAPNCInstanceData penaltyData;
+    RAPNC instance;
+    RAPNC penaltyInstance;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        data = RAPNCTestUtils.generateInstanceData("linear", size, varBound, new Random(seed));
+        penaltyData = penaltyForm(RAPNCTestUtils.generateInstanceData("linear", size, varBound, new Random(seed)));
+    }
+
+    @Setup(Level.Iteration)
+    public void copy() {
+        instance = data.toFreshRAPNC();
+        penaltyInstance = penaltyData.toFreshRAPNC();
+    }
+
+    //Extend the variable bounds of an instance by its total budget, see above
+    static RAPNCTestUtils.RAPNCInstanceData penaltyForm(RAPNCTestUtils.RAPNCInstanceData data) {
+        long budget = data.ubNested[data.dimension - 1];
+        for (int i = 0; i < data.dimension; i++) {
+            data.lbVar[i] -= budget;
+            data.capacity[i] += budget;
+        }
+        return data;
+    }
+
+    @Benchmark
+    public ResultTypeRAP solveRAPLinear() {
+        return instance.createRAP().solveRAPLinear();
+    }
+
+    @Benchmark
+    public ResultTypeRAPNC solveIntegerLinearDCA() {
+        return instance.solveIntegerLinearDCA();
+    }
+
+    @Benchmark
+    public ResultTypeMDA LinearMDA() {
+        return penaltyInstance.LinearMDA();
+    }
+}
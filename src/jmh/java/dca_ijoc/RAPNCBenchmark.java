@@ -0,0 +1,77 @@
+package dca_ijoc;
+
+/*
+ *  JMH benchmarks of the solvers for DRAP and DRAP-NC with general convex objectives.
+ *
+ * Instances are generated once per trial by RAPNCTestUtils.generateInstanceData with a fixed seed. The solvers only
+ * read the instance and RAP.solveRAP only reads its bounds, so each iteration solves one copy repeatedly; a setup per
+ * invocation would distort the timings of the sub-millisecond solves.
+ *     mvn -P jmh -DskipTests package
+ *     java -jar target/benchmarks.jar RAPNCBenchmark -p size=800,6400
+ */
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 10, time = 2)
+@Fork(2)
+@State(Scope.Thread)
+public class RAPNCBenchmark {
+    @Param({"linear", "quadratic", "f", "fuel", "crash"})
+    public String objFuncType;
+
+    @Param({"800", "6400", "51200"})
+    public int size;
+
+    @Param({"100"})
+    public int varBound;
+
+    @Param({"9999"})
+    public long seed;
+
+    RAPNCTestUtils.RAPNCInstanceData data;
+    RAPNC instance;
+    RAP relaxation;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        data = RAPNCTestUtils.generateInstanceData(objFuncType, size, varBound, new Random(seed));
+    }
+
+    @Setup(Level.Iteration)
+    public void copy() {
+        instance = data.toFreshRAPNC();
+        relaxation = instance.createRAP();
+    }
+
+    @Benchmark
+    public ResultTypeRAP solveRAP() {
+        return relaxation.solveRAP();
+    }
+
+    @Benchmark
+    public ResultTypeRAPNC solveIntegerDCA() {
+        return instance.solveIntegerDCA();
+    }
+
+    @Benchmark
+    public ResultTypeMDA FastMDA() {
+        return instance.FastMDA();
+    }
+}
@@ -0,0 +1,278 @@
+package dca_ijoc;
+
+/*
+ *  A buffered writer of AMPL data files, the counterpart of AMPLInstanceReader.
+ *
+ * The numbers are formatted into a byte buffer without String.format: integers digit by digit and the costs with
+ * the six decimals of "%f". Like Formatter, a double is rounded half-up from its shortest decimal representation;
+ * the few values whose scaled fraction is too close to one half to decide in double arithmetic are formatted by
+ * String.format, so the files are byte for byte those of the former PrintStream implementation with String.format
+ * (in a locale with a decimal point; the writer always uses one).
+ *
+ * The header "# Optimal value by DCA" needs a solve of the instance. It is computed by a pluggable OptimalValueSolver
+ * which runs on a separate thread while the body of the file is formatted, then the header and the body are written.
+ */
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+public final class AMPLDataWriter {
+    private static final byte[] LINE_SEPARATOR = System.lineSeparator().getBytes();
+    private static final long SCALE = 1000000L;
+
+    private final OutputStream out;
+    private byte[] buffer;
+    private int size;
+    private final byte[] digits = new byte[20];
+
+    /*
+    * The solver that computes the value of the header "# Optimal value by DCA"
+    */
+    public interface OptimalValueSolver {
+        double optimalValue(RAPNCTestUtils.RAPNCInstanceData data);
+    }
+
+    //The objective value of the solution of DCA, as in the files of ampl_instances; the data is not modified
+    public static final OptimalValueSolver DCA = data -> {
+        RAPNC instance = data.toFreshRAPNC();
+        ResultTypeRAPNC res = instance.solveIntegerDCA();
+        double obj_optimal = 0;
+        for (int i = 0; i < data.dimension; i++) {
+            obj_optimal += instance.obj.get(i).getValue(res.sol[i]);
+        }
+        return obj_optimal;
+    };
+
+    public AMPLDataWriter(OutputStream out) {
+        this.out = out;
+        this.buffer = new byte[1 << 16];
+    }
+
+    /**
+     * write method
+     * Write an AMPL data file, solving the instance for the header on the given executor
+     * Time-Complexity: O(n) besides the solve
+     * @param data the instance data
+     * @param filename the data file
+     * @param solver the solver of the header
+     * @param executor the threads of the solver
+     */
+    public static void write(RAPNCTestUtils.RAPNCInstanceData data, String filename, OptimalValueSolver solver,
+            Executor executor) throws IOException {
+        try (OutputStream file = new FileOutputStream(filename)) {
+            write(data, file, solver, executor);
+        }
+    }
+
+    /**
+     * write method
+     * Write an AMPL data file to a stream, which is flushed but not closed
+     */
+    public static void write(RAPNCTestUtils.RAPNCInstanceData data, OutputStream out, OptimalValueSolver solver,
+            Executor executor) throws IOException {
+        CompletableFuture<Double> optimalValue = CompletableFuture.supplyAsync(() -> solver.optimalValue(data),
+            executor);
+
+        //the body goes to memory while the solver runs, about 40 bytes per variable
+        ByteArrayOutputStream body = new ByteArrayOutputStream(40 * data.dimension + 256);
+        AMPLDataWriter writer = new AMPLDataWriter(body);
+        writer.writeBody(data);
+        writer.flush();
+
+        AMPLDataWriter header = new AMPLDataWriter(out);
+        header.append("# Optimal value by DCA: ");
+        try {
+            header.appendFixed(optimalValue.get());
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while solving the instance");
+        } catch (ExecutionException ex) {
+            throw new IOException("Cannot solve the instance", ex.getCause());
+        }
+        header.newLine();
+        header.flush();
+        body.writeTo(out);
+        out.flush();
+    }
+
+    /**
+     * writeBody method
+     * Write the "data;" section of the instance
+     * Time-Complexity: O(n)
+     */
+    public void writeBody(RAPNCTestUtils.RAPNCInstanceData data) throws IOException {
+        append("data;");
+        newLine();
+        newLine();
+        append("param N = ");
+        appendLong(data.dimension);
+        append(";");
+        newLine();
+        writeParam("capacity", data.capacity);
+        writeParam("nested_lowerbound", data.lbNested);
+        writeParam("nested_upperbound", data.ubNested);
+        writeParam("cost_a", data.cost_param_a);
+        writeParam("cost_b", data.cost_param_b);
+    }
+
+    private void writeParam(String name, long[] values) throws IOException {
+        append("param " + name + " := ");
+        newLine();
+        for (int i = 0; i < values.length; i++) {
+            appendLong(i + 1);
+            append(' ');
+            appendLong(values[i]);
+            newLine();
+        }
+        append(";");
+        newLine();
+    }
+
+    private void writeParam(String name, double[] values) throws IOException {
+        append("param " + name + " := ");
+        newLine();
+        for (int i = 0; i < values.length; i++) {
+            appendLong(i + 1);
+            append(' ');
+            appendFixed(values[i]);
+            newLine();
+        }
+        append(";");
+        newLine();
+    }
+
+    private void ensure(int bytes) throws IOException {
+        if (size + bytes > buffer.length) {
+            flushBuffer();
+            if (bytes > buffer.length) {
+                buffer = new byte[bytes];
+            }
+        }
+    }
+
+    void append(char c) throws IOException {
+        ensure(1);
+        buffer[size++] = (byte) c;
+    }
+
+    void append(String text) throws IOException {
+        ensure(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            buffer[size++] = (byte) text.charAt(i);
+        }
+    }
+
+    void newLine() throws IOException {
+        ensure(LINE_SEPARATOR.length);
+        for (byte b : LINE_SEPARATOR) {
+            buffer[size++] = b;
+        }
+    }
+
+    void appendLong(long value) throws IOException {
+        if (value == Long.MIN_VALUE) {
+            append(Long.toString(value));
+            return;
+        }
+        ensure(20);
+        if (value < 0) {
+            buffer[size++] = '-';
+            value = -value;
+        }
+        int count = 0;
+        do {
+            digits[count++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        while (count > 0) {
+            buffer[size++] = digits[--count];
+        }
+    }
+
+    /**
+     * appendFixed method
+     * Append a double as String.format("%f", value) does
+     * Time-Complexity: O(1)
+     */
+    void appendFixed(double value) throws IOException {
+        double magnitude = Math.abs(value);
+        //beyond 1e9 the scaled value loses the units of the sixth decimal
+        if (!(magnitude < 1e9)) {
+            append(String.format(Locale.ROOT, "%f", value));
+            return;
+        }
+        double scaled = magnitude * SCALE;
+        double floor = Math.floor(scaled);
+        double fraction = scaled - floor;
+        //scaled is within a few ulps of the exact product, so the rounding is only ambiguous near one half
+        if (Math.abs(fraction - 0.5) < 1e-3 + scaled * 0x1.0p-50) {
+            append(String.format(Locale.ROOT, "%f", value));
+            return;
+        }
+        long units = (long) floor + (fraction > 0.5 ? 1 : 0);
+        ensure(32);
+        if (Double.doubleToRawLongBits(value) < 0) {
+            buffer[size++] = '-';
+        }
+        appendLong(units / SCALE);
+        buffer[size++] = '.';
+        long decimals = units % SCALE;
+        for (long unit = SCALE / 10; unit > 0; unit /= 10) {
+            buffer[size++] = (byte) ('0' + decimals / unit % 10);
+        }
+    }
+
+    private void flushBuffer() throws IOException {
+        out.write(buffer, 0, size);
+        size = 0;
+    }
+
+    public void flush() throws IOException {
+        flushBuffer();
+        out.flush();
+    }
+
+    /**
+     * writeFiles method
+     * Write AMPL data files concurrently. The instances are taken from the iterator in order by the calling thread,
+     * so that they do not depend on the number of threads, and at most 2 * threads of them wait to be written.
+     * @param instances the instances and their file names
+     * @param solver the solver of the headers
+     * @param threads number of threads that solve and write the files
+     */
+    public static void writeFiles(Iterator<Map.Entry<String, RAPNCTestUtils.RAPNCInstanceData>> instances,
+            OptimalValueSolver solver, int threads) throws IOException {
+        //writers wait for their solver, so solvers need their own threads
+        ExecutorService writers = Executors.newFixedThreadPool(threads);
+        ExecutorService solvers = Executors.newFixedThreadPool(threads);
+        Semaphore pending = new Semaphore(2 * threads);
+        List<Future<?>> writes = new ArrayList<>();
+        try {
+            while (instances.hasNext()) {
+                Map.Entry<String, RAPNCTestUtils.RAPNCInstanceData> instance = instances.next();
+                pending.acquireUninterruptibly();
+                writes.add(writers.submit(() -> {
+                    try {
+                        write(instance.getValue(), instance.getKey(), solver, solvers);
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    } finally {
+                        pending.release();
+                    }
+                }));
+            }
+            for (Future<?> write : writes) {
+                write.get();
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while writing the data files");
+        } catch (ExecutionException ex) {
+            throw new IOException("Cannot write a data file", ex.getCause());
+        } finally {
+            writers.shutdown();
+            solvers.shutdown();
+        }
+    }
+}
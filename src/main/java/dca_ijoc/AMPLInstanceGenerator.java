@@ -16,7 +16,7 @@ public class AMPLInstanceGenerator {
      * initial the test and record the test result in a text file
      * You can modify the name, the header of the text file as well as the test cases
      */
-	public static void main(String[] args) throws FileNotFoundException{
+	public static void main(String[] args) throws IOException {
 
         String[] objFuncTypes = new String[]{"Con_F", "Con_FUEL", "Con_CRASH"};
 
@@ -25,19 +25,14 @@ public class AMPLInstanceGenerator {
 		//test settings (dimension)
 		int[] testSizes = new int[]{10, 20, 30, 100, 200, 800, 1600};
 		Random default_generator = new Random(10000);
-		
-        for (String objFuncType : objFuncTypes) {
-            String filename = "rapnc_ampl_" + objFuncType + "_n=";
-            for (int size : testSizes) {
-                write_data_file(
-                    objFuncType,
-                    size, 
-                    varBound, 
-					filename + Long.toString(size) + ".dat",
-					default_generator
-                );
-            }
-        }
+		Map<String, Random> generator_map = new HashMap<>();
+		for (String objFuncType : objFuncTypes) {
+			generator_map.put(objFuncType, default_generator);
+		}
+
+		// The instances are generated in order and written concurrently
+		AMPLDataWriter.writeFiles(new Instances(objFuncTypes, testSizes, varBound, 1, generator_map),
+			AMPLDataWriter.DCA, Runtime.getRuntime().availableProcessors());
 
 		/*
 		 * The following line will generate the AMPL data file for instances used in the paper with up to 102400 variables.
@@ -62,30 +57,58 @@ public class AMPLInstanceGenerator {
 
 		int rep = 10; // We only generate the first instance of the 10 rep isntances
 
-		for (String objFuncType : objFuncTypes) {
-			for (int size : sizes) {
-				for (int i = 0; i < rep; i++) {
-					Random generator = generator_map.get(objFuncType);
-					RAPNCTestUtils.RAPNCInstanceData data = RAPNCTestUtils.generateInstanceData(objFuncType, size, varBound, generator);
-					if (i == 0) {
-						try {
-							String filename = "rapnc_ampl_" + objFuncType + "_n=" + Long.toString(size) + ".dat";
-							File filepath = new File("./ampl_instances/datafiles/" + objFuncType);
-        					filepath.mkdirs();
-							filepath = new File("./ampl_instances/datafiles/" + objFuncType + '/' + filename);
-							PrintStream output = new PrintStream(filepath);
-							System.setOut(output);
-							write_data_file_impl(data);
-						} catch (Exception e) {
-							e.printStackTrace();
-						}
-					}
-				}
-			}
+		try {
+			AMPLDataWriter.writeFiles(new Instances(objFuncTypes, sizes, varBound, rep, generator_map),
+				AMPLDataWriter.DCA, Runtime.getRuntime().availableProcessors());
+		} catch (IOException e) {
+			e.printStackTrace();
 		}
 		
 		return;
 	}
+
+	/*
+	 * The instances of the data files: for every objective type and size, rep instances are drawn from the generator
+	 * of the type and the first one is written to ./ampl_instances/datafiles/<type>/rapnc_ampl_<type>_n=<size>.dat
+	 */
+	private static final class Instances implements Iterator<Map.Entry<String, RAPNCTestUtils.RAPNCInstanceData>> {
+		private final String[] objFuncTypes;
+		private final int[] sizes;
+		private final int varBound;
+		private final int rep;
+		private final Map<String, Random> generator_map;
+		private int next;
+
+		Instances(String[] objFuncTypes, int[] sizes, int varBound, int rep, Map<String, Random> generator_map) {
+			this.objFuncTypes = objFuncTypes;
+			this.sizes = sizes;
+			this.varBound = varBound;
+			this.rep = rep;
+			this.generator_map = generator_map;
+		}
+
+		public boolean hasNext() {
+			return next < objFuncTypes.length * sizes.length;
+		}
+
+		public Map.Entry<String, RAPNCTestUtils.RAPNCInstanceData> next() {
+			if (!hasNext()) {
+				throw new NoSuchElementException();
+			}
+			String objFuncType = objFuncTypes[next / sizes.length];
+			int size = sizes[next % sizes.length];
+			next++;
+			Random generator = generator_map.get(objFuncType);
+			RAPNCTestUtils.RAPNCInstanceData data = RAPNCTestUtils.generateInstanceData(objFuncType, size, varBound, generator);
+			for (int i = 1; i < rep; i++) {
+				RAPNCTestUtils.generateInstanceData(objFuncType, size, varBound, generator);
+			}
+			File filepath = new File("./ampl_instances/datafiles/" + objFuncType);
+			filepath.mkdirs();
+			String filename = "rapnc_ampl_" + objFuncType + "_n=" + Long.toString(size) + ".dat";
+			return new AbstractMap.SimpleImmutableEntry<>(filepath.getPath() + '/' + filename, data);
+		}
+	}
     /**
 	 * write_data_file method A class to generate AMPL data files Default:
 	 * 
@@ -94,16 +117,14 @@ public class AMPLInstanceGenerator {
 	 * @param varBound related to the upper bound of the box constraints: d_i < 1.3 * varBound     
 	 * @throws FileNotFoundException
 	 */
-	public static void write_data_file(String objFuncType, int size, int varBound, String filename, Random generator) throws FileNotFoundException {
+	public static void write_data_file(String objFuncType, int size, int varBound, String filename, Random generator) throws IOException {
         //Set up output enviroment
         File filepath = new File("./ampl_instances/datafiles/" + objFuncType);
         filepath.mkdirs();
         filepath = new File("./ampl_instances/datafiles/" + objFuncType + '/' + filename);
-        PrintStream output = new PrintStream(filepath);
-		System.setOut(output);
 
         RAPNCTestUtils.RAPNCInstanceData data = RAPNCTestUtils.generateInstanceData(objFuncType, size, varBound, generator);
-		write_data_file_impl(data);
+		AMPLDataWriter.write(data, filepath.getPath(), AMPLDataWriter.DCA, Runnable::run);
 	}
 	
 	/**
@@ -112,51 +133,11 @@ public class AMPLInstanceGenerator {
      * @param data an instance of RAPNCTestUtils.RAPNCInstanceData 
 	 */
 	public static void write_data_file_impl(RAPNCTestUtils.RAPNCInstanceData data) {
-		int size = data.dimension;
-		long[] ubVar = data.capacity;
-		long[] lbNested = data.lbNested;
-		long[] ubNested = data.ubNested;
-		double[] cost_a = data.cost_param_a;
-		double[] cost_b = data.cost_param_b;
-		  
-		// Record the optimal value by DCA
-		RAPNC instance = data.toRAPNC();
-		ResultTypeRAPNC res = instance.solveIntegerDCA();
-        double obj_optimal = 0;
-        List<Function> objs = instance.obj;
-		for (int i = 0; i < size; i++) {
-			obj_optimal += objs.get(i).getValue(res.sol[i]);
-		}	
-        System.out.println(String.format("# Optimal value by DCA: %f", obj_optimal));
-        
-		// Write the data file
-		System.out.println("data;");
-		System.out.println("");
-		System.out.println(String.format("param N = %d;", size));
-		System.out.println("param capacity := ");
-		for (int i = 0; i < size; i++) {
-			System.out.println(String.format("%d %d", i + 1, ubVar[i]));
-		}
-		System.out.println(";");
-		System.out.println("param nested_lowerbound := ");
-		for (int i = 0; i < size; i++) {
-			System.out.println(String.format("%d %d", i + 1, lbNested[i]));
-		}
-		System.out.println(";");
-		System.out.println("param nested_upperbound := ");
-		for (int i = 0; i < size; i++) {
-			System.out.println(String.format("%d %d", i + 1, ubNested[i]));
+		// The data file goes to System.out, see AMPLDataWriter
+		try {
+			AMPLDataWriter.write(data, System.out, AMPLDataWriter.DCA, Runnable::run);
+		} catch (IOException e) {
+			e.printStackTrace();
 		}
-		System.out.println(";");
-		System.out.println("param cost_a := ");
-		for (int i = 0; i < size; i++) {
-			System.out.println(String.format("%d %f", i + 1, cost_a[i]));
-		}	
-		System.out.println(";");
-		System.out.println("param cost_b := ");
-		for (int i = 0; i < size; i++) {
-			System.out.println(String.format("%d %f", i + 1, cost_b[i]));
-		}		
-		System.out.println(";");	  
 	}
 }
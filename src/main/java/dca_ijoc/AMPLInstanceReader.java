@@ -0,0 +1,504 @@
+package dca_ijoc;
+
+/*
+ *  A streaming reader of the AMPL data files written by AMPLInstanceGenerator.
+ *
+ * The file is tokenized byte by byte and the numbers are decoded without creating strings, so a data file is read
+ * in one pass with O(1) memory besides the arrays of the instance. The reader understands the subset of the AMPL
+ * data syntax used by AMPLInstanceGenerator:
+ *     # Optimal value by DCA: <value>
+ *     data;
+ *     param N = <dimension>;
+ *     param capacity := 1 <value> 2 <value> ... ;
+ *     (the same for nested_lowerbound, nested_upperbound, cost_a and cost_b)
+ * Other comments and unknown params are skipped. N must not exceed BinaryInstanceFormat.MAX_DIMENSION and every
+ * index of a param must appear exactly once. The objective function type is not stored in the data file; it is
+ * given by the caller or taken from the file name (rapnc_ampl_<objFuncType>_n=<size>.dat).
+ *
+ * validate() solves an instance by DCA and compares its objective value with the header. The files store the costs
+ * with six decimals, so the values differ by up to about 1e-6 relative; they agree within AGREEMENT_TOLERANCE.
+ * The data files can be validated or benchmarked by
+ *     java -cp ./ dca_ijoc.AMPLInstanceReader ampl_instances/datafiles/Con_F/*.dat
+ *     java -cp ./ dca_ijoc.AMPLInstanceReader --benchmark 5 ampl_instances/datafiles/Con_F/rapnc_ampl_Con_F_n=51200.dat
+ */
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+public final class AMPLInstanceReader {
+    static final String OPTIMAL_VALUE_HEADER = "Optimal value by DCA:";
+    //relative tolerance between the header and the objective value of a fresh solve
+    static final double AGREEMENT_TOLERANCE = 2e-6;
+    private static final double[] POWERS_OF_TEN = new double[16];
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int k = 1; k < POWERS_OF_TEN.length; k++) {
+            POWERS_OF_TEN[k] = 10 * POWERS_OF_TEN[k - 1];
+        }
+    }
+
+    private final InputStream in;
+    private final byte[] buffer;
+    private int position;
+    private int limit;
+    //line of the next byte, for the error messages
+    private int line = 1;
+
+    //current token
+    private byte[] token;
+    private int tokenLength;
+
+    //value of the header "# Optimal value by DCA", NaN if the file has no such header
+    double optimalValue;
+
+    public AMPLInstanceReader(InputStream in) {
+        this.in = in;
+        this.buffer = new byte[1 << 16];
+        this.token = new byte[64];
+        this.optimalValue = Double.NaN;
+    }
+
+    /**
+     * readInstance method
+     * Read an AMPL data file whose objective function type is given by its name
+     * Time-Complexity: O(n)
+     * @param filename the data file, e.g. rapnc_ampl_Con_F_n=800.dat
+     * @return the instance data
+     */
+    public static RAPNCTestUtils.RAPNCInstanceData readInstance(String filename) throws IOException {
+        return readInstance(filename, objFuncTypeOf(filename));
+    }
+
+    /**
+     * readInstance method
+     * Read an AMPL data file
+     * Time-Complexity: O(n)
+     * @param filename the data file
+     * @param objFuncType type of object function, e.g. "Con_F"
+     * @return the instance data
+     */
+    public static RAPNCTestUtils.RAPNCInstanceData readInstance(String filename, String objFuncType) throws IOException {
+        try (InputStream in = new FileInputStream(filename)) {
+            return new AMPLInstanceReader(in).read(objFuncType);
+        }
+    }
+
+    /**
+     * readRAPNC method
+     * Read an AMPL data file into a RAPNC instance
+     * Time-Complexity: O(n)
+     * @param filename the data file, e.g. rapnc_ampl_Con_F_n=800.dat
+     * @return the RAPNC instance
+     */
+    public static RAPNC readRAPNC(String filename) throws IOException {
+        return readInstance(filename).toRAPNC();
+    }
+
+    /*
+    * The result of validate: the header of a data file and the objective value of a fresh solve by DCA
+    */
+    public static final class Validation {
+        String filename;
+        int dimension;
+        double headerValue;
+        double solvedValue;
+        long parseNanos;
+        long solveNanos;
+
+        /**
+         * agrees method
+         * @return true if the solved value matches the header, up to the rounding of the costs in the file
+         */
+        public boolean agrees() {
+            return AMPLInstanceReader.agrees(headerValue, solvedValue);
+        }
+
+        public String toString() {
+            return String.format("%s n=%d header=%f solved=%f parse=%.1fms solve=%.1fms %s", filename, dimension,
+                headerValue, solvedValue, parseNanos / 1e6, solveNanos / 1e6,
+                Double.isNaN(headerValue) ? "NO HEADER" : (agrees() ? "OK" : "MISMATCH"));
+        }
+    }
+
+    static boolean agrees(double headerValue, double solvedValue) {
+        double scale = Math.max(Math.abs(headerValue), Math.abs(solvedValue));
+        //the header has six decimals
+        return Math.abs(headerValue - solvedValue) <= 1e-6 + AGREEMENT_TOLERANCE * scale;
+    }
+
+    /**
+     * validate method
+     * Read an AMPL data file and solve it by DCA
+     * Time-Complexity: O(n) besides the solve
+     * @param filename the data file, e.g. rapnc_ampl_Con_F_n=800.dat
+     * @return the header, the solved value and the times of parsing and solving
+     */
+    public static Validation validate(String filename) throws IOException {
+        Validation validation = new Validation();
+        validation.filename = filename;
+        long start = System.nanoTime();
+        RAPNCTestUtils.RAPNCInstanceData data;
+        try (InputStream in = new FileInputStream(filename)) {
+            AMPLInstanceReader reader = new AMPLInstanceReader(in);
+            data = reader.read(objFuncTypeOf(filename));
+            validation.headerValue = reader.optimalValue;
+        }
+        validation.parseNanos = System.nanoTime() - start;
+        validation.dimension = data.dimension;
+
+        start = System.nanoTime();
+        validation.solvedValue = AMPLDataWriter.DCA.optimalValue(data);
+        validation.solveNanos = System.nanoTime() - start;
+        return validation;
+    }
+
+    /**
+     * main method
+     * Validate the data files given as arguments, or with --benchmark <rep> report the median times of rep runs
+     */
+    public static void main(String[] args) throws IOException {
+        int rep = 1;
+        int first = 0;
+        if (args.length >= 2 && args[0].equals("--benchmark")) {
+            rep = Integer.parseInt(args[1]);
+            first = 2;
+        }
+        if (first == args.length) {
+            System.out.println("Usage: AMPLInstanceReader [--benchmark <rep>] <data files>");
+            return;
+        }
+        boolean mismatch = false;
+        for (int k = first; k < args.length; k++) {
+            long[] parseNanos = new long[rep];
+            long[] solveNanos = new long[rep];
+            Validation validation = null;
+            for (int r = 0; r < rep; r++) {
+                validation = validate(args[k]);
+                parseNanos[r] = validation.parseNanos;
+                solveNanos[r] = validation.solveNanos;
+            }
+            Arrays.sort(parseNanos);
+            Arrays.sort(solveNanos);
+            validation.parseNanos = (long) ExperimentRunner.median(parseNanos);
+            validation.solveNanos = (long) ExperimentRunner.median(solveNanos);
+            System.out.println(validation);
+            mismatch |= !Double.isNaN(validation.headerValue) && !validation.agrees();
+        }
+        if (mismatch) {
+            System.exit(1);
+        }
+    }
+
+    /**
+     * objFuncTypeOf method
+     * @return the objective function type in a file name of the form rapnc_ampl_<objFuncType>_n=<size>.dat
+     */
+    static String objFuncTypeOf(String filename) throws IOException {
+        String name = new File(filename).getName();
+        int start = name.indexOf("rapnc_ampl_");
+        int end = name.lastIndexOf("_n=");
+        if (start < 0 || end < start + 11) {
+            throw new IOException("Cannot infer the objective function type of " + filename);
+        }
+        return name.substring(start + 11, end);
+    }
+
+    /**
+     * read method
+     * Read the instance from the stream
+     * Time-Complexity: O(n)
+     * @param objFuncType type of object function
+     * @return the instance data
+     */
+    public RAPNCTestUtils.RAPNCInstanceData read(String objFuncType) throws IOException {
+        int dimension = -1;
+        long[] capacity = null;
+        long[] lbNested = null;
+        long[] ubNested = null;
+        double[] cost_param_a = null;
+        double[] cost_param_b = null;
+
+        while (nextToken()) {
+            if (!tokenIs("param")) {
+                //"data" and ";"
+                continue;
+            }
+            if (!nextToken()) {
+                throw new IOException("Unexpected end of file after param");
+            }
+            String name = tokenString();
+            expectToken();
+            if (tokenIs("=")) {
+                expectToken();
+                if (name.equals("N")) {
+                    long n = tokenLong();
+                    if (n > BinaryInstanceFormat.MAX_DIMENSION) {
+                        throw new IOException("N = " + n + " on line " + line + " exceeds "
+                            + BinaryInstanceFormat.MAX_DIMENSION);
+                    }
+                    dimension = (int) n;
+                }
+                skipStatement();
+                continue;
+            }
+            if (!tokenIs(":=")) {
+                throw new IOException("Expected = or := after param " + name);
+            }
+            switch (name) {
+                case "capacity":
+                    capacity = readLongParam(name, dimension);
+                    break;
+                case "nested_lowerbound":
+                    lbNested = readLongParam(name, dimension);
+                    break;
+                case "nested_upperbound":
+                    ubNested = readLongParam(name, dimension);
+                    break;
+                case "cost_a":
+                    cost_param_a = readDoubleParam(name, dimension);
+                    break;
+                case "cost_b":
+                    cost_param_b = readDoubleParam(name, dimension);
+                    break;
+                default:
+                    skipStatement();
+            }
+        }
+
+        if (dimension < 1 || capacity == null || lbNested == null || ubNested == null || cost_param_a == null
+                || cost_param_b == null) {
+            throw new IOException("Incomplete AMPL data file");
+        }
+        return new RAPNCTestUtils.RAPNCInstanceData(objFuncType, dimension, capacity, lbNested, ubNested,
+            cost_param_a, cost_param_b);
+    }
+
+    //Read the pairs "index value" of an indexed param until ";"
+    private long[] readLongParam(String name, int dimension) throws IOException {
+        long[] values = new long[checkDimension(name, dimension)];
+        BitSet seen = new BitSet(dimension);
+        int count = 0;
+        while (true) {
+            expectToken();
+            if (tokenIs(";")) {
+                break;
+            }
+            int index = checkIndex(name, dimension, seen);
+            expectToken();
+            values[index] = tokenLong();
+            count++;
+        }
+        checkCount(name, count, dimension);
+        return values;
+    }
+
+    //Read the pairs "index value" of an indexed param until ";"
+    private double[] readDoubleParam(String name, int dimension) throws IOException {
+        double[] values = new double[checkDimension(name, dimension)];
+        BitSet seen = new BitSet(dimension);
+        int count = 0;
+        while (true) {
+            expectToken();
+            if (tokenIs(";")) {
+                break;
+            }
+            int index = checkIndex(name, dimension, seen);
+            expectToken();
+            values[index] = tokenDouble();
+            count++;
+        }
+        checkCount(name, count, dimension);
+        return values;
+    }
+
+    private static int checkDimension(String name, int dimension) throws IOException {
+        if (dimension < 1) {
+            throw new IOException("param " + name + " appears before param N");
+        }
+        return dimension;
+    }
+
+    private int checkIndex(String name, int dimension, BitSet seen) throws IOException {
+        long index = tokenLong();
+        if (index < 1 || index > dimension) {
+            throw new IOException("Index " + index + " of param " + name + " on line " + line + " is out of 1.."
+                + dimension);
+        }
+        if (seen.get((int) index - 1)) {
+            throw new IOException("Index " + index + " of param " + name + " on line " + line + " is repeated");
+        }
+        seen.set((int) index - 1);
+        return (int) index - 1;
+    }
+
+    private static void checkCount(String name, int count, int dimension) throws IOException {
+        if (count != dimension) {
+            throw new IOException("param " + name + " has " + count + " entries but N = " + dimension);
+        }
+    }
+
+    private void skipStatement() throws IOException {
+        while (!tokenIs(";")) {
+            expectToken();
+        }
+    }
+
+    /*
+    * Tokenizer: tokens are separated by white space, ";" is a token and "#" starts a comment
+    */
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = in.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        //the bytes of UTF-8 text in comments are >= 0x80 and must not look like the end of the file
+        return buffer[position++] & 0xFF;
+    }
+
+    //push back the last byte read
+    private void unread() {
+        position--;
+    }
+
+    private void expectToken() throws IOException {
+        if (!nextToken()) {
+            throw new IOException("Unexpected end of AMPL data file");
+        }
+    }
+
+    private boolean nextToken() throws IOException {
+        int c = read();
+        while (true) {
+            if (c == '#') {
+                readComment();
+                c = read();
+            } else if (c == ' ' || c == '\n' || c == '\r' || c == '\t') {
+                if (c == '\n') {
+                    line++;
+                }
+                c = read();
+            } else {
+                break;
+            }
+        }
+        if (c < 0) {
+            return false;
+        }
+        tokenLength = 0;
+        if (c == ';') {
+            token[tokenLength++] = ';';
+            return true;
+        }
+        while (c >= 0 && c != ' ' && c != '\n' && c != '\r' && c != '\t' && c != ';' && c != '#') {
+            if (tokenLength == token.length) {
+                token = Arrays.copyOf(token, 2 * tokenLength);
+            }
+            token[tokenLength++] = (byte) c;
+            c = read();
+        }
+        if (c >= 0) {
+            unread();
+        }
+        return true;
+    }
+
+    private void readComment() throws IOException {
+        StringBuilder comment = new StringBuilder();
+        int c = read();
+        while (c >= 0 && c != '\n') {
+            comment.append((char) c);
+            c = read();
+        }
+        String text = comment.toString().trim();
+        if (text.startsWith(OPTIMAL_VALUE_HEADER)) {
+            try {
+                optimalValue = Double.parseDouble(text.substring(OPTIMAL_VALUE_HEADER.length()).trim());
+            } catch (NumberFormatException ex) {
+                throw new IOException("Invalid optimal value on line " + line + ": " + text);
+            }
+        }
+        if (c == '\n') {
+            line++;
+        }
+    }
+
+    private boolean tokenIs(String value) {
+        if (tokenLength != value.length()) {
+            return false;
+        }
+        for (int i = 0; i < tokenLength; i++) {
+            if (token[i] != value.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private long tokenLong() throws IOException {
+        int i = 0;
+        boolean negative = false;
+        if (tokenLength > 0 && (token[0] == '-' || token[0] == '+')) {
+            negative = token[0] == '-';
+            i = 1;
+        }
+        if (i == tokenLength || tokenLength - i > 18) {
+            return Long.parseLong(tokenString());
+        }
+        long value = 0;
+        for (; i < tokenLength; i++) {
+            int digit = token[i] - '0';
+            if (digit < 0 || digit > 9) {
+                throw new IOException("Expected an integer but found " + tokenString());
+            }
+            value = 10 * value + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    //Decimals with at most 15 digits are decoded as mantissa / 10^k, which is exact since both are exact doubles
+    //and the division is correctly rounded. Other numbers are decoded by Double.parseDouble.
+    private double tokenDouble() throws IOException {
+        int i = 0;
+        boolean negative = false;
+        if (tokenLength > 0 && (token[0] == '-' || token[0] == '+')) {
+            negative = token[0] == '-';
+            i = 1;
+        }
+        long mantissa = 0;
+        int digits = 0;
+        int decimals = -1;
+        for (; i < tokenLength; i++) {
+            int c = token[i];
+            if (c == '.' && decimals < 0) {
+                decimals = 0;
+            } else if (c >= '0' && c <= '9' && digits < 15) {
+                mantissa = 10 * mantissa + (c - '0');
+                digits++;
+                if (decimals >= 0) {
+                    decimals++;
+                }
+            } else {
+                try {
+                    return Double.parseDouble(tokenString());
+                } catch (NumberFormatException ex) {
+                    throw new IOException("Expected a number but found " + tokenString());
+                }
+            }
+        }
+        if (digits == 0) {
+            throw new IOException("Expected a number but found " + tokenString());
+        }
+        double value = decimals > 0 ? mantissa / POWERS_OF_TEN[decimals] : mantissa;
+        return negative ? -value : value;
+    }
+
+    private String tokenString() {
+        return new String(token, 0, tokenLength, StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,174 @@
+package dca_ijoc;
+
+/*
+ *  A generator of structured DRAP-NC instances on which DCA splits many times.
+ *
+ * generateInstanceData draws nested bounds around a random path, so DCA usually fixes few nested constraints. The
+ * families below are built so that the DRAP relaxation of (almost) every segment violates nested constraints:
+ *     staircase: the nested bounds form a staircase of steps of stepWidth variables. Inside a step the prefix sums
+ *         may move between the levels of the previous and the current step, and at the end of each step they are
+ *         fixed. DCA needs about size / stepWidth splits.
+ *     alternating: the nested bounds follow a zigzag path that alternately puts a large and a small amount on the
+ *         variables. The lower bound is tight at the peaks and the upper bound is tight at the valleys, so a smooth
+ *         relaxation alternately violates lower and upper prefixes at almost every index.
+ *     peeling: the cost of a variable decreases with its index and the lower nested bounds grow linearly, so the
+ *         relaxation of every segment puts all resource on its last variable. The maximum violation is then always
+ *         at the second to last index and every split peels off one variable: DCA solves size - 1 relaxations of
+ *         sizes size, size - 1, ..., 2, i.e. it attains its Theta(n^2 log B) worst case.
+ *
+ * All families are generated in O(n) time and memory, so they scale to millions of variables, and every instance
+ * is feasible by construction. Like generateInstanceData, the instances are determined by the Random generator.
+ */
+
+import java.util.*;
+
+public class AdversarialInstanceGenerator {
+    public static final String[] FAMILIES = new String[]{"staircase", "alternating", "peeling"};
+
+    private AdversarialInstanceGenerator() {
+    }
+
+    /**
+     * generateInstanceData method
+     * Generate an instance of the given family, with steps of about sqrt(size) variables for staircases
+     * @param family one of ["staircase", "alternating", "peeling"]
+     * @param objFuncType type of object function, ["linear", "quadratic"] for peeling chains
+     * @param size size of the instance
+     * @param varBound the upperbound of capacity
+     * @param generator rand generator so that we can control the random instance
+     * @return an instance of RAPNC data
+     */
+    public static RAPNCTestUtils.RAPNCInstanceData generateInstanceData(String family, String objFuncType, int size,
+            int varBound, Random generator) {
+        switch (family) {
+            case "staircase":
+                return staircase(objFuncType, size, varBound, Math.max(2, (int) Math.sqrt(size)), generator);
+            case "alternating":
+                return alternating(objFuncType, size, varBound, generator);
+            case "peeling":
+                return peeling(objFuncType, size, varBound, generator);
+            default:
+                throw new IllegalArgumentException("Unknown instance family " + family);
+        }
+    }
+
+    /**
+     * staircase method
+     * Time-Complexity: O(n)
+     * @param stepWidth number of variables per step
+     * @return an instance of RAPNC data with staircase nested bounds
+     */
+    public static RAPNCTestUtils.RAPNCInstanceData staircase(String objFuncType, int size, int varBound, int stepWidth,
+            Random generator) {
+        long[] ubVar = new long[size];
+        long[] lbNested = new long[size];
+        long[] ubNested = new long[size];
+        double[] cost_param_a = new double[size];
+        double[] cost_param_b = new double[size];
+        randomCosts(cost_param_a, cost_param_b, generator);
+
+        long previousLevel = 0;
+        for (int start = 0; start < size; start += stepWidth) {
+            int end = Math.min(start + stepWidth, size) - 1;
+            //the level of the step is the sum of a random point of the box of the step
+            long level = previousLevel;
+            for (int i = start; i <= end; i++) {
+                ubVar[i] = 1 + (long) (generator.nextDouble() * varBound);
+                level += (long) (generator.nextDouble() * (ubVar[i] + 1));
+            }
+            for (int i = start; i < end; i++) {
+                lbNested[i] = previousLevel;
+                ubNested[i] = level;
+            }
+            lbNested[end] = level;
+            ubNested[end] = level;
+            previousLevel = level;
+        }
+        return new RAPNCTestUtils.RAPNCInstanceData(objFuncType, size, ubVar, lbNested, ubNested, cost_param_a,
+            cost_param_b);
+    }
+
+    /**
+     * alternating method
+     * Time-Complexity: O(n)
+     * @return an instance of RAPNC data with alternating tight lower and upper nested bounds
+     */
+    public static RAPNCTestUtils.RAPNCInstanceData alternating(String objFuncType, int size, int varBound,
+            Random generator) {
+        long[] ubVar = new long[size];
+        long[] lbNested = new long[size];
+        long[] ubNested = new long[size];
+        double[] cost_param_a = new double[size];
+        double[] cost_param_b = new double[size];
+        randomCosts(cost_param_a, cost_param_b, generator);
+
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            ubVar[i] = Math.max(varBound, 2);
+            //peaks on even indices, valleys on odd indices
+            long half = ubVar[i] / 2;
+            long x = (i % 2 == 0) ? half + (long) (generator.nextDouble() * (ubVar[i] - half + 1))
+                : (long) (generator.nextDouble() * half);
+            sum += x;
+            if (i % 2 == 0) {
+                lbNested[i] = sum;
+                ubNested[i] = sum + ubVar[i];
+            } else {
+                lbNested[i] = Math.max(sum - ubVar[i], 0);
+                ubNested[i] = sum;
+            }
+        }
+        lbNested[size - 1] = sum;
+        ubNested[size - 1] = sum;
+        return new RAPNCTestUtils.RAPNCInstanceData(objFuncType, size, ubVar, lbNested, ubNested, cost_param_a,
+            cost_param_b);
+    }
+
+    /**
+     * peeling method
+     * Only linear and quadratic objectives can make the last variable of every segment the cheapest one.
+     * Time-Complexity: O(n)
+     * @return an instance of RAPNC data on which every split of DCA peels off one variable
+     */
+    public static RAPNCTestUtils.RAPNCInstanceData peeling(String objFuncType, int size, int varBound,
+            Random generator) {
+        if (!objFuncType.equals("linear") && !objFuncType.equals("quadratic")) {
+            throw new IllegalArgumentException("Peeling chains need linear or quadratic objectives");
+        }
+        long[] ubVar = new long[size];
+        long[] lbNested = new long[size];
+        long[] ubNested = new long[size];
+        double[] cost_param_a = new double[size];
+        double[] cost_param_b = new double[size];
+
+        long sum = 0;
+        for (int i = 0; i < size; i++) {
+            sum += 1 + (long) (generator.nextDouble() * varBound);
+            lbNested[i] = sum;
+        }
+        long B = sum;
+        for (int i = 0; i < size; i++) {
+            //every variable can take the whole budget
+            ubVar[i] = B;
+            ubNested[i] = B;
+            //the marginal cost a(2x + 1) - (i + 1) of a variable is below that of all previous ones for x < B
+            cost_param_a[i] = 1.0 / (4.0 * B + 4.0);
+            cost_param_b[i] = -(i + 1);
+        }
+        return new RAPNCTestUtils.RAPNCInstanceData(objFuncType, size, ubVar, lbNested, ubNested, cost_param_a,
+            cost_param_b);
+    }
+
+    //Draw the cost parameters as in RAPNCTestUtils.generateInstanceData
+    private static void randomCosts(double[] cost_param_a, double[] cost_param_b, Random generator) {
+        for (int i = 0; i < cost_param_a.length; i++) {
+            double a = generator.nextDouble();
+            double b = generator.nextDouble();
+            if (generator.nextDouble() < 0.5) {
+                b = -b;
+            }
+            cost_param_a[i] = a;
+            cost_param_b[i] = b;
+        }
+    }
+}
@@ -0,0 +1,511 @@
+package dca_ijoc;
+
+/*
+ *  An anytime version of DCA that keeps a feasible solution and a lower bound on the optimal value during the solve.
+ *
+ * DCA fixes the nested constraint with maximum violation tight and this preserves an optimal solution, so at any
+ * time of the recursion the optimal value of DRAP-NC is the sum of the optimal values of the subproblems on the
+ * frontier (the segments that are not divided yet). Each segment has:
+ *     lower: the value of its RAP relaxation, i.e. the Lagrangian relaxation of its nested constraints with zero
+ *            multipliers, which is a lower bound on its optimal value;
+ *     upper: the value of a feasible solution built from its RAP solution: anchor() fixes the worst violated
+ *            constraint of each run of violations and solves the RAPs between them, then repair() clips the prefix
+ *            sums into the nested constraints and balance() smooths the clipped parts.
+ * The boundaries of the segments are tight, so the repaired segments form a feasible solution of DRAP-NC (the
+ * incumbent) whose value is the sum of the uppers, and the sum of the lowers is a lower bound. A segment whose RAP
+ * solution satisfies its nested constraints is solved: lower = upper.
+ *
+ * Stage 0 solves the RAP relaxation of the instance, which gives the first incumbent and bound. Every later stage
+ * divides the segment with the largest upper - lower like DCA does and solves the relaxations of its two parts, so the
+ * bound never decreases and the gap closes where it is largest; the value of the incumbent usually decreases, but a
+ * repair of the two parts may be worse than that of the segment. After each stage the listener receives the bounds, and
+ * the solve stops at the deadline, when every segment is solved (status SOLVED: the incumbent is then the solution of
+ * solveIntegerDCA()) or once the relative gap (upper - lower) / max(|upper|, |lower|) is at most the target gap (status
+ * GAP_REACHED, or SOLVED if the bounds meet, which may happen with a target gap of 0 while segments are open).
+ *
+ * Building the incumbent costs about as much as the relaxation, so a complete solve takes about twice as long as DCA.
+ * Time-Complexity: O(n log(n) log(B)) per stage, O(n^2 log(B)) for the complete solve as DCA.
+ */
+
+import java.util.*;
+import java.util.function.Consumer;
+
+public final class AnytimeDCA {
+    private final RAPNC problem;
+    private double targetGap;
+    private Deadline deadline;
+    private Consumer<Stage> listener;
+
+    //state of the solve
+    private long[] incumbent;
+    private PriorityQueue<Segment> frontier;
+    //sum of the finite lowers and number of the infinite ones
+    private double lowerBound;
+    private int infiniteLowers;
+    //sum of the finite uppers and number of the infinite ones
+    private double upperBound;
+    private int unbounded;
+    private int stages;
+    private long startNanos;
+
+    //A subproblem on the frontier and its part of the incumbent
+    private static final class Segment {
+        final RAPNC problem;
+        //index of the first variable of the segment in the instance
+        final int offset;
+        //solution of the RAP relaxation
+        final long[] relaxed;
+        //repaired solution until it is copied to the incumbent
+        long[] repaired;
+        final double lower;
+        final double upper;
+        //true if the relaxed solution violates a nested constraint
+        final boolean open;
+
+        Segment(RAPNC problem, int offset, long[] relaxed, long[] repaired, double lower, double upper,
+                boolean open) {
+            this.problem = problem;
+            this.offset = offset;
+            this.relaxed = relaxed;
+            this.repaired = repaired;
+            this.lower = lower;
+            this.upper = upper;
+            this.open = open;
+        }
+
+        double gap() {
+            return upper - lower;
+        }
+    }
+
+    /*
+    * The bounds after a stage
+    */
+    public static final class Stage {
+        public final int index;
+        //number of segments that are not solved yet
+        public final int open;
+        public final double lowerBound;
+        public final double upperBound;
+        public final long elapsedNanos;
+
+        Stage(int index, int open, double lowerBound, double upperBound, long elapsedNanos) {
+            this.index = index;
+            this.open = open;
+            this.lowerBound = lowerBound;
+            this.upperBound = upperBound;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        public double gap() {
+            return relativeGap(lowerBound, upperBound);
+        }
+    }
+
+    /*
+    * The incumbent at the end of the solve with its bounds. The status is SOLVED when the incumbent is optimal (every
+    * segment is solved or the bounds meet), GAP_REACHED when the solve stopped at the target gap before, TIMED_OUT or
+    * CANCELLED when the deadline stopped the solve (then the solution is the incumbent of the last
+    * complete stage, or null if stage 0 did not complete) and INFEASIBLE when the instance has no solution.
+    */
+    public static final class Result extends ResultTypeRAPNC {
+        public final double lowerBound;
+        public final double upperBound;
+        public final int stages;
+
+        Result(Status status, long[] sol, double lowerBound, double upperBound, int stages) {
+            super(status, sol != null, sol);
+            this.lowerBound = lowerBound;
+            this.upperBound = upperBound;
+            this.stages = stages;
+        }
+
+        public double gap() {
+            return relativeGap(lowerBound, upperBound);
+        }
+    }
+
+    /**
+     * AnytimeDCA constructor
+     * @param problem the instance, whose statistics and trace are not used
+     */
+    public AnytimeDCA(RAPNC problem) {
+        this.problem = problem;
+        this.targetGap = 0;
+    }
+
+    //Stop once the relative gap is at most targetGap, 0 to solve to optimality
+    public void setTargetGap(double targetGap) {
+        this.targetGap = targetGap;
+    }
+
+    //Stop at the deadline with the incumbent of the last complete stage, null to disable
+    public void setDeadline(Deadline deadline) {
+        this.deadline = deadline;
+    }
+
+    //Receive the bounds after each stage, null to disable
+    public void setListener(Consumer<Stage> listener) {
+        this.listener = listener;
+    }
+
+    //A copy of the current incumbent, e.g. for a listener, null before stage 0
+    public long[] incumbent() {
+        return incumbent == null ? null : incumbent.clone();
+    }
+
+    /**
+     * solve method
+     * Improve the incumbent stage by stage until the target gap, the deadline or optimality, see above
+     * Time-Complexity: O(n^2 log(B))
+     * @return Result containing the incumbent, its bounds and the status
+     */
+    public Result solve() {
+        startNanos = System.nanoTime();
+        stages = 0;
+        incumbent = null;
+        frontier = new PriorityQueue<Segment>(Comparator.comparingDouble(Segment::gap).reversed());
+        lowerBound = Double.NaN;
+        infiniteLowers = 0;
+        upperBound = Double.NaN;
+        unbounded = 0;
+        Deadline previous = problem.deadline;
+        problem.setDeadline(deadline);
+        try {
+            Segment root = relax(problem, 0);
+            if (root == null) {
+                return new Result(ResultTypeRAPNC.Status.INFEASIBLE, null, Double.NaN, Double.NaN, 0);
+            }
+            incumbent = new long[problem.dimension];
+            lowerBound = 0;
+            upperBound = 0;
+            add(root);
+            report();
+            while (!frontier.isEmpty() && relativeGap(lowerBound(), upperBound()) > targetGap) {
+                if (deadline != null) {
+                    deadline.check();
+                }
+                if (!divide()) {
+                    return new Result(ResultTypeRAPNC.Status.INFEASIBLE, null, Double.NaN, Double.NaN, stages);
+                }
+                report();
+            }
+        } catch (Deadline.Expired ex) {
+            return new Result(ex.status, incumbent, lowerBound(), upperBound(), stages);
+        } finally {
+            problem.setDeadline(previous);
+        }
+        //the incumbent is optimal once every segment is solved or the bounds meet
+        ResultTypeRAPNC.Status status = frontier.isEmpty() || relativeGap(lowerBound(), upperBound()) == 0
+            ? ResultTypeRAPNC.Status.SOLVED : ResultTypeRAPNC.Status.GAP_REACHED;
+        return new Result(status, incumbent, lowerBound(), upperBound(), stages);
+    }
+
+    //Divide the segment with the largest gap into two segments, false if a part is infeasible
+    private boolean divide() {
+        Segment segment = frontier.peek();
+        RAPNC sub = segment.problem;
+        long[] x = segment.relaxed;
+
+        //find the maximum violation as in solveIntegerDCA()
+        long sum = 0;
+        int maxIndex = -1;
+        long maxVio = 0;
+        int maxFlag = 0;//excess 1, shortage 0
+        for (int i = 0; i < sub.dimension; i++) {
+            sum += x[i];
+            long violation = 0;
+            int flag = 1;
+            if (sum > sub.ubNested[i]) {
+                violation = sum - sub.ubNested[i];
+            } else if (sum < sub.lbNested[i]) {
+                violation = sub.lbNested[i] - sum;
+                flag = 0;
+            }
+            if (violation > maxVio) {
+                maxIndex = i;
+                maxVio = violation;
+                maxFlag = flag;
+            }
+        }
+        long tight = maxFlag == 0 ? sub.lbNested[maxIndex] : sub.ubNested[maxIndex];
+        List<RAPNC> divide = sub.createRAPNC(maxIndex, tight);
+
+        //the frontier changes only once both parts are solved, so a stage is either complete or not applied
+        Segment left = relax(divide.get(0), segment.offset);
+        Segment right = left == null ? null : relax(divide.get(1), segment.offset + maxIndex + 1);
+        if (left == null || right == null) {
+            return false;
+        }
+        frontier.poll();
+        if (Double.isInfinite(segment.lower)) {
+            infiniteLowers--;
+        } else {
+            lowerBound -= segment.lower;
+        }
+        if (Double.isInfinite(segment.upper)) {
+            unbounded--;
+        } else {
+            upperBound -= segment.upper;
+        }
+        add(left);
+        add(right);
+        return true;
+    }
+
+    //Add a segment to the bounds and its repaired solution to the incumbent
+    private void add(Segment segment) {
+        if (Double.isInfinite(segment.lower)) {
+            infiniteLowers++;
+        } else {
+            lowerBound += segment.lower;
+        }
+        if (Double.isInfinite(segment.upper)) {
+            unbounded++;
+        } else {
+            upperBound += segment.upper;
+        }
+        System.arraycopy(segment.repaired, 0, incumbent, segment.offset, segment.repaired.length);
+        segment.repaired = null;
+        if (segment.open) {
+            frontier.add(segment);
+        }
+    }
+
+    //Solve the RAP relaxation of a subproblem and repair it, null if it is infeasible
+    private Segment relax(RAPNC sub, int offset) {
+        long[] x;
+        if (sub.dimension == 1) {
+            if (!(sub.ubNested[0] >= sub.lbVar[0] && sub.ubNested[0] <= sub.ubVar[0])) {
+                return null;
+            }
+            x = new long[]{sub.ubNested[0]};
+        } else {
+            ResultTypeRAP solRAP = sub.createRAP().solveRAP();
+            if (!solRAP.feasible) {
+                return null;
+            }
+            x = solRAP.sol;
+        }
+        long[] repaired = repair(sub, x);
+        if (repaired == null) {
+            return null;
+        }
+        double lower = value(sub, x);
+        boolean open = !Arrays.equals(x, repaired);
+        if (open) {
+            long[] anchored = anchor(sub, x);
+            if (anchored != null) {
+                repaired = repair(sub, anchored);
+            }
+            balance(sub, repaired);
+        }
+        double upper = open ? value(sub, repaired) : lower;
+        return new Segment(sub, offset, x, repaired, lower, upper, open);
+    }
+
+    private static double value(RAPNC sub, long[] x) {
+        double value = 0;
+        for (int i = 0; i < x.length; i++) {
+            value += sub.obj.get(i).getValue(((double) x[i]) / sub.scaleFactor);
+        }
+        return value;
+    }
+
+    /**
+     * repair method
+     * The nearest solution to x (in the prefix sums) that satisfies the nested constraints of sub, whose last one is
+     * the budget ubNested[n - 1] as in the relaxation. A forward pass bounds each prefix sum by the prefix sums that
+     * are reachable from 0 and a backward pass by those from which the budget is reachable. Then every prefix sum of
+     * x is clipped in turn to the values that are reachable from the previous clipped one.
+     * Time-Complexity: O(n)
+     * @param sub the subproblem
+     * @param x a solution of the relaxation of sub
+     * @return the repaired solution, null if sub is infeasible
+     */
+    static long[] repair(RAPNC sub, long[] x) {
+        int n = sub.dimension;
+        long[] lower = new long[n];
+        long[] upper = new long[n];
+        long lo = 0;
+        long hi = 0;
+        for (int i = 0; i < n; i++) {
+            lo = Math.max(sub.lbNested[i], lo + sub.lbVar[i]);
+            hi = Math.min(sub.ubNested[i], hi + sub.ubVar[i]);
+            if (i == n - 1) {
+                lo = Math.max(lo, sub.ubNested[n - 1]);
+            }
+            if (lo > hi) {
+                return null;
+            }
+            lower[i] = lo;
+            upper[i] = hi;
+        }
+        for (int i = n - 2; i >= 0; i--) {
+            lower[i] = Math.max(lower[i], lower[i + 1] - sub.ubVar[i + 1]);
+            upper[i] = Math.min(upper[i], upper[i + 1] - sub.lbVar[i + 1]);
+        }
+
+        long[] repaired = new long[n];
+        long prefix = 0;
+        long previous = 0;
+        for (int i = 0; i < n; i++) {
+            prefix += x[i];
+            long from = Math.max(lower[i], previous + sub.lbVar[i]);
+            long to = Math.min(upper[i], previous + sub.ubVar[i]);
+            long current = Math.min(to, Math.max(from, prefix));
+            repaired[i] = current - previous;
+            previous = current;
+        }
+        return repaired;
+    }
+
+    /**
+     * anchor method
+     * Fix the nested constraint with maximum violation of every run of violated constraints of x tight and solve the
+     * RAP between consecutive fixed constraints. Unlike a split of DCA, fixing several constraints may lose optimality,
+     * but the result is usually much closer to the nested constraints than x.
+     * Time-Complexity: O(n log(n) log(B))
+     * @param sub the subproblem
+     * @param x a solution of the relaxation of sub
+     * @return the solution of the RAPs, null if one of them is infeasible
+     */
+    static long[] anchor(RAPNC sub, long[] x) {
+        int n = sub.dimension;
+        long[] sol = new long[n];
+        long sum = 0;
+        int start = 0;
+        long startValue = 0;
+        int maxIndex = -1;
+        long maxVio = 0;
+        long tight = 0;
+        for (int i = 0; i < n; i++) {
+            sum += x[i];
+            long violation = 0;
+            if (sum > sub.ubNested[i]) {
+                violation = sum - sub.ubNested[i];
+            } else if (sum < sub.lbNested[i]) {
+                violation = sub.lbNested[i] - sum;
+            }
+            if (violation > maxVio) {
+                maxIndex = i;
+                maxVio = violation;
+                tight = sum > sub.ubNested[i] ? sub.ubNested[i] : sub.lbNested[i];
+            }
+            //the end of a run of violated constraints, or the budget
+            if ((violation == 0 && maxIndex >= 0) || i == n - 1) {
+                int end = maxIndex >= 0 ? maxIndex : n - 1;
+                long endValue = maxIndex >= 0 ? tight : sub.ubNested[n - 1];
+                if (!solvePiece(sub, start, end, endValue - startValue, sol)) {
+                    return null;
+                }
+                start = end + 1;
+                startValue = endValue;
+                maxIndex = -1;
+                maxVio = 0;
+            }
+        }
+        if (start < n && !solvePiece(sub, start, n - 1, sub.ubNested[n - 1] - startValue, sol)) {
+            return null;
+        }
+        return sol;
+    }
+
+    //Solve the RAP over [v, w] with budget B into sol, false if it is infeasible
+    private static boolean solvePiece(RAPNC sub, int v, int w, long B, long[] sol) {
+        RAP rap = new RAP(sub.obj.subList(v, w + 1), B, Arrays.copyOfRange(sub.lbVar, v, w + 1),
+            Arrays.copyOfRange(sub.ubVar, v, w + 1));
+        rap.scaleFactor = sub.scaleFactor;
+        rap.deadline = sub.deadline;
+        ResultTypeRAP res = rap.solveRAP();
+        if (!res.feasible) {
+            return false;
+        }
+        System.arraycopy(res.sol, 0, sol, v, w - v + 1);
+        return true;
+    }
+
+    /**
+     * balance method
+     * Improve a feasible solution y of sub by moving units between neighbours. Moving d units from y[i - 1] to y[i]
+     * only changes the prefix sum i - 1, so the best d within the bounds of the two variables and of the nested
+     * constraint i - 1 is found by a binary search on the convex cost of the pair. The repair rides the bounds of the
+     * nested constraints where x violates them, which can leave variables at their bounds where the objective is
+     * steep or infinite (0 for [FUEL] and [CRASH]); a forward and a backward sweep spread the correction.
+     * Time-Complexity: O(n log(B))
+     * @param sub the subproblem
+     * @param y a feasible solution of sub, modified in place
+     */
+    static void balance(RAPNC sub, long[] y) {
+        long prefix = 0;
+        long[] prefixes = new long[sub.dimension];
+        for (int i = 0; i < sub.dimension; i++) {
+            prefix += y[i];
+            prefixes[i] = prefix;
+        }
+        for (int i = 1; i < sub.dimension; i++) {
+            balancePair(sub, y, prefixes, i);
+        }
+        for (int i = sub.dimension - 1; i >= 1; i--) {
+            balancePair(sub, y, prefixes, i);
+        }
+    }
+
+    //Move the best number of units from y[i - 1] to y[i], see balance()
+    private static void balancePair(RAPNC sub, long[] y, long[] prefixes, int i) {
+        long low = Math.max(Math.max(y[i - 1] - sub.ubVar[i - 1], sub.lbVar[i] - y[i]),
+            prefixes[i - 1] - sub.ubNested[i - 1]);
+        long high = Math.min(Math.min(y[i - 1] - sub.lbVar[i - 1], sub.ubVar[i] - y[i]),
+            prefixes[i - 1] - sub.lbNested[i - 1]);
+        //the smallest d in [low, high] whose cost does not decrease with d + 1
+        while (low < high) {
+            long d = low + (high - low) / 2;
+            if (pairCost(sub, y, i, d + 1) >= pairCost(sub, y, i, d)) {
+                high = d;
+            } else {
+                low = d + 1;
+            }
+        }
+        if (low != 0 && pairCost(sub, y, i, low) < pairCost(sub, y, i, 0)) {
+            y[i - 1] -= low;
+            y[i] += low;
+            prefixes[i - 1] -= low;
+        }
+    }
+
+    private static double pairCost(RAPNC sub, long[] y, int i, long d) {
+        return sub.obj.get(i - 1).getValue(((double) (y[i - 1] - d)) / sub.scaleFactor)
+            + sub.obj.get(i).getValue(((double) (y[i] + d)) / sub.scaleFactor);
+    }
+
+    //The value of the incumbent, infinite if the objective of a segment is
+    //The relaxation of a segment is infinite only if it puts 0 on a variable whose cost diverges at 0 (fuel, crash)
+    private double lowerBound() {
+        return infiniteLowers > 0 ? Double.POSITIVE_INFINITY : lowerBound;
+    }
+
+    private double upperBound() {
+        return unbounded > 0 ? Double.POSITIVE_INFINITY : upperBound;
+    }
+
+    private void report() {
+        stages++;
+        if (listener != null) {
+            listener.accept(new Stage(stages - 1, frontier.size(), lowerBound(), upperBound(),
+                System.nanoTime() - startNanos));
+        }
+    }
+
+    //The gap relative to the larger absolute bound, 0 if the bounds meet
+    static double relativeGap(double lowerBound, double upperBound) {
+        if (Double.isInfinite(upperBound)) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double gap = upperBound - lowerBound;
+        double scale = Math.max(Math.abs(upperBound), Math.abs(lowerBound));
+        if (gap <= 0) {
+            return 0;
+        }
+        return gap / scale;
+    }
+}
@@ -1,17 +1,17 @@
 package dca_ijoc;
 
 /**
- * Hello world!
+ * The entry point of the jar: runs the solver daemon, see SolverDaemon.
  */
 public final class App {
     private App() {
     }
 
     /**
-     * Says hello to the world.
-     * @param args The arguments of the program.
+     * Runs the solver daemon.
+     * @param args The arguments of the daemon: [--threads n] [--warmup rounds] [--port p]
      */
-    public static void main(String[] args) {
-        System.out.println("Hello World!");
+    public static void main(String[] args) throws Exception {
+        SolverDaemon.main(args);
     }
 }
@@ -0,0 +1,49 @@
+package dca_ijoc;
+
+/*
+ *  An InstanceSource over the arrays of a RAPNCInstanceData, which are not copied.
+ */
+
+public final class ArrayInstanceSource implements InstanceSource {
+    private final RAPNCTestUtils.RAPNCInstanceData data;
+
+    public ArrayInstanceSource(RAPNCTestUtils.RAPNCInstanceData data) {
+        this.data = data;
+    }
+
+    public String objFuncType() {
+        return data.objFuncType;
+    }
+
+    public int dimension() {
+        return data.dimension;
+    }
+
+    public long lbVar(int i) {
+        return data.lbVar[i];
+    }
+
+    public long ubVar(int i) {
+        return data.capacity[i];
+    }
+
+    public long lbNested(int i) {
+        return data.lbNested[i];
+    }
+
+    public long ubNested(int i) {
+        return data.ubNested[i];
+    }
+
+    public double costParamA(int i) {
+        return data.cost_param_a[i];
+    }
+
+    public double costParamB(int i) {
+        return data.cost_param_b[i];
+    }
+
+    public RAPNCTestUtils.RAPNCInstanceData toInstanceData() {
+        return data;
+    }
+}
@@ -0,0 +1,439 @@
+package dca_ijoc;
+
+/*
+ *  A columnar binary format of RAPNCInstanceData that can be memory-mapped.
+ *
+ * File format (little-endian):
+ *     header of HEADER_BYTES bytes:
+ *         int MAGIC, int VERSION, int dimension, int length of objFuncType, objFuncType in ASCII (zero padded)
+ *     columns of dimension values each, in this order:
+ *         long lbVar, long capacity, long lbNested, long ubNested, double cost_param_a, double cost_param_b
+ *
+ * Every column starts at a multiple of 8 bytes, so map() can view the columns of a file as LongBuffer and
+ * DoubleBuffer without parsing, and read() builds a RAPNCInstanceData with one bulk copy per column. A column is
+ * mapped by one MappedByteBuffer, which limits the dimension to 2^28 - 1 variables. read(ByteBuffer) views the
+ * columns of the bytes of a file that is already in memory in the same way, e.g. in PipelinedEvaluator.
+ *
+ * In version 2 (write(data, filename, true)), lbNested and ubNested are compressed by NestedBoundCodec:
+ *     int length, int number of bytes, the bytes, zero padding to a multiple of 8 bytes
+ * They take 1-2 bytes per entry instead of 8. map() keeps them encoded: the MappedInstance reads them by a Cursor,
+ * in O(1) time per entry in increasing order, and only toInstanceData() decodes them into arrays.
+ *
+ * JSON and AMPL files can be converted by
+ *     java -cp ./ dca_ijoc.BinaryInstanceFormat instance.json instance.rapnc
+ *     java -cp ./ dca_ijoc.BinaryInstanceFormat rapnc_ampl_Con_F_n=800.dat instance.rapnc
+ */
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.IntToLongFunction;
+
+public final class BinaryInstanceFormat {
+    static final int MAGIC = 0x42504152; // "RAPB"
+    static final int VERSION = 1;
+    static final int VERSION_COMPRESSED = 2;
+    static final int HEADER_BYTES = 64;
+    static final int MAX_TYPE_BYTES = HEADER_BYTES - 16;
+    static final int COLUMNS = 6;
+    //a column of 8-byte values must fit in one mapping of at most Integer.MAX_VALUE bytes
+    static final int MAX_DIMENSION = Integer.MAX_VALUE / 8;
+
+    private BinaryInstanceFormat() {
+    }
+
+    /*
+    * A read-only view of the columns of a mapped file.
+    * The nested bounds of a version 2 file stay encoded and are read by cursors that follow the last read entry, so
+    * the nested bounds of one MappedInstance must not be read by several threads at the same time.
+    */
+    public static final class MappedInstance implements InstanceSource {
+        String objFuncType;
+        int dimension;
+        LongBuffer lbVar;
+        LongBuffer capacity;
+        //nested bounds of version 1 files, null otherwise
+        LongBuffer lbNested;
+        LongBuffer ubNested;
+        DoubleBuffer cost_param_a;
+        DoubleBuffer cost_param_b;
+        //compressed nested bounds of version 2 files, null otherwise
+        NestedBoundCodec.Encoded lbNestedEncoded;
+        NestedBoundCodec.Encoded ubNestedEncoded;
+        //cursors at the entries after the last read nested bounds
+        private NestedBoundCodec.Cursor lbNestedCursor;
+        private NestedBoundCodec.Cursor ubNestedCursor;
+
+        public String objFuncType() {
+            return objFuncType;
+        }
+
+        public int dimension() {
+            return dimension;
+        }
+
+        public long lbVar(int i) {
+            return lbVar.get(i);
+        }
+
+        public long ubVar(int i) {
+            return capacity.get(i);
+        }
+
+        /**
+         * lbNested method
+         * Time-Complexity: O(1) if i follows the last read entry, O(NestedBoundCodec.BLOCK) otherwise
+         */
+        public long lbNested(int i) {
+            if (lbNestedEncoded == null) {
+                return lbNested.get(i);
+            }
+            if (lbNestedCursor == null || lbNestedCursor.index != i) {
+                lbNestedCursor = lbNestedEncoded.seek(i);
+            }
+            return lbNestedCursor.next();
+        }
+
+        /**
+         * ubNested method
+         * Time-Complexity: O(1) if i follows the last read entry, O(NestedBoundCodec.BLOCK) otherwise
+         */
+        public long ubNested(int i) {
+            if (ubNestedEncoded == null) {
+                return ubNested.get(i);
+            }
+            if (ubNestedCursor == null || ubNestedCursor.index != i) {
+                ubNestedCursor = ubNestedEncoded.seek(i);
+            }
+            return ubNestedCursor.next();
+        }
+
+        public double costParamA(int i) {
+            return cost_param_a.get(i);
+        }
+
+        public double costParamB(int i) {
+            return cost_param_b.get(i);
+        }
+
+        /**
+         * toInstanceData method
+         * Copy the columns to the heap and decode the compressed nested bounds
+         * Time-Complexity: O(n)
+         */
+        public RAPNCTestUtils.RAPNCInstanceData toInstanceData() {
+            long[] lb = lbNestedEncoded == null ? toArray(lbNested) : lbNestedEncoded.toArray();
+            long[] ub = ubNestedEncoded == null ? toArray(ubNested) : ubNestedEncoded.toArray();
+            RAPNCTestUtils.RAPNCInstanceData data = new RAPNCTestUtils.RAPNCInstanceData(objFuncType, dimension,
+                toArray(capacity), lb, ub, toArray(cost_param_a), toArray(cost_param_b));
+            data.lbVar = toArray(lbVar);
+            return data;
+        }
+
+        private static long[] toArray(LongBuffer column) {
+            long[] values = new long[column.remaining()];
+            column.duplicate().get(values);
+            return values;
+        }
+
+        private static double[] toArray(DoubleBuffer column) {
+            double[] values = new double[column.remaining()];
+            column.duplicate().get(values);
+            return values;
+        }
+    }
+
+    /**
+     * write method
+     * Write an instance in the binary format
+     * Time-Complexity: O(n)
+     * @param data the instance data
+     * @param filename the binary file
+     */
+    public static void write(RAPNCTestUtils.RAPNCInstanceData data, String filename) throws IOException {
+        write(data, filename, false);
+    }
+
+    /**
+     * write method
+     * Write an instance in the binary format
+     * Time-Complexity: O(n)
+     * @param data the instance data
+     * @param filename the binary file
+     * @param compressNested if true, the nested bounds are compressed (version 2)
+     */
+    public static void write(RAPNCTestUtils.RAPNCInstanceData data, String filename, boolean compressNested)
+            throws IOException {
+        checkColumn(data.lbVar == null ? -1 : data.lbVar.length, data.dimension);
+        checkColumn(data.capacity == null ? -1 : data.capacity.length, data.dimension);
+        checkColumn(data.lbNested == null ? -1 : data.lbNested.length, data.dimension);
+        checkColumn(data.ubNested == null ? -1 : data.ubNested.length, data.dimension);
+        checkColumn(data.cost_param_a == null ? -1 : data.cost_param_a.length, data.dimension);
+        checkColumn(data.cost_param_b == null ? -1 : data.cost_param_b.length, data.dimension);
+        write(new ArrayInstanceSource(data), filename, compressNested);
+    }
+
+    /**
+     * write method
+     * Write an instance in the binary format by reading its entries in increasing order, so that instances of a
+     * ProceduralInstanceSource can be written without holding them in memory
+     * Time-Complexity: O(n)
+     * @param source the instance
+     * @param filename the binary file
+     * @param compressNested if true, the nested bounds are compressed (version 2)
+     */
+    public static void write(InstanceSource source, String filename, boolean compressNested) throws IOException {
+        int dimension = source.dimension();
+        byte[] type = source.objFuncType().getBytes(StandardCharsets.US_ASCII);
+        if (type.length > MAX_TYPE_BYTES) {
+            throw new IOException("objFuncType is longer than " + MAX_TYPE_BYTES + " bytes");
+        }
+        if (dimension > MAX_DIMENSION) {
+            throw new IOException("Dimension " + dimension + " exceeds " + MAX_DIMENSION);
+        }
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 16).order(ByteOrder.LITTLE_ENDIAN);
+            buffer.putInt(MAGIC);
+            buffer.putInt(compressNested ? VERSION_COMPRESSED : VERSION);
+            buffer.putInt(dimension);
+            buffer.putInt(type.length);
+            buffer.put(type);
+            buffer.position(HEADER_BYTES);
+            writeColumn(channel, buffer, dimension, source::lbVar);
+            writeColumn(channel, buffer, dimension, source::ubVar);
+            if (compressNested) {
+                writeEncoded(channel, buffer, NestedBoundCodec.encode(dimension, source::lbNested));
+                writeEncoded(channel, buffer, NestedBoundCodec.encode(dimension, source::ubNested));
+            } else {
+                writeColumn(channel, buffer, dimension, source::lbNested);
+                writeColumn(channel, buffer, dimension, source::ubNested);
+            }
+            writeDoubleColumn(channel, buffer, dimension, source::costParamA);
+            writeDoubleColumn(channel, buffer, dimension, source::costParamB);
+            drain(channel, buffer);
+        }
+    }
+
+    private static void writeColumn(FileChannel channel, ByteBuffer buffer, int dimension, IntToLongFunction column)
+            throws IOException {
+        for (int i = 0; i < dimension; i++) {
+            if (buffer.remaining() < 8) {
+                drain(channel, buffer);
+            }
+            buffer.putLong(column.applyAsLong(i));
+        }
+    }
+
+    private static void writeDoubleColumn(FileChannel channel, ByteBuffer buffer, int dimension,
+            IntToDoubleFunction column) throws IOException {
+        for (int i = 0; i < dimension; i++) {
+            if (buffer.remaining() < 8) {
+                drain(channel, buffer);
+            }
+            buffer.putDouble(column.applyAsDouble(i));
+        }
+    }
+
+    private static void writeEncoded(FileChannel channel, ByteBuffer buffer, NestedBoundCodec.Encoded encoded)
+            throws IOException {
+        //the lengths go through the buffer, the entries are written from the encoded array without a copy
+        if (buffer.remaining() < 8) {
+            drain(channel, buffer);
+        }
+        buffer.putInt(encoded.length);
+        buffer.putInt(encoded.byteLength);
+        drain(channel, buffer);
+        ByteBuffer bytes = encoded.byteBuffer();
+        while (bytes.hasRemaining()) {
+            channel.write(bytes);
+        }
+        for (long k = 8L + encoded.byteLength; k < paddedLength(encoded.byteLength); k++) {
+            buffer.put((byte) 0);
+        }
+    }
+
+    //bytes of an encoded column including its lengths and padding
+    private static long paddedLength(int byteLength) {
+        return (8L + byteLength + 7) & ~7L;
+    }
+
+    private static void checkColumn(int length, int dimension) throws IOException {
+        if (length != dimension) {
+            throw new IOException("A column has " + length + " entries but the dimension is " + dimension);
+        }
+    }
+
+    private static void drain(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * map method
+     * Map the columns of a binary file. The mapping stays valid after the method returns.
+     * Time-Complexity: O(1)
+     * @param filename the binary file
+     * @return the mapped instance
+     */
+    public static MappedInstance map(String filename) throws IOException {
+        try (FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ)) {
+            return view(new Regions() {
+                public long size() throws IOException {
+                    return channel.size();
+                }
+
+                public ByteBuffer region(long offset, long bytes) throws IOException {
+                    return mapColumn(channel, offset, bytes);
+                }
+            });
+        }
+    }
+
+    /**
+     * read method
+     * Read a binary file whose bytes are already in memory
+     * Time-Complexity: O(n)
+     * @param file the bytes of the file from its position to its limit, which are not modified
+     * @return the instance data
+     */
+    public static RAPNCTestUtils.RAPNCInstanceData read(ByteBuffer file) throws IOException {
+        ByteBuffer bytes = file.slice();
+        return view(new Regions() {
+            public long size() {
+                return bytes.limit();
+            }
+
+            public ByteBuffer region(long offset, long length) throws IOException {
+                if (offset < 0 || length < 0 || offset + length > bytes.limit()) {
+                    throw new IOException("Truncated file");
+                }
+                ByteBuffer region = bytes.duplicate();
+                region.position((int) offset);
+                region.limit((int) (offset + length));
+                return region.slice().order(ByteOrder.LITTLE_ENDIAN);
+            }
+        }).toInstanceData();
+    }
+
+    //The regions of a binary file, mapped or in memory
+    private interface Regions {
+        long size() throws IOException;
+
+        //a little-endian buffer over the bytes [offset, offset + bytes) of the file
+        ByteBuffer region(long offset, long bytes) throws IOException;
+    }
+
+    //View the columns of a binary file, see map
+    private static MappedInstance view(Regions file) throws IOException {
+        if (file.size() < HEADER_BYTES) {
+            throw new IOException("Not a binary RAPNC instance");
+        }
+        ByteBuffer header = file.region(0, HEADER_BYTES);
+        if (header.getInt() != MAGIC) {
+            throw new IOException("Not a binary RAPNC instance");
+        }
+        int version = header.getInt();
+        if (version != VERSION && version != VERSION_COMPRESSED) {
+            throw new IOException("Unsupported binary RAPNC version " + version);
+        }
+        MappedInstance instance = new MappedInstance();
+        instance.dimension = header.getInt();
+        int typeLength = header.getInt();
+        if (instance.dimension < 1 || instance.dimension > MAX_DIMENSION || typeLength < 0
+                || typeLength > MAX_TYPE_BYTES) {
+            throw new IOException("Corrupted header");
+        }
+        byte[] type = new byte[typeLength];
+        header.get(type);
+        instance.objFuncType = new String(type, StandardCharsets.US_ASCII);
+
+        long columnBytes = 8L * instance.dimension;
+        long offset = HEADER_BYTES;
+        instance.lbVar = file.region(offset, columnBytes).asLongBuffer();
+        instance.capacity = file.region(offset += columnBytes, columnBytes).asLongBuffer();
+        offset += columnBytes;
+        if (version == VERSION_COMPRESSED) {
+            instance.lbNestedEncoded = readEncoded(file, offset, instance.dimension);
+            offset += paddedLength(instance.lbNestedEncoded.byteLength);
+            instance.ubNestedEncoded = readEncoded(file, offset, instance.dimension);
+            offset += paddedLength(instance.ubNestedEncoded.byteLength);
+        } else {
+            instance.lbNested = file.region(offset, columnBytes).asLongBuffer();
+            instance.ubNested = file.region(offset += columnBytes, columnBytes).asLongBuffer();
+            offset += columnBytes;
+        }
+        if (file.size() != offset + 2 * columnBytes) {
+            throw new IOException("File size " + file.size() + " does not match the dimension");
+        }
+        instance.cost_param_a = file.region(offset, columnBytes).asDoubleBuffer();
+        instance.cost_param_b = file.region(offset += columnBytes, columnBytes).asDoubleBuffer();
+        return instance;
+    }
+
+    private static NestedBoundCodec.Encoded readEncoded(Regions file, long offset, int dimension)
+            throws IOException {
+        if (offset + 8 > file.size()) {
+            throw new IOException("Truncated file");
+        }
+        ByteBuffer lengths = file.region(offset, 8);
+        int byteLength = lengths.getInt(4);
+        if (lengths.getInt(0) != dimension || byteLength < 0 || offset + paddedLength(byteLength) > file.size()) {
+            throw new IOException("Corrupted nested bounds");
+        }
+        try {
+            return NestedBoundCodec.read(file.region(offset, paddedLength(byteLength)));
+        } catch (IllegalArgumentException ex) {
+            throw new IOException(ex.getMessage());
+        }
+    }
+
+    private static ByteBuffer mapColumn(FileChannel channel, long offset, long bytes) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, bytes).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    /**
+     * read method
+     * Read a binary file into the heap by mapping it
+     * Time-Complexity: O(n)
+     * @param filename the binary file
+     * @return the instance data
+     */
+    public static RAPNCTestUtils.RAPNCInstanceData read(String filename) throws IOException {
+        return map(filename).toInstanceData();
+    }
+
+    /**
+     * convert method
+     * Convert a JSON file (*.json, *.json.gz) or an AMPL data file (*.dat) to the binary format
+     * @param source the JSON or AMPL file
+     * @param target the binary file
+     */
+    public static void convert(String source, String target) throws IOException {
+        RAPNCTestUtils.RAPNCInstanceData data;
+        if (source.endsWith(".dat")) {
+            data = AMPLInstanceReader.readInstance(source);
+        } else {
+            data = RAPNCInstanceIO.readInstance(source);
+        }
+        write(data, target);
+    }
+
+    /**
+     * main method
+     * Convert the file given as first argument to the binary file given as second argument
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.out.println("Usage: BinaryInstanceFormat <instance.json|instance.json.gz|instance.dat> <target>");
+            return;
+        }
+        convert(args[0], args[1]);
+    }
+}
@@ -0,0 +1,103 @@
+package dca_ijoc;
+
+/*
+ *  A deadline and cancellation token of a solve.
+ *
+ * The solvers poll the token at the boundaries of their steps: before each subproblem of DCA (that is, at every
+ * split), before each merge of MDA, LinearMDA and FastMDA, at each scaling phase of RAP and every CHECK_INTERVAL
+ * iterations of the greedy loop of RAP. Once the deadline has passed or cancel() has been called, the next check
+ * unwinds the recursion and the solve returns a ResultTypeRAPNC with the status TIMED_OUT or CANCELLED and no
+ * solution. The subproblems, their bounds and their solutions are then unreachable, so the memory is freed with the
+ * stack and the thread of the solve is free at once.
+ *
+ * A check costs a volatile read and, with a time limit, a System.nanoTime() call. The split and merge boundaries are
+ * checked every time, since a step between two boundaries costs at least a solve of RAP.
+ */
+
+import java.util.concurrent.TimeUnit;
+
+public final class Deadline {
+    //number of iterations of the greedy loop of RAP between two checks
+    static final int CHECK_INTERVAL = 1 << 10;
+
+    //System.nanoTime() at the deadline, meaningless if limited is false
+    private final long end;
+    private final boolean limited;
+    private volatile boolean cancelled;
+
+    /*
+    * The exception that unwinds an aborted solve, caught at the entry of the solver
+    */
+    static final class Expired extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+        final ResultTypeRAPNC.Status status;
+
+        Expired(ResultTypeRAPNC.Status status) {
+            //the stack trace is not needed and would cost as much as a deep recursion
+            super(status.name(), null, false, false);
+            this.status = status;
+        }
+    }
+
+    /**
+     * Deadline constructor
+     * A token without time limit, which only aborts the solve on cancel()
+     */
+    public Deadline() {
+        this.end = 0;
+        this.limited = false;
+    }
+
+    private Deadline(long end) {
+        this.end = end;
+        this.limited = true;
+    }
+
+    /**
+     * after method
+     * A token whose deadline is the given time from now
+     * Time-Complexity: O(1)
+     * @param timeout the time limit
+     * @param unit the unit of timeout
+     * @return the token
+     */
+    public static Deadline after(long timeout, TimeUnit unit) {
+        return new Deadline(System.nanoTime() + unit.toNanos(timeout));
+    }
+
+    /**
+     * cancel method
+     * Abort the solves that use this token at their next check, from any thread
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    public boolean isExpired() {
+        return limited && System.nanoTime() - end >= 0;
+    }
+
+    //The time left before the deadline in nanoseconds, Long.MAX_VALUE without time limit
+    public long remainingNanos() {
+        return limited ? Math.max(0, end - System.nanoTime()) : Long.MAX_VALUE;
+    }
+
+    /**
+     * check method
+     * Abort the solve if it is cancelled or past its deadline
+     * Time-Complexity: O(1)
+     * @throws Expired with the status of the aborted solve
+     */
+    void check() {
+        if (cancelled) {
+            throw new Expired(ResultTypeRAPNC.Status.CANCELLED);
+        }
+        if (isExpired()) {
+            throw new Expired(ResultTypeRAPNC.Status.TIMED_OUT);
+        }
+    }
+}
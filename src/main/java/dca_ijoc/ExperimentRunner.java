@@ -0,0 +1,424 @@
+package dca_ijoc;
+
+/*
+ *  A runner of numerical experiments that writes one structured record per solve.
+ *
+ * For each instance, the runner solves new contexts of the instance by each algorithm, first warmups times without
+ * recording (to let the JIT compile the solvers) and then repetitions times. Each timed solve is written as one
+ * record to a JSON-lines file (one JSON object per line) or, if the file name ends with ".csv", to a CSV file with
+ * a header. A record contains the instance id, the algorithm, the time, the number of subproblems, the bytes
+ * allocated, whether the objective value agrees with that of the first algorithm, and the JVM that ran it.
+ *
+ * Records of the same algorithm, objective function and dimension are aggregated into the median, p95 and p99 of
+ * the time. Two result files can be compared to flag the groups whose median time increased by more than a
+ * threshold:
+ *     java -cp ./ dca_ijoc.ExperimentRunner summary results.jsonl
+ *     java -cp ./ dca_ijoc.ExperimentRunner compare baseline.jsonl candidate.jsonl 0.1
+ *
+ * The runner writes to its own file and never touches System.out, so several experiments can run in one JVM.
+ */
+
+import java.io.*;
+import java.util.*;
+
+import com.google.gson.Gson;
+
+public class ExperimentRunner implements Closeable {
+    static final String[] DEFAULT_ALGORITHMS = new String[]{"DCA", "FastMDA"};
+    static final int DEFAULT_WARMUPS = 1;
+    static final int DEFAULT_REPETITIONS = 3;
+    //relative tolerance between the objective values of two optimal solutions
+    static final double AGREEMENT_TOLERANCE = 1e-9;
+    static final String CSV_HEADER = "instanceId,objFuncType,dimension,algorithm,repetition,nanos,subproblems,"
+        + "feasible,agrees,bytesAllocated,javaVersion,vmName,processors,maxHeapMB";
+
+    String[] algorithms;
+    int warmups;
+    int repetitions;
+
+    private final Writer out;
+    private final boolean csv;
+    private final Gson gson;
+
+    public ExperimentRunner(String filename) throws IOException {
+        this(filename, DEFAULT_ALGORITHMS, DEFAULT_WARMUPS, DEFAULT_REPETITIONS);
+    }
+
+    public ExperimentRunner(String filename, String[] algorithms, int warmups, int repetitions) throws IOException {
+        File parent = new File(filename).getAbsoluteFile().getParentFile();
+        if (parent != null) {
+            parent.mkdirs();
+        }
+        this.out = new BufferedWriter(new FileWriter(filename));
+        this.csv = filename.endsWith(".csv");
+        this.gson = new Gson();
+        this.algorithms = algorithms;
+        this.warmups = warmups;
+        this.repetitions = repetitions;
+        if (csv) {
+            out.write(CSV_HEADER);
+            out.write(System.lineSeparator());
+        }
+    }
+
+    /*
+    * A timed solve of an instance by an algorithm
+    */
+    public static final class Record {
+        String instanceId;
+        String objFuncType;
+        int dimension;
+        String algorithm;
+        int repetition;
+        long nanos;
+        long subproblems;
+        boolean feasible;
+        //true if the objective value agrees with that of the first algorithm in the same repetition, see agrees()
+        boolean agrees;
+        //-1 if the JVM does not support it
+        long bytesAllocated;
+
+        //JVM info
+        String javaVersion;
+        String vmName;
+        int processors;
+        long maxHeapMB;
+
+        String key() {
+            return algorithm + " " + objFuncType + " n=" + dimension;
+        }
+
+        String toCSV() {
+            return csvField(instanceId) + ',' + csvField(objFuncType) + ',' + dimension + ',' + csvField(algorithm)
+                + ',' + repetition + ',' + nanos + ',' + subproblems + ',' + feasible + ',' + agrees + ','
+                + bytesAllocated + ',' + csvField(javaVersion) + ',' + csvField(vmName) + ',' + processors + ','
+                + maxHeapMB;
+        }
+
+        static Record fromCSV(String line) {
+            List<String> fields = parseCSVLine(line);
+            if (fields.size() != 14) {
+                throw new IllegalArgumentException("Malformed record: " + line);
+            }
+            Record record = new Record();
+            record.instanceId = fields.get(0);
+            record.objFuncType = fields.get(1);
+            record.dimension = Integer.parseInt(fields.get(2));
+            record.algorithm = fields.get(3);
+            record.repetition = Integer.parseInt(fields.get(4));
+            record.nanos = Long.parseLong(fields.get(5));
+            record.subproblems = Long.parseLong(fields.get(6));
+            record.feasible = Boolean.parseBoolean(fields.get(7));
+            record.agrees = Boolean.parseBoolean(fields.get(8));
+            record.bytesAllocated = Long.parseLong(fields.get(9));
+            record.javaVersion = fields.get(10);
+            record.vmName = fields.get(11);
+            record.processors = Integer.parseInt(fields.get(12));
+            record.maxHeapMB = Long.parseLong(fields.get(13));
+            return record;
+        }
+    }
+
+    /**
+     * run method
+     * Solve the instance by each algorithm with warm-up and repetitions, and write one record per timed solve
+     * @param instanceId id of the instance in the records, e.g. its file name
+     * @param data the instance, which is not modified
+     * @return the records of the instance
+     */
+    public List<Record> run(String instanceId, RAPNCTestUtils.RAPNCInstanceData data) throws IOException {
+        List<Record> result = measure(instanceId, data);
+        write(result);
+        return result;
+    }
+
+    /**
+     * measure method
+     * Solve the instance as run() does, without writing the records
+     * @param instanceId id of the instance in the records, e.g. its file name
+     * @param data the instance, which is not modified
+     * @return the records of the instance
+     */
+    List<Record> measure(String instanceId, RAPNCTestUtils.RAPNCInstanceData data) {
+        //the solvers do not modify the instance, so all solves share its arrays
+        RAPNCInstance shared = data.toInstance();
+        for (int i = 0; i < warmups; i++) {
+            for (String algorithm : algorithms) {
+                shared.solve(algorithm);
+            }
+        }
+
+        List<Record> result = new ArrayList<Record>();
+        for (int r = 0; r < repetitions; r++) {
+            boolean first = true;
+            double reference = Double.NaN;
+            for (String algorithm : algorithms) {
+                RAPNC instance = shared.newSolver();
+                long startBytes = SolverStats.threadAllocatedBytes();
+                long startTime = System.nanoTime();
+                ResultTypeRAPNC res = instance.solve(algorithm);
+                long nanos = System.nanoTime() - startTime;
+                long endBytes = SolverStats.threadAllocatedBytes();
+
+                Record record = newRecord(instanceId, data.objFuncType, data.dimension, algorithm);
+                record.repetition = r;
+                record.nanos = nanos;
+                record.subproblems = instance.number_subproblem;
+                record.feasible = res.feasible;
+                record.bytesAllocated = startBytes >= 0 && endBytes >= 0 ? endBytes - startBytes : -1;
+                //linear objectives and ties have several optimal solutions, so the objective values are compared
+                double value = res.feasible ? objectiveValue(instance, res.sol) : Double.NaN;
+                if (first) {
+                    reference = value;
+                    record.agrees = true;
+                    first = false;
+                } else {
+                    record.agrees = res.feasible ? agrees(reference, value) : Double.isNaN(reference);
+                }
+                result.add(record);
+            }
+        }
+        return result;
+    }
+
+    //The objective value of a solution
+    static double objectiveValue(RAPNC instance, long[] sol) {
+        double value = 0;
+        for (int i = 0; i < sol.length; i++) {
+            value += instance.obj.get(i).getValue(sol[i]);
+        }
+        return value;
+    }
+
+    //Check if two objective values agree within AGREEMENT_TOLERANCE, false if the reference is NaN (infeasible)
+    static boolean agrees(double reference, double value) {
+        return Math.abs(reference - value) <= AGREEMENT_TOLERANCE * Math.max(1, Math.abs(reference));
+    }
+
+    //Build a record with the JVM info
+    static Record newRecord(String instanceId, String objFuncType, int dimension, String algorithm) {
+        Record record = new Record();
+        record.instanceId = instanceId;
+        record.objFuncType = objFuncType;
+        record.dimension = dimension;
+        record.algorithm = algorithm;
+        record.javaVersion = System.getProperty("java.version");
+        record.vmName = System.getProperty("java.vm.name");
+        record.processors = Runtime.getRuntime().availableProcessors();
+        record.maxHeapMB = Runtime.getRuntime().maxMemory() >> 20;
+        return record;
+    }
+
+    //Write the records of an instance
+    void write(List<Record> result) throws IOException {
+        for (Record record : result) {
+            out.write(csv ? record.toCSV() : gson.toJson(record));
+            out.write(System.lineSeparator());
+        }
+        out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    /**
+     * readRecords method
+     * Read the records of a JSON-lines or CSV result file
+     * @param filename the result file
+     * @return list of records in the order they were written
+     */
+    public static List<Record> readRecords(String filename) throws IOException {
+        List<Record> records = new ArrayList<Record>();
+        boolean csv = filename.endsWith(".csv");
+        Gson gson = new Gson();
+        try (BufferedReader br = new BufferedReader(new FileReader(filename))) {
+            String line = csv ? br.readLine() : null;
+            while ((line = br.readLine()) != null) {
+                if (line.isEmpty()) {
+                    continue;
+                }
+                records.add(csv ? Record.fromCSV(line) : gson.fromJson(line, Record.class));
+            }
+        }
+        return records;
+    }
+
+    /*
+    * Aggregated times of the records of one algorithm, objective function and dimension
+    */
+    public static final class Summary {
+        String key;
+        int count;
+        double medianMs;
+        double p95Ms;
+        double p99Ms;
+        double meanSubproblems;
+        //number of records whose objective value disagrees with the first algorithm
+        int disagreements;
+
+        @Override
+        public String toString() {
+            return String.format("%-28s %6d %12.3f %12.3f %12.3f %16.1f %6d",
+                key, count, medianMs, p95Ms, p99Ms, meanSubproblems, disagreements);
+        }
+    }
+
+    /**
+     * summarize method
+     * Aggregate the records by algorithm, objective function and dimension
+     * @param records the records
+     * @return map from the key of the group to its summary, in the order of the first record of each group
+     */
+    public static Map<String, Summary> summarize(List<Record> records) {
+        Map<String, List<Record>> groups = new LinkedHashMap<String, List<Record>>();
+        for (Record record : records) {
+            List<Record> group = groups.get(record.key());
+            if (group == null) {
+                group = new ArrayList<Record>();
+                groups.put(record.key(), group);
+            }
+            group.add(record);
+        }
+
+        Map<String, Summary> summaries = new LinkedHashMap<String, Summary>();
+        for (Map.Entry<String, List<Record>> entry : groups.entrySet()) {
+            List<Record> group = entry.getValue();
+            long[] nanos = new long[group.size()];
+            long subproblems = 0;
+            Summary summary = new Summary();
+            for (int i = 0; i < nanos.length; i++) {
+                nanos[i] = group.get(i).nanos;
+                subproblems += group.get(i).subproblems;
+                if (!group.get(i).agrees) {
+                    summary.disagreements++;
+                }
+            }
+            Arrays.sort(nanos);
+            summary.key = entry.getKey();
+            summary.count = nanos.length;
+            summary.medianMs = median(nanos) / 1e6;
+            summary.p95Ms = percentile(nanos, 0.95) / 1e6;
+            summary.p99Ms = percentile(nanos, 0.99) / 1e6;
+            summary.meanSubproblems = ((double) subproblems) / nanos.length;
+            summaries.put(summary.key, summary);
+        }
+        return summaries;
+    }
+
+    /**
+     * formatSummary method
+     * @return the summaries of the records as a table
+     */
+    public static String formatSummary(List<Record> records) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format("%-28s %6s %12s %12s %12s %16s %6s",
+            "group", "runs", "median(ms)", "p95(ms)", "p99(ms)", "subproblems", "diff"));
+        for (Summary summary : summarize(records).values()) {
+            sb.append(System.lineSeparator()).append(summary);
+        }
+        return sb.toString();
+    }
+
+    /**
+     * compare method
+     * Compare the median times of two result sets group by group
+     * @param baseline records of the baseline run
+     * @param candidate records of the candidate run
+     * @param threshold relative increase of the median time that is flagged as a regression, e.g. 0.1 for 10%
+     * @return one line per regression, per group missing in the candidate and per group whose solutions disagree
+     */
+    public static List<String> compare(List<Record> baseline, List<Record> candidate, double threshold) {
+        Map<String, Summary> base = summarize(baseline);
+        Map<String, Summary> cand = summarize(candidate);
+        List<String> findings = new ArrayList<String>();
+        for (Summary b : base.values()) {
+            Summary c = cand.get(b.key);
+            if (c == null) {
+                findings.add("MISSING " + b.key);
+            } else if (c.medianMs > b.medianMs * (1 + threshold)) {
+                findings.add(String.format("REGRESSION %s: median %.3fms -> %.3fms (%+.1f%%)",
+                    b.key, b.medianMs, c.medianMs, 100 * (c.medianMs / b.medianMs - 1)));
+            }
+        }
+        for (Summary c : cand.values()) {
+            if (c.disagreements > 0) {
+                findings.add("DISAGREEMENT " + c.key + ": " + c.disagreements + " solutions differ");
+            }
+        }
+        return findings;
+    }
+
+    //median of a sorted array
+    static double median(long[] sorted) {
+        int n = sorted.length;
+        return n % 2 == 1 ? sorted[n / 2] : (sorted[n / 2 - 1] + sorted[n / 2]) / 2.0;
+    }
+
+    //nearest-rank percentile of a sorted array
+    static double percentile(long[] sorted, double p) {
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(rank, 1) - 1];
+    }
+
+    static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    static List<String> parseCSVLine(String line) {
+        List<String> fields = new ArrayList<String>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+
+    /**
+     * main method
+     * summary <file>: print the summary of a result file
+     * compare <baseline> <candidate> [threshold]: print the regressions of the candidate, exit code 1 if any
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 2 && args[0].equals("summary")) {
+            System.out.println(formatSummary(readRecords(args[1])));
+        } else if (args.length >= 3 && args[0].equals("compare")) {
+            double threshold = args.length >= 4 ? Double.parseDouble(args[3]) : 0.1;
+            List<String> findings = compare(readRecords(args[1]), readRecords(args[2]), threshold);
+            for (String finding : findings) {
+                System.out.println(finding);
+            }
+            if (!findings.isEmpty()) {
+                System.exit(1);
+            }
+        } else {
+            System.out.println("Usage: ExperimentRunner summary <file> | compare <baseline> <candidate> [threshold]");
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package dca_ijoc;
+
+/*
+ *  An in-memory cache of parsed instance files for repeated benchmark runs.
+ *
+ * The instances are kept as RAPNCInstanceData (primitive arrays) and looked up by path. An entry is only used if the
+ * size and the modification time of the file are unchanged, otherwise the file is parsed again. The cache holds at
+ * most maxBytes of instances (8 bytes per entry of the six arrays) and evicts the least recently used instances;
+ * an instance larger than maxBytes is parsed but not cached.
+ *
+ * get() returns the shared data, which callers must not modify, and newRAPNC() a RAPNC that shares its arrays: the
+ * solvers do not modify the bounds, so the cached instances are solved without copies. The methods are thread-safe;
+ * files are parsed outside the lock.
+ */
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+
+public final class InstanceCache {
+    private final long maxBytes;
+    private final LinkedHashMap<String, Entry> entries;
+    private long bytes;
+
+    //statistics
+    long hits;
+    long misses;
+    long evictions;
+
+    private static final class Entry {
+        FileKey key;
+        RAPNCTestUtils.RAPNCInstanceData data;
+        long bytes;
+    }
+
+    /*
+    * The normalized path, the size and the modification time of a file when it was looked up
+    */
+    static final class FileKey {
+        final String path;
+        final long fileSize;
+        final long lastModified;
+
+        FileKey(String filename) throws IOException {
+            Path file = Paths.get(filename).toAbsolutePath().normalize();
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            this.path = file.toString();
+            this.fileSize = attributes.size();
+            this.lastModified = attributes.lastModifiedTime().toMillis();
+        }
+    }
+
+    /**
+     * InstanceCache constructor
+     * @param maxBytes the bound on the memory of the cached instances
+     */
+    public InstanceCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+        //access order, so the first entry is the least recently used one
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true);
+    }
+
+    /**
+     * get method
+     * Time-Complexity: O(1) on a hit, O(n) to parse the file on a miss
+     * @param filename an instance file (JSON, gzipped JSON, AMPL .dat or binary .rapnc)
+     * @return the shared instance data, which must not be modified
+     */
+    public RAPNCTestUtils.RAPNCInstanceData get(String filename) throws IOException {
+        FileKey key = new FileKey(filename);
+        RAPNCTestUtils.RAPNCInstanceData data = lookup(key);
+        if (data != null) {
+            return data;
+        }
+        data = load(filename);
+        put(key, data);
+        return data;
+    }
+
+    /**
+     * newRAPNC method
+     * @return a RAPNC of the instance file that can be solved without modifying the cached data
+     */
+    public RAPNC newRAPNC(String filename) throws IOException {
+        return get(filename).toRAPNC();
+    }
+
+    /**
+     * lookup method
+     * @return the shared instance data if the file is cached and unchanged since the key was made, null otherwise
+     */
+    synchronized RAPNCTestUtils.RAPNCInstanceData lookup(FileKey key) {
+        Entry entry = entries.get(key.path);
+        if (entry != null && entry.key.fileSize == key.fileSize && entry.key.lastModified == key.lastModified) {
+            hits++;
+            return entry.data;
+        }
+        misses++;
+        return null;
+    }
+
+    /**
+     * put method
+     * Cache the data of a file that was parsed by the caller after the key was made
+     */
+    synchronized void put(FileKey key, RAPNCTestUtils.RAPNCInstanceData data) {
+        Entry entry = new Entry();
+        entry.key = key;
+        entry.data = data;
+        entry.bytes = footprint(data);
+        Entry previous = entries.remove(key.path);
+        if (previous != null) {
+            bytes -= previous.bytes;
+        }
+        if (entry.bytes > maxBytes) {
+            return;
+        }
+        entries.put(key.path, entry);
+        bytes += entry.bytes;
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (bytes > maxBytes) {
+            Entry evicted = eldest.next();
+            eldest.remove();
+            bytes -= evicted.bytes;
+            evictions++;
+        }
+    }
+
+    //Bytes of the arrays of an instance
+    static long footprint(RAPNCTestUtils.RAPNCInstanceData data) {
+        return 6L * 8 * data.dimension + 256;
+    }
+
+    public synchronized long sizeInBytes() {
+        return bytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        bytes = 0;
+    }
+
+    /**
+     * load method
+     * Parse an instance file, see parse
+     */
+    static RAPNCTestUtils.RAPNCInstanceData load(String filename) throws IOException {
+        return parse(filename, null);
+    }
+
+    /**
+     * parse method
+     * Parse an instance file by the extension of its name: AMPL if it ends with ".dat", binary if it ends with
+     * ".rapnc", JSON (gzipped if it ends with ".gz") otherwise
+     * @param filename the name of the file
+     * @param content the bytes of the file if they were read already, e.g. by PipelinedEvaluator, null to read the file
+     */
+    static RAPNCTestUtils.RAPNCInstanceData parse(String filename, byte[] content) throws IOException {
+        if (filename.endsWith(".dat")) {
+            return content == null ? AMPLInstanceReader.readInstance(filename)
+                : new AMPLInstanceReader(new ByteArrayInputStream(content))
+                    .read(AMPLInstanceReader.objFuncTypeOf(filename));
+        }
+        if (filename.endsWith(".rapnc")) {
+            return content == null ? BinaryInstanceFormat.read(filename)
+                : BinaryInstanceFormat.read(ByteBuffer.wrap(content));
+        }
+        if (content == null) {
+            return RAPNCInstanceIO.readInstance(filename);
+        }
+        InputStream in = new ByteArrayInputStream(content);
+        if (filename.endsWith(".gz")) {
+            in = new GZIPInputStream(in, RAPNCInstanceIO.BUFFER_SIZE);
+        }
+        try (Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+            return RAPNCInstanceIO.readInstance(reader);
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package dca_ijoc;
+
+/*
+ *  Element-wise read access to a DRAP-NC instance.
+ *
+ * An InstanceSource gives the entries of an instance by index instead of as arrays, so an instance does not need to
+ * be held in memory: ArrayInstanceSource reads the arrays of a RAPNCInstanceData and ProceduralInstanceSource
+ * regenerates every entry from a seed and its index, and BinaryInstanceFormat.MappedInstance reads a mapped file.
+ * Streaming consumers such as BinaryInstanceFormat.write and RAPNC.fromSource read the entries in increasing index
+ * order, which every source supports in O(1) time per entry.
+ */
+
+public interface InstanceSource {
+
+    String objFuncType();
+
+    int dimension();
+
+    long lbVar(int i);
+
+    long ubVar(int i);
+
+    long lbNested(int i);
+
+    long ubNested(int i);
+
+    double costParamA(int i);
+
+    double costParamB(int i);
+
+    /**
+     * toInstanceData method
+     * Return the instance as a RAPNCInstanceData, whose arrays are filled from the entries if needed
+     * Time-Complexity: O(n)
+     */
+    default RAPNCTestUtils.RAPNCInstanceData toInstanceData() {
+        int n = dimension();
+        long[] lbVar = new long[n];
+        long[] capacity = new long[n];
+        long[] lbNested = new long[n];
+        long[] ubNested = new long[n];
+        double[] cost_param_a = new double[n];
+        double[] cost_param_b = new double[n];
+        for (int i = 0; i < n; i++) {
+            lbVar[i] = lbVar(i);
+            capacity[i] = ubVar(i);
+            lbNested[i] = lbNested(i);
+            ubNested[i] = ubNested(i);
+            cost_param_a[i] = costParamA(i);
+            cost_param_b[i] = costParamB(i);
+        }
+        RAPNCTestUtils.RAPNCInstanceData data = new RAPNCTestUtils.RAPNCInstanceData(objFuncType(), n, capacity,
+            lbNested, ubNested, cost_param_a, cost_param_b);
+        data.lbVar = lbVar;
+        return data;
+    }
+}
@@ -0,0 +1,308 @@
+package dca_ijoc;
+
+/*
+ *  A compressed encoding of the nested bound arrays lbNested and ubNested.
+ *
+ * The nested bounds are prefix sums of values bounded by varBound, so consecutive entries differ by small amounts.
+ * Each entry is stored as the zigzag varint (LEB128) of its difference to the previous entry, which takes 1 or 2
+ * bytes per entry for varBound < 8192 instead of 8 bytes. Every BLOCK entries, the value and the byte offset of
+ * the entry are kept as a checkpoint, so an entry can be read in O(BLOCK) time.
+ *
+ * An Encoded array is read-only. It is read sequentially by a Cursor, e.g. to scan the nested constraints, and it
+ * is stored as is in the binary instance format (see BinaryInstanceFormat.write(data, filename, true)). Its bytes are
+ * read from a ByteBuffer: a heap buffer after encode(), and the mapped file itself after read(), so a mapped array
+ * is decoded in place and only its checkpoints are on the heap. An encoded array has at most MAX_BYTES bytes.
+ */
+
+import java.nio.ByteBuffer;
+import java.util.*;
+import java.util.function.IntToLongFunction;
+
+public final class NestedBoundCodec {
+    //number of entries between two checkpoints
+    static final int BLOCK = 128;
+    //bound on the number of bytes of an encoded array, as on the length of a Java array
+    static final int MAX_BYTES = Integer.MAX_VALUE - 8;
+    //bytes of the longest varint of a delta
+    static final int MAX_VARINT_BYTES = 10;
+
+    private NestedBoundCodec() {
+    }
+
+    /*
+    * A read-only compressed array of longs
+    */
+    public static final class Encoded {
+        int length;
+        //the encoded entries from index 0 to byteLength, read by absolute index
+        ByteBuffer bytes;
+        int byteLength;
+        //value and byte offset of the entries BLOCK * k
+        long[] blockValues;
+        int[] blockOffsets;
+
+        /**
+         * get method
+         * Time-Complexity: O(BLOCK)
+         * @return the entry i
+         */
+        public long get(int i) {
+            if (i < 0 || i >= length) {
+                throw new IndexOutOfBoundsException("Index " + i + " of " + length);
+            }
+            return seek(i).next();
+        }
+
+        /**
+         * cursor method
+         * @return a cursor at the first entry
+         */
+        public Cursor cursor() {
+            return cursor(0);
+        }
+
+        /**
+         * cursor method
+         * @param start index of the first entry returned by the cursor, a multiple of BLOCK
+         * @return a cursor at the entry start
+         */
+        Cursor cursor(int start) {
+            Cursor cursor = new Cursor(this);
+            if (start > 0) {
+                int block = start / BLOCK;
+                cursor.index = start;
+                cursor.offset = blockOffsets[block];
+                //the delta of the entry start is relative to the entry start - 1
+                cursor.value = blockValues[block] - readDelta(bytes, blockOffsets[block]);
+            }
+            return cursor;
+        }
+
+        /**
+         * seek method
+         * Time-Complexity: O(BLOCK)
+         * @param i index of the first entry returned by the cursor
+         * @return a cursor at the entry i
+         */
+        Cursor seek(int i) {
+            Cursor cursor = cursor(i - i % BLOCK);
+            for (int k = i % BLOCK; k > 0; k--) {
+                cursor.next();
+            }
+            return cursor;
+        }
+
+        /**
+         * byteBuffer method
+         * @return a buffer over the encoded entries, from position 0 to byteLength, that shares them
+         */
+        ByteBuffer byteBuffer() {
+            ByteBuffer buffer = bytes.duplicate();
+            buffer.position(0);
+            buffer.limit(byteLength);
+            return buffer;
+        }
+
+        /**
+         * sizeInBytes method
+         * @return the number of bytes of the encoded array and its checkpoints
+         */
+        public long sizeInBytes() {
+            return byteLength + 12L * blockValues.length;
+        }
+
+        /**
+         * toArray method
+         * Time-Complexity: O(n)
+         * @return the decoded array
+         */
+        public long[] toArray() {
+            long[] values = new long[length];
+            Cursor cursor = cursor();
+            for (int i = 0; i < length; i++) {
+                values[i] = cursor.next();
+            }
+            return values;
+        }
+    }
+
+    /*
+    * A sequential reader of an encoded array
+    */
+    public static final class Cursor {
+        private final Encoded encoded;
+        int index;
+        int offset;
+        long value;
+
+        Cursor(Encoded encoded) {
+            this.encoded = encoded;
+        }
+
+        public boolean hasNext() {
+            return index < encoded.length;
+        }
+
+        /**
+         * next method
+         * Time-Complexity: O(1)
+         * @return the next entry
+         */
+        public long next() {
+            if (index >= encoded.length) {
+                throw new NoSuchElementException();
+            }
+            ByteBuffer bytes = encoded.bytes;
+            long raw = 0;
+            int shift = 0;
+            byte b;
+            do {
+                b = bytes.get(offset++);
+                raw |= ((long) (b & 0x7F)) << shift;
+                shift += 7;
+            } while (b < 0);
+            value += (raw >>> 1) ^ -(raw & 1);
+            index++;
+            return value;
+        }
+    }
+
+    /**
+     * encode method
+     * Time-Complexity: O(n)
+     * @param values the array to encode
+     * @return the encoded array
+     */
+    public static Encoded encode(long[] values) {
+        return encode(values.length, i -> values[i]);
+    }
+
+    /**
+     * encode method
+     * Time-Complexity: O(n)
+     * @param length number of entries
+     * @param values the entries, which are read once in increasing order
+     * @return the encoded array
+     */
+    public static Encoded encode(int length, IntToLongFunction values) {
+        Encoded encoded = new Encoded();
+        encoded.length = length;
+        //two bytes per entry for the nested bounds of the generators
+        byte[] bytes = new byte[(int) Math.min(MAX_BYTES, Math.max(16, 2L * length))];
+        int blocks = (length + BLOCK - 1) / BLOCK;
+        encoded.blockValues = new long[blocks];
+        encoded.blockOffsets = new int[blocks];
+
+        long previous = 0;
+        int offset = 0;
+        for (int i = 0; i < length; i++) {
+            long value = values.applyAsLong(i);
+            if (i % BLOCK == 0) {
+                encoded.blockValues[i / BLOCK] = value;
+                encoded.blockOffsets[i / BLOCK] = offset;
+            }
+            if (offset + MAX_VARINT_BYTES > bytes.length) {
+                bytes = Arrays.copyOf(bytes, grow(bytes.length, (long) offset + MAX_VARINT_BYTES));
+            }
+            long delta = value - previous;
+            long raw = (delta << 1) ^ (delta >> 63);
+            while ((raw & ~0x7FL) != 0) {
+                bytes[offset++] = (byte) ((raw & 0x7F) | 0x80);
+                raw >>>= 7;
+            }
+            bytes[offset++] = (byte) raw;
+            previous = value;
+        }
+        encoded.bytes = ByteBuffer.wrap(bytes);
+        encoded.byteLength = offset;
+        return encoded;
+    }
+
+    //The new length of a byte array of the given length that needs at least needed bytes
+    static int grow(int length, long needed) {
+        if (needed > MAX_BYTES) {
+            throw new IllegalArgumentException("The encoded array needs more than " + MAX_BYTES + " bytes");
+        }
+        return (int) Math.min(MAX_BYTES, Math.max(needed, 2L * length));
+    }
+
+    /**
+     * fromBytes method
+     * Build an encoded array from its bytes and rebuild the checkpoints by one sequential pass
+     * Time-Complexity: O(n)
+     * @param length number of entries
+     * @param bytes the encoded entries from index 0, which are not copied, e.g. a mapped file
+     * @param byteLength number of bytes of the encoded entries
+     * @return the encoded array
+     */
+    public static Encoded fromBytes(int length, ByteBuffer bytes, int byteLength) {
+        if (length < 0 || byteLength < 0 || byteLength > bytes.limit()) {
+            throw new IllegalArgumentException("Corrupted encoded array");
+        }
+        Encoded encoded = new Encoded();
+        encoded.length = length;
+        encoded.bytes = bytes;
+        encoded.byteLength = byteLength;
+        int blocks = (length + BLOCK - 1) / BLOCK;
+        encoded.blockValues = new long[blocks];
+        encoded.blockOffsets = new int[blocks];
+        Cursor cursor = new Cursor(encoded);
+        try {
+            for (int i = 0; i < length; i++) {
+                if (i % BLOCK == 0) {
+                    encoded.blockOffsets[i / BLOCK] = cursor.offset;
+                }
+                long value = cursor.next();
+                if (i % BLOCK == 0) {
+                    encoded.blockValues[i / BLOCK] = value;
+                }
+            }
+        } catch (IndexOutOfBoundsException ex) {
+            throw new IllegalArgumentException("Truncated encoded array");
+        }
+        if (cursor.offset != byteLength) {
+            throw new IllegalArgumentException("Encoded array has " + byteLength + " bytes but "
+                + cursor.offset + " are used");
+        }
+        return encoded;
+    }
+
+    /**
+     * write method
+     * Write the length, the number of bytes and the bytes of an encoded array
+     */
+    static void write(Encoded encoded, ByteBuffer buffer) {
+        buffer.putInt(encoded.length);
+        buffer.putInt(encoded.byteLength);
+        buffer.put(encoded.byteBuffer());
+    }
+
+    /**
+     * read method
+     * Read an encoded array written by write(). The array decodes its entries from buffer, which is not copied.
+     */
+    static Encoded read(ByteBuffer buffer) {
+        int length = buffer.getInt();
+        int byteLength = buffer.getInt();
+        if (length < 0 || byteLength < 0 || byteLength > buffer.remaining()) {
+            throw new IllegalArgumentException("Corrupted encoded array");
+        }
+        ByteBuffer bytes = buffer.slice();
+        bytes.limit(byteLength);
+        buffer.position(buffer.position() + byteLength);
+        return fromBytes(length, bytes, byteLength);
+    }
+
+    //decode the zigzag varint at offset
+    private static long readDelta(ByteBuffer bytes, int offset) {
+        long raw = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = bytes.get(offset++);
+            raw |= ((long) (b & 0x7F)) << shift;
+            shift += 7;
+        } while (b < 0);
+        return (raw >>> 1) ^ -(raw & 1);
+    }
+}
@@ -0,0 +1,131 @@
+package dca_ijoc;
+
+/*
+ *  A deterministic parallel version of RAPNCTestUtils.generateInstanceData.
+ *
+ * The variables are split into chunks of CHUNK variables. The random stream of every chunk is a SplittableRandom
+ * whose seed is drawn from one SplittableRandom(seed), so the values of a variable only depend on the seed and on
+ * its index. The instance is built in two parallel passes over the chunks:
+ *     1. draw the capacities, the costs and the increments of the nested bounds, and sum the increments per chunk
+ *     2. after a sequential scan of the chunk sums, redraw the increments and write the prefix sums of each chunk
+ * The chunks and the order of the additions are fixed, so the instance is identical for any number of threads.
+ *
+ * The distribution of the instances is that of RAPNCTestUtils.generateInstanceData, but the random numbers differ,
+ * so the instances of the paper (and of the shipped data files) are still generated by RAPNCTestUtils with the seeds
+ * of TestConDCA.
+ */
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntConsumer;
+import java.util.stream.IntStream;
+
+public final class ParallelInstanceGenerator {
+    //number of variables per random stream
+    static final int CHUNK = 1 << 14;
+
+    private ParallelInstanceGenerator() {
+    }
+
+    /**
+     * generateInstanceData method
+     * Generate an instance in the common fork/join pool
+     * Time-Complexity: O(n / p + n / CHUNK) with p threads
+     * @param objFuncType type of object function, we support ["linear", "quadratic", "f", "fuel", "crash"]
+     * @param size size of the instances
+     * @param varBound the upperbound of capacity
+     * @param seed the seed of the instance
+     * @return an instance of RAPNC data
+     */
+    public static RAPNCTestUtils.RAPNCInstanceData generateInstanceData(String objFuncType, int size, int varBound,
+            long seed) {
+        return generateInstanceData(objFuncType, size, varBound, seed, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * generateInstanceData method
+     * Generate an instance in the given fork/join pool
+     * Time-Complexity: O(n / p + n / CHUNK) with p threads
+     * @param pool the threads that fill the chunks
+     * @return an instance of RAPNC data
+     */
+    public static RAPNCTestUtils.RAPNCInstanceData generateInstanceData(String objFuncType, int size, int varBound,
+            long seed, ForkJoinPool pool) {
+        int dimension = size;
+        long[] ubVar = new long[dimension];
+        long[] lbNested = new long[dimension];
+        long[] ubNested = new long[dimension];
+        double[] cost_param_a = new double[dimension];
+        double[] cost_param_b = new double[dimension];
+
+        int chunks = (dimension + CHUNK - 1) / CHUNK;
+        long[] seeds = new long[chunks];
+        SplittableRandom root = new SplittableRandom(seed);
+        for (int c = 0; c < chunks; c++) {
+            seeds[c] = root.nextLong();
+        }
+
+        //Pass 1: box constraints, objective and the sums of the increments of each chunk
+        double[] sumA = new double[chunks + 1];
+        double[] sumB = new double[chunks + 1];
+        forEachChunk(pool, chunks, c -> {
+            SplittableRandom generator = new SplittableRandom(seeds[c]);
+            int end = Math.min(dimension, (c + 1) * CHUNK);
+            double a = 0;
+            double b = 0;
+            for (int i = c * CHUNK; i < end; i++) {
+                long lb = (long) ((generator.nextDouble() + 0.3) * varBound);
+                long ub = (long) (generator.nextDouble() * varBound);
+                ubVar[i] = Math.max(lb, ub);
+                double costA = generator.nextDouble();
+                double costB = generator.nextDouble();
+                if (generator.nextDouble() < 0.5) {
+                    costB = -costB;
+                }
+                cost_param_a[i] = costA;
+                cost_param_b[i] = costB;
+                a += generator.nextDouble() * ubVar[i];
+                b += generator.nextDouble() * ubVar[i];
+            }
+            sumA[c + 1] = a;
+            sumB[c + 1] = b;
+        });
+
+        //Exclusive prefix sums over the chunks
+        for (int c = 0; c < chunks; c++) {
+            sumA[c + 1] += sumA[c];
+            sumB[c + 1] += sumB[c];
+        }
+
+        //Pass 2: nested constraints, with the same draws as pass 1
+        forEachChunk(pool, chunks, c -> {
+            SplittableRandom generator = new SplittableRandom(seeds[c]);
+            int end = Math.min(dimension, (c + 1) * CHUNK);
+            double a = sumA[c];
+            double b = sumB[c];
+            for (int i = c * CHUNK; i < end; i++) {
+                //skip the draws of the box constraints and the objective
+                for (int k = 0; k < 5; k++) {
+                    generator.nextDouble();
+                }
+                a += generator.nextDouble() * ubVar[i];
+                b += generator.nextDouble() * ubVar[i];
+                lbNested[i] = (long) Math.min(a, b);
+                ubNested[i] = (long) Math.max(a, b);
+            }
+        });
+
+        // Add constraint:\sum x_i = B
+        long B = ubNested[dimension - 1];
+        lbNested[dimension - 1] = B;
+        ubNested[dimension - 1] = B;
+
+        return new RAPNCTestUtils.RAPNCInstanceData(objFuncType, dimension, ubVar, lbNested, ubNested, cost_param_a,
+            cost_param_b);
+    }
+
+    private static void forEachChunk(ForkJoinPool pool, int chunks, IntConsumer task) {
+        //a parallel stream started from a task of the pool runs in that pool
+        pool.submit(() -> IntStream.range(0, chunks).parallel().forEach(task)).join();
+    }
+}
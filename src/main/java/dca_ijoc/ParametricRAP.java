@@ -0,0 +1,69 @@
+package dca_ijoc;
+
+/*
+ *  A class for the family of DRAP subproblems that MDA solves over a fixed range [v, w] of a DRAP-NC instance.
+ *
+ * At each node of FastMDA, the four subproblems aa, ab, ba and bb share the range [v, w] and only differ in the
+ * budget and in the variable bounds set by updateBounds. The structure owns the bound vectors of the range, so that
+ * they are allocated once per node instead of once per subproblem.
+ *
+ * Every subproblem is solved from the lower bounds. A solution is monotone in the budget for fixed bounds, but the
+ * subproblems of a node almost always differ in their bounds, and the solution is not monotone in the bounds (with
+ * x^2 + y^2 and B = 6, ub = (1, 10) gives (1, 5) but ub = (10, 10) gives (3, 3)), so a warm start from the last
+ * solution applied to few subproblems and did not pay for the comparison of the bounds.
+ */
+
+import java.util.*;
+
+public class ParametricRAP {
+    //range of the subproblems
+    int v;
+    int w;
+    int dimension;
+
+    //function oracles of the range
+    List<Function> obj;
+    long scaleFactor;
+
+    //bounds of the current subproblem, filled by the caller before solve()
+    long[] raplb;
+    long[] rapub;
+
+    //statistics of the solve, null if disabled
+    SolverStats stats;
+    //deadline of the solve, null if none
+    Deadline deadline;
+
+    public ParametricRAP(List<Function> obj, int v, int w, long scaleFactor) {
+        this.v = v;
+        this.w = w;
+        this.dimension = w - v + 1;
+        this.obj = obj.subList(v, w + 1);
+        this.scaleFactor = scaleFactor;
+        this.raplb = new long[dimension];
+        this.rapub = new long[dimension];
+    }
+
+    /**
+     * solve method
+     * Solve the DRAP over the range with bounds raplb, rapub and budget LR.
+     * Time-Complexity: O(n log n log B)
+     * @param LR the total amount of resource in the subproblem
+     * @return ResultTypeRAP containing the solution and feasibility
+     */
+    public ResultTypeRAP solve(long LR) {
+        long time = stats == null ? 0 : System.nanoTime();
+        SolverEvents.RAPSolve rapEvent = new SolverEvents.RAPSolve();
+        rapEvent.begin();
+        RAP rap = new RAP(obj, LR, raplb, rapub);
+        rap.scaleFactor = this.scaleFactor;
+        rap.stats = this.stats;
+        rap.deadline = this.deadline;
+        ResultTypeRAP res = rap.solveRAP();
+        SolverEvents.commitRAPSolve(rapEvent, dimension, LR, "scaling", res.feasible);
+        if (stats != null) {
+            stats.recordRAP(dimension, System.nanoTime() - time);
+        }
+        return res;
+    }
+}
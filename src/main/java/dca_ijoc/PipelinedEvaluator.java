@@ -0,0 +1,178 @@
+package dca_ijoc;
+
+/*
+ *  A pipelined evaluation of a collection of instance files.
+ *
+ * The files are processed by four stages, each with its own thread, connected by bounded queues:
+ *     read:   read the bytes of the next files (the disk works while the current instance is solved)
+ *     parse:  parse the bytes into RAPNCInstanceData by InstanceCache.parse (JSON, gzipped JSON, AMPL .dat or binary
+ *             .rapnc files)
+ *     solve:  solve the instance by ExperimentRunner.measure on a dedicated thread; only this stage is timed
+ *     record: write the records of the instance to the result file
+ * At most QUEUE_CAPACITY items wait between two stages, so at most 2 * QUEUE_CAPACITY + 3 instances are in memory.
+ * The stages keep the order of the files, so the result file is the same as with ExperimentRunner.run.
+ *
+ * Java cannot pin a thread to a core: for the cleanest timings, run the JVM with enough cores (e.g. taskset -c 0-3)
+ * so that the solve thread does not share its core with the other stages. Parsing allocates, so a collection of
+ * large instances also benefits from a heap large enough to keep garbage collections out of the solves.
+ *
+ * With an InstanceCache, the read stage takes the instances that are cached and unchanged from the cache, and the
+ * parse stage caches the instances it parses, so repeated evaluations of a collection skip reading and parsing.
+ *
+ * If a stage fails, all stages are interrupted and evaluate() throws the first failure.
+ */
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+public final class PipelinedEvaluator {
+    //capacity of the queues between two stages
+    static final int QUEUE_CAPACITY = 2;
+    //marks the end of the items of a queue
+    private static final Object END = new Object();
+
+    private final ExperimentRunner runner;
+    private final List<Thread> stages;
+    private final AtomicReference<Throwable> failure;
+
+    private PipelinedEvaluator(ExperimentRunner runner) {
+        this.runner = runner;
+        this.stages = new ArrayList<Thread>();
+        this.failure = new AtomicReference<Throwable>();
+    }
+
+    //The transformation of one item by a stage
+    private interface Step {
+        Object apply(Object item) throws Exception;
+    }
+
+    //An item of the pipeline: the file and its content at the current stage (bytes, then instance data)
+    private static final class Item {
+        final String filename;
+        final Object content;
+        //the file when it was read, to cache the parsed instance
+        InstanceCache.FileKey key;
+
+        Item(String filename, Object content) {
+            this.filename = filename;
+            this.content = content;
+        }
+    }
+
+    /**
+     * evaluate method
+     * Evaluate the instance files in order and write the records to the runner
+     * @param filenames the instance files
+     * @param runner the runner that solves the instances and writes the records
+     */
+    public static void evaluate(List<String> filenames, ExperimentRunner runner) throws IOException {
+        new PipelinedEvaluator(runner).run(filenames, null);
+    }
+
+    /**
+     * evaluate method
+     * Evaluate the instance files in order, taking the instances from the cache when possible
+     * @param filenames the instance files
+     * @param runner the runner that solves the instances and writes the records
+     * @param cache the cache of parsed instances
+     */
+    public static void evaluate(List<String> filenames, ExperimentRunner runner, InstanceCache cache)
+            throws IOException {
+        new PipelinedEvaluator(runner).run(filenames, cache);
+    }
+
+    private void run(List<String> filenames, InstanceCache cache) throws IOException {
+        BlockingQueue<Object> files = new LinkedBlockingQueue<Object>();
+        for (String filename : filenames) {
+            files.add(filename);
+        }
+        files.add(END);
+        BlockingQueue<Object> read = new ArrayBlockingQueue<Object>(QUEUE_CAPACITY);
+        BlockingQueue<Object> parsed = new ArrayBlockingQueue<Object>(QUEUE_CAPACITY);
+        BlockingQueue<Object> solved = new ArrayBlockingQueue<Object>(QUEUE_CAPACITY);
+        BlockingQueue<Object> done = new LinkedBlockingQueue<Object>();
+
+        stage("read", files, read, file -> {
+            String filename = (String) file;
+            if (cache == null) {
+                return new Item(filename, Files.readAllBytes(Paths.get(filename)));
+            }
+            InstanceCache.FileKey key = new InstanceCache.FileKey(filename);
+            RAPNCTestUtils.RAPNCInstanceData data = cache.lookup(key);
+            Item item = new Item(filename, data != null ? data : Files.readAllBytes(Paths.get(filename)));
+            item.key = key;
+            return item;
+        });
+        stage("parse", read, parsed, file -> {
+            Item item = (Item) file;
+            if (item.content instanceof RAPNCTestUtils.RAPNCInstanceData) {
+                return item;
+            }
+            RAPNCTestUtils.RAPNCInstanceData data = InstanceCache.parse(item.filename, (byte[]) item.content);
+            if (cache != null) {
+                cache.put(item.key, data);
+            }
+            return new Item(item.filename, data);
+        });
+        stage("solve", parsed, solved, item -> {
+            Item instance = (Item) item;
+            return runner.measure(instance.filename, (RAPNCTestUtils.RAPNCInstanceData) instance.content);
+        });
+        stage("record", solved, done, records -> {
+            @SuppressWarnings("unchecked")
+            List<ExperimentRunner.Record> result = (List<ExperimentRunner.Record>) records;
+            runner.write(result);
+            return END;
+        });
+        for (Thread stage : stages) {
+            stage.start();
+        }
+
+        try {
+            for (Thread stage : stages) {
+                stage.join();
+            }
+        } catch (InterruptedException ex) {
+            interruptAll();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while evaluating the instances");
+        }
+        Throwable cause = failure.get();
+        if (cause instanceof IOException) {
+            throw (IOException) cause;
+        } else if (cause != null) {
+            throw new IOException("Evaluation failed", cause);
+        }
+    }
+
+    //Create a stage that applies step to the items of in and puts the results in out, until END
+    private void stage(String name, BlockingQueue<Object> in, BlockingQueue<Object> out, Step step) {
+        Thread stage = new Thread(() -> {
+            try {
+                while (true) {
+                    Object item = in.take();
+                    if (item == END) {
+                        out.put(END);
+                        return;
+                    }
+                    out.put(step.apply(item));
+                }
+            } catch (InterruptedException ex) {
+                //another stage failed
+            } catch (Throwable ex) {
+                failure.compareAndSet(null, ex);
+                interruptAll();
+            }
+        }, "pipeline-" + name);
+        stages.add(stage);
+    }
+
+    private void interruptAll() {
+        for (Thread stage : stages) {
+            stage.interrupt();
+        }
+    }
+}
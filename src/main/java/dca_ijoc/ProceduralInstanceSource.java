@@ -0,0 +1,157 @@
+package dca_ijoc;
+
+/*
+ *  An instance that is regenerated on demand from a seed, so it is never materialised.
+ *
+ * The random numbers are drawn by a counter-based generator: the k-th number of variable i is the SplitMix64 hash
+ * of (seed, DRAWS * i + k), so any entry can be computed from its index alone. The distribution of the instances is
+ * that of RAPNCTestUtils.generateInstanceData:
+ *     ubVar(i) = max((u0 + 0.3) * varBound, u1 * varBound), lbVar(i) = 0
+ *     costs a = u2 and b = +-u3 with the sign of u4 < 0.5
+ *     the nested bounds are the min and max of two random paths a, b with increments u5 * ubVar(i), u6 * ubVar(i)
+ *       and the last nested bounds are both fixed to the larger path
+ *
+ * The paths are prefix sums, so the sums of the increments at every CHECKPOINT-th index are computed in the
+ * constructor (O(n) time, 16 n / CHECKPOINT bytes). A nested bound is then the checkpoint plus at most CHECKPOINT
+ * increments. The last position of the paths is cached, so a scan in increasing order takes O(1) per entry and
+ * random access takes O(CHECKPOINT). Because of that cache, the nested bounds are not thread-safe: use one source
+ * per thread (with the same seed they give the same instance).
+ *
+ * The instance of a seed is not that of RAPNCTestUtils or ParallelInstanceGenerator with the same seed.
+ */
+
+import java.util.stream.IntStream;
+
+public final class ProceduralInstanceSource implements InstanceSource {
+    //number of entries between two checkpoints of the paths
+    static final int CHECKPOINT = 1 << 12;
+    //random numbers per variable
+    private static final int DRAWS = 7;
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private final String objFuncType;
+    private final int dimension;
+    private final int varBound;
+    private final long seed;
+    //values of the paths a and b before the checkpoints
+    private final double[] checkpointA;
+    private final double[] checkpointB;
+    //the total resource B
+    private final long total;
+
+    //cached position of the paths
+    private int cachedIndex;
+    private double cachedA;
+    private double cachedB;
+
+    /**
+     * ProceduralInstanceSource constructor
+     * Time-Complexity: O(n), in parallel over the checkpoints
+     * @param objFuncType type of object function, we support ["linear", "quadratic", "f", "fuel", "crash"]
+     * @param size size of the instance
+     * @param varBound the upperbound of capacity
+     * @param seed the seed of the instance
+     */
+    public ProceduralInstanceSource(String objFuncType, int size, int varBound, long seed) {
+        if (size < 1) {
+            throw new IllegalArgumentException("The size must be positive");
+        }
+        this.objFuncType = objFuncType;
+        this.dimension = size;
+        this.varBound = varBound;
+        this.seed = seed;
+
+        int checkpoints = (size + CHECKPOINT - 1) / CHECKPOINT;
+        checkpointA = new double[checkpoints + 1];
+        checkpointB = new double[checkpoints + 1];
+        IntStream.range(0, checkpoints).parallel().forEach(c -> {
+            int end = Math.min(size, (c + 1) * CHECKPOINT);
+            double a = 0;
+            double b = 0;
+            for (int i = c * CHECKPOINT; i < end; i++) {
+                long ub = ubVar(i);
+                a += uniform(i, 5) * ub;
+                b += uniform(i, 6) * ub;
+            }
+            checkpointA[c + 1] = a;
+            checkpointB[c + 1] = b;
+        });
+        for (int c = 0; c < checkpoints; c++) {
+            checkpointA[c + 1] += checkpointA[c];
+            checkpointB[c + 1] += checkpointB[c];
+        }
+        cachedIndex = -1;
+        moveTo(size - 1);
+        int last = (size - 1) / CHECKPOINT;
+        total = (long) Math.max(checkpointA[last] + cachedA, checkpointB[last] + cachedB);
+    }
+
+    //SplitMix64 hash of the k-th random number of variable i, as a double in [0, 1)
+    private double uniform(int i, int k) {
+        long z = seed + GOLDEN_GAMMA * (DRAWS * (long) i + k + 1);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        z = z ^ (z >>> 31);
+        return (z >>> 11) * 0x1.0p-53;
+    }
+
+    //Move the cached position of the paths to the index i, the cache holds the sums since the last checkpoint
+    private void moveTo(int i) {
+        if (cachedIndex < 0 || i < cachedIndex || i / CHECKPOINT != cachedIndex / CHECKPOINT) {
+            cachedIndex = i / CHECKPOINT * CHECKPOINT - 1;
+            cachedA = 0;
+            cachedB = 0;
+        }
+        while (cachedIndex < i) {
+            cachedIndex++;
+            long ub = ubVar(cachedIndex);
+            cachedA += uniform(cachedIndex, 5) * ub;
+            cachedB += uniform(cachedIndex, 6) * ub;
+        }
+    }
+
+    public String objFuncType() {
+        return objFuncType;
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    public long lbVar(int i) {
+        return 0;
+    }
+
+    public long ubVar(int i) {
+        long b = (long) ((uniform(i, 0) + 0.3) * varBound);
+        long c = (long) (uniform(i, 1) * varBound);
+        return Math.max(b, c);
+    }
+
+    public long lbNested(int i) {
+        if (i == dimension - 1) {
+            return total;
+        }
+        moveTo(i);
+        int c = i / CHECKPOINT;
+        return (long) Math.min(checkpointA[c] + cachedA, checkpointB[c] + cachedB);
+    }
+
+    public long ubNested(int i) {
+        if (i == dimension - 1) {
+            return total;
+        }
+        moveTo(i);
+        int c = i / CHECKPOINT;
+        return (long) Math.max(checkpointA[c] + cachedA, checkpointB[c] + cachedB);
+    }
+
+    public double costParamA(int i) {
+        return uniform(i, 2);
+    }
+
+    public double costParamB(int i) {
+        double b = uniform(i, 3);
+        return uniform(i, 4) < 0.5 ? -b : b;
+    }
+}
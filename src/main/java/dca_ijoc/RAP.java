@@ -30,6 +30,10 @@ public class RAP {
 	long[] ubVar;
 	int dimension;
 	long scaleFactor;
+	//statistics of the solve, null if disabled
+	SolverStats stats;
+	//deadline of the solve, null if none
+	Deadline deadline;
 
 	public RAP(List<Function> obj, long B, long[] lbVar, long[] ubVar) {
 		this.obj = obj;
@@ -46,7 +50,7 @@ public class RAP {
      * With this operation you can solve the simple resource allocation problem with separable convex objectives
      * The is an implementation of Hochbaum 1994 Lower and Upper Bounds for the Allocation Problem and Other Nonlinear Optimization Problems
      * <p>
-     * Time-Complexity: O(n log n log(B)) 
+     * Time-Complexity: O(n log n log(B - sum(lbVar))) 
      * The running time should be improved to O(n log(B)) if the CUT procedure is implemented in Solve()
      * However, the implementation is non-trivial.
      * @param no param
@@ -62,13 +66,18 @@ public class RAP {
 		}
 		long[] x = new long[dimension];
 		//create a feasible solution.
+		long residual = B;
 		for (int i = 0; i < dimension; i++) {
 				x[i] = lbVar[i];
+				residual -= lbVar[i];
 		}
 
-		//Step size s
-		long s = (long) Math.ceil(((double) B) / dimension / 2);
+		//Step size s, based on the budget left above the lower bounds
+		long s = (long) Math.ceil(((double) residual) / dimension / 2);
 		while (s > 1) {
+			if (deadline != null) {
+				deadline.check();
+			}
 			//greedy step with size s
 			greedyRAP(s, x, B);
 
@@ -143,6 +152,9 @@ public class RAP {
 			heap.add(temp);
 			indexList[i] = temp;
 		}
+		//number of increments, each costs two oracle evaluations and two heap operations
+		long increments = 0;
+		long polls = 0;
 
 		while (B >= 1 && numOfRemovedIndex < dimension) {
 			//find the minimum increase
@@ -151,6 +163,10 @@ public class RAP {
 			//O(log n) operation, which can be improved to O(1) amortized time by CUT
 			//The CUT procedure Not being implemented yet
 			minIndex = heap.pollFirst().id;
+			polls++;
+			if (deadline != null && polls % Deadline.CHECK_INTERVAL == 0) {
+				deadline.check();
+			}
 
 
 			//increase x[minIndex]
@@ -168,11 +184,16 @@ public class RAP {
 			} else {
 				x[minIndex] += s;
 				B -= s;
+				increments++;
 				indexList[minIndex].value = obj.get(minIndex).getValue(((double) (x[minIndex] + 1))/scaleFactor) - obj.get(minIndex).getValue( ((double) x[minIndex]) / scaleFactor);
 				heap.add(indexList[minIndex]);
 			}
 		}
 		
+		if (stats != null) {
+			stats.recordGreedy(2 * (dimension + increments), dimension + polls + increments);
+		}
+
 		//System.out.println(B);
 		if (s > 1 || B == 0) {
 			return new ResultTypeRAP(true, x);
@@ -212,6 +233,9 @@ public class RAP {
 	 		//For linear functions, we can get its coefficient by getValue(1);
 	 		breakPoint[i] = new DataType(i, obj.get(i).getValue(2) - obj.get(i).getValue(1));
 	 	}
+	 	if (stats != null) {
+	 		stats.recordGreedy(2 * dimension, 0);
+	 	}
 
 	 	ResultTypeRAP res = new ResultTypeRAP(true, new long[dimension]);
 
@@ -28,6 +28,10 @@ package dca_ijoc;
  *     LinearMDA() ---- With the O(n) subroutine for solving DRAP, the algorithm can be sped up to O(n log n)
  *     
  *     @param RAP class must be compiled
+ *
+ * An object of this class is the context of one solve: besides the instance, it holds the state of the solvers
+ * (number_subproblem, the bounds lbCopyMDA and ubCopyMDA of MDA, the statistics and the trace). The solvers only read
+ * the arrays lbVar, ubVar, lbNested and ubNested, so several contexts may share them, see RAPNCInstance.
  *         
  */
 
@@ -47,9 +51,24 @@ public class RAPNC {
 	long[] lbNested;
     long[] lbCopyMDA; //reserve bounds for MDA
     long[] ubCopyMDA;
-	private long scaleFactor;
+	long scaleFactor;
     long number_subproblem;
 
+    //statistics of the solve shared by all subproblems, null if disabled
+    SolverStats stats;
+    //depth of this subproblem in the DCA recursion tree
+    int depth;
+    //index of the first variable of this subproblem in the original instance
+    int offset;
+    //trace of the recursion tree shared by all subproblems, null if disabled
+    SplitTrace.Writer trace;
+    //depth of the current node in the FastMDA recursion tree
+    private int mdaDepth;
+    //deadline of the solve shared by all subproblems, null if none
+    Deadline deadline;
+    //true if the arrays belong to this context rather than to the caller, see fromSource
+    private boolean ownsArrays;
+
     //normal constructor
     public RAPNC(int K) {
     	//normal constructor
@@ -80,6 +99,67 @@ public class RAPNC {
     	this.scaleFactor = scaleFactor;
     }
 
+    //Attach a SolverStats to the next solves, null to disable the statistics
+    public void setStats(SolverStats stats) {
+        this.stats = stats;
+    }
+
+    //Record the recursion tree of the next solves of DCA and FastMDA in trace, null to disable the trace
+    public void setTrace(SplitTrace.Writer trace) {
+        this.trace = trace;
+    }
+
+    //Abort the next solves at their next check once deadline has passed or is cancelled, null to disable
+    public void setDeadline(Deadline deadline) {
+        this.deadline = deadline;
+    }
+
+    //Abort the solve if its deadline has passed or it is cancelled, see Deadline
+    private void checkDeadline() {
+        if (deadline != null) {
+            deadline.check();
+        }
+    }
+
+    //Route a diagnostic message of the solvers to the statistics
+    private void report(String message) {
+        if (stats != null) {
+            stats.message(message);
+        }
+    }
+
+    /**
+     * solve()
+     * Solve the instance by the algorithm with the given name
+     * Names: "DCA", "LinearDCA", "FastMDA", "MDA", "LinearMDA"
+     * @param algorithm name of the algorithm
+     * @return ResultTypeRAPNC containing the solution and feasibility
+     */
+    public ResultTypeRAPNC solve(String algorithm) {
+        switch (algorithm) {
+            case "DCA":
+                return solveIntegerDCA();
+            case "LinearDCA":
+                return solveIntegerLinearDCA();
+            case "FastMDA":
+                return toResultTypeRAPNC(FastMDA());
+            case "MDA":
+                return toResultTypeRAPNC(MDA());
+            case "LinearMDA":
+                return toResultTypeRAPNC(LinearMDA());
+            default:
+                throw new IllegalArgumentException("Unknown algorithm " + algorithm);
+        }
+    }
+
+    //The solution to DRAP-NC is the subproblem aa of the root of MDA
+    private static ResultTypeRAPNC toResultTypeRAPNC(ResultTypeMDA res) {
+        if (res.status != null) {
+            return new ResultTypeRAPNC(res.status);
+        }
+        return new ResultTypeRAPNC(res.aa != null, res.aa);
+    }
+
      /**
      * createRAP()
      * By this method we can create an instance of RAP by relaxing the nested constraints.
@@ -94,6 +174,8 @@ public class RAPNC {
     	long[] rapub = ubVar.clone();
     	RAP res = new RAP(obj, rapB, raplb, rapub);
     	res.scaleFactor = this.scaleFactor;
+    	res.stats = this.stats;
+    	res.deadline = this.deadline;
     	return res;
     }
 
@@ -106,6 +188,24 @@ public class RAPNC {
      * @return List<RAPNC> containing the two subproblems
      */
     public List<RAPNC> createRAPNC(int K) {
+        return createRAPNC(K, lbNested[K], ubNested[K]);
+    }
+
+    /**
+     * createRAPNC
+     * By this method we can create the two subproblems RAP-NC(s, K) and RAP-NC(K + 1, e) 
+     * with the nested constraint K fixed to the value tight, without modifying this instance.
+     * Time-Complexity: O(n) 
+     * 
+     * @param K the index of the split
+     * @param tight the value of the nested constraint K in the subproblems
+     * @return List<RAPNC> containing the two subproblems
+     */
+    public List<RAPNC> createRAPNC(int K, long tight) {
+        return createRAPNC(K, tight, tight);
+    }
+
+    private List<RAPNC> createRAPNC(int K, long lbK, long ubK) {
     	//The first subproblem contains K + 1 variables and the second subproblem contains (n - K - 1) variables
     	//return a list containing the two problems
 
@@ -117,9 +217,17 @@ public class RAPNC {
     	System.arraycopy(this.lbNested, 0, left.lbNested, 0, K + 1);
     	System.arraycopy(this.ubVar, 0, left.ubVar, 0, K + 1);
     	System.arraycopy(this.lbVar, 0, left.lbVar, 0, K + 1);
+    	left.lbNested[K] = lbK;
+    	left.ubNested[K] = ubK;
     	left.dimension = K + 1;
-    	left.obj = this.obj;
+    	//a copy, so that the subproblems do not keep the objective list of their parent alive
+    	left.obj = new ArrayList<Function>(this.obj.subList(0, K + 1));
     	left.scaleFactor = this.scaleFactor;
+    	left.stats = this.stats;
+    	left.depth = this.depth + 1;
+    	left.offset = this.offset;
+    	left.trace = this.trace;
+    	left.deadline = this.deadline;
 
 
     	//setup right
@@ -128,11 +236,16 @@ public class RAPNC {
     	System.arraycopy(this.lbVar, K + 1, right.lbVar, 0, dimension - K - 1);
     	right.obj = new ArrayList<Function>();
     	for (int i = K + 1; i < dimension; i++) {
-    		right.ubNested[i - K - 1] = ubNested[i] - ubNested[K];
-    		right.lbNested[i - K - 1] = lbNested[i] - ubNested[K];
+    		right.ubNested[i - K - 1] = ubNested[i] - ubK;
+    		right.lbNested[i - K - 1] = lbNested[i] - ubK;
     		right.obj.add(this.obj.get(i));
     	}
     	right.scaleFactor = this.scaleFactor;
+    	right.stats = this.stats;
+    	right.depth = this.depth + 1;
+    	right.offset = this.offset + K + 1;
+    	right.trace = this.trace;
+    	right.deadline = this.deadline;
 
     	List<RAPNC> res = new ArrayList<RAPNC>();
     	res.add(left);
@@ -149,30 +262,74 @@ public class RAPNC {
      * @return ResultTypeRAPNC containing the solution and feasibility
      */
     public ResultTypeRAPNC solveIntegerDCA() {
+        if (depth > 0) {
+            return solveIntegerDCARecursion();
+        }
+        if (stats != null) {
+            stats.begin("DCA", dimension);
+        }
+        ResultTypeRAPNC res;
+        try {
+            res = solveIntegerDCARecursion();
+        } catch (Deadline.Expired ex) {
+            res = new ResultTypeRAPNC(ex.status);
+        }
+        if (stats != null) {
+            stats.end();
+        }
+        return res;
+    }
+
+    //The recursion of DCA, see solveIntegerDCA()
+    private ResultTypeRAPNC solveIntegerDCARecursion() {
     	//Solve the RAPNC with integer variables
     	//1. solve the relaxation problem
     	//2. find the maximum violation and then divide the problem into two subproblems
     	//3. solve the two subproblem recursively and conquer the results
 
         this.number_subproblem++; //record the subproblems
+        checkDeadline();
     	//Trivial case
     	if (dimension == 1) {
     		//check feasibility
     		if (ubNested[0] >= lbVar[0] && ubNested[0] <= ubVar[0]) {
     			long[] sol = new long[1];
     			sol[0] = ubNested[0];
+                if (trace != null) {
+                    trace.record(SplitTrace.DCA_LEAF, depth, offset, 1, -1, SplitTrace.NONE, 0, 0);
+                }
     			return new ResultTypeRAPNC(true, sol);
     		} else {
+                if (trace != null) {
+                    trace.record(SplitTrace.DCA_INFEASIBLE, depth, offset, 1, -1, SplitTrace.NONE, 0, 0);
+                }
     			return new ResultTypeRAPNC(false, null);
     		}
     	}
 
 
     	//call Greedy Algorithm to solve the relaxed instance with greedy algorithm.
+        boolean timed = stats != null || trace != null;
+        long time = timed ? System.nanoTime() : 0;
+        SolverEvents.RAPSolve rapEvent = new SolverEvents.RAPSolve();
+        rapEvent.begin();
     	RAP re = createRAP();
     	ResultTypeRAP solRAP = re.solveRAP(); 
+        SolverEvents.commitRAPSolve(rapEvent, dimension, re.B, "scaling", solRAP.feasible);
+        long rapNanos = 0;
+        if (timed) {
+            long now = System.nanoTime();
+            rapNanos = now - time;
+            time = now;
+            if (stats != null) {
+                stats.recordRAP(dimension, rapNanos);
+            }
+        }
 
     	if (!solRAP.feasible) {
+            if (trace != null) {
+                trace.record(SplitTrace.DCA_INFEASIBLE, depth, offset, dimension, -1, SplitTrace.NONE, 0, rapNanos);
+            }
     		return new ResultTypeRAPNC(false, null);
     	}
     	//obtain a solution to RAP
@@ -188,20 +345,20 @@ public class RAPNC {
     	int maxIndex = -1;
     	long maxVio = 0;
     	int maxFlag = 0;//excess 1, shortage 0
-    	long[] violation = new long[dimension];
     	
     	for (int i = 0; i < dimension; i++) {
     		sum += solRe[i];
+    		long violation = 0;
     		int flag = 1;
     		if (sum > ubNested[i]) {
-    			violation[i] = sum - ubNested[i];
+    			violation = sum - ubNested[i];
     		} else if (sum < lbNested[i]) {
-    			violation[i] = lbNested[i] - sum;
+    			violation = lbNested[i] - sum;
     			flag = 0;
     		}
-    		if (violation[i] > maxVio) {
+    		if (violation > maxVio) {
     			maxIndex = i;
-    			maxVio = violation[i];
+    			maxVio = violation;
     			maxFlag = flag;
     		}
     	}
@@ -209,6 +366,12 @@ public class RAPNC {
         //If the solution to RAP satisfies all nested constraints. 
     	if (maxIndex == -1) {
     		//.out.println(Arrays.toString(solRe));
+            if (stats != null) {
+                stats.recordScan(System.nanoTime() - time);
+            }
+            if (trace != null) {
+                trace.record(SplitTrace.DCA_LEAF, depth, offset, dimension, -1, SplitTrace.NONE, 0, rapNanos);
+            }
     		return new ResultTypeRAPNC(true, solRe);
     	} 
     	/*Debug
@@ -218,36 +381,107 @@ public class RAPNC {
         System.out.println(maxFlag);
 		*/
 
-    	//else divide the problem into two small problems. 
-    	if (maxFlag == 0) {
-    		ubNested[maxIndex] = lbNested[maxIndex];
-    	} else {
-    		lbNested[maxIndex] = ubNested[maxIndex];
-    	}
+    	//else divide the problem into two small problems, with the violated constraint tight.
+    	//The tight value is passed to the subproblems, the bounds of this instance are not modified.
+    	long tight = maxFlag == 0 ? lbNested[maxIndex] : ubNested[maxIndex];
     	
     	/*Debug
     	System.out.print("TightenNested:");
-        System.out.print(ubNested[maxIndex]);
+        System.out.print(tight);
         System.out.print(" with ");
-        System.out.println(ubNested[maxIndex]);
+        System.out.println(tight);
     	*/  	
     	
-    	List<RAPNC> divide = createRAPNC(maxIndex);
-    	ResultTypeRAPNC left = divide.get(0).solveIntegerDCA(); 
-    	ResultTypeRAPNC right = divide.get(1).solveIntegerDCA();
-
-        this.number_subproblem += divide.get(0).number_subproblem;
-        this.number_subproblem += divide.get(1).number_subproblem;
+        long scanEnd = stats == null ? 0 : System.nanoTime();
+        SolverEvents.commitDCASplit(offset + maxIndex, offset, dimension, depth, maxVio, maxFlag == 1);
+        if (trace != null) {
+            trace.record(SplitTrace.DCA_SPLIT, depth, offset, dimension, offset + maxIndex, (byte) maxFlag, maxVio, rapNanos);
+        }
+    	List<RAPNC> divide = createRAPNC(maxIndex, tight);
+        if (stats != null) {
+            stats.recordSplit(depth, maxIndex + 1, dimension - maxIndex - 1, scanEnd - time, System.nanoTime() - scanEnd);
+        }
+        //The subproblems hold copies of their bounds, so this subproblem drops its relaxation, its solution and its
+        //arrays before the recursion (see releaseArrays). Along the recursion path, only the pending right subproblems
+        //and the solutions of the solved left ones stay alive: they cover disjoint segments, so they hold O(n) memory
+        //even when every split peels off one variable.
+        re = null;
+        solRAP = null;
+        solRe = null;
+        releaseArrays();
+        RAPNC leftProblem = divide.get(0);
+        RAPNC rightProblem = divide.get(1);
+        divide = null;
+        ResultTypeRAPNC left = leftProblem.solveIntegerDCA();
+        this.number_subproblem += leftProblem.number_subproblem;
+        leftProblem = null;
+        ResultTypeRAPNC right = rightProblem.solveIntegerDCA();
+        this.number_subproblem += rightProblem.number_subproblem;
+        rightProblem = null;
 
     	if (!(left.feasible && right.feasible)) {
     		return new ResultTypeRAPNC(false, null);
     	} else {
-    		System.arraycopy(left.sol, 0, solRe, 0, left.sol.length);
-    		System.arraycopy(right.sol, 0, solRe, maxIndex + 1, right.sol.length);
-    		return new ResultTypeRAPNC(true, solRe);
+    		long[] sol = new long[dimension];
+    		System.arraycopy(left.sol, 0, sol, 0, left.sol.length);
+    		System.arraycopy(right.sol, 0, sol, maxIndex + 1, right.sol.length);
+    		return new ResultTypeRAPNC(true, sol);
     	}
     } 
 
+    //Drop the arrays of a subproblem of DCA once its two subproblems hold copies of them. The root keeps its arrays,
+    //which belong to the caller (they may be those of an RAPNCInstance), unless it owns them, see fromSource.
+    private void releaseArrays() {
+        if (depth > 0 || ownsArrays) {
+            lbVar = null;
+            ubVar = null;
+            lbNested = null;
+            ubNested = null;
+            obj = null;
+        }
+    }
+
+    /**
+     * fromSource
+     * A context that owns the arrays of an instance read through its accessors, e.g. a mapped binary file or a
+     * ProceduralInstanceSource. The entries are read once in increasing order into the objective list and the four
+     * bound arrays; the cost parameters and the capacities are not held. Since the arrays belong to the context, DCA
+     * and LinearDCA release them at the root split too (see releaseArrays), so the context can be solved once by them.
+     * Memory: the root holds n Functions and the four bound arrays until its first split, which copies them into the
+     * two subproblems, so the peak is about twice that at the first split, and O(n) along the recursion afterwards.
+     * Time-Complexity: O(n)
+     *
+     * @param source the instance
+     * @return the context, to which statistics, a trace or a deadline can be attached before the solve
+     */
+    public static RAPNC fromSource(InstanceSource source) {
+        int n = source.dimension();
+        String objFuncType = source.objFuncType();
+        RAPNC instance = new RAPNC(n);
+        for (int i = 0; i < n; i++) {
+            instance.obj.add(RAPNCTestUtils.buildObjectFunction(source.costParamA(i), source.costParamB(i),
+                objFuncType));
+            instance.lbVar[i] = source.lbVar(i);
+            instance.ubVar[i] = source.ubVar(i);
+            instance.lbNested[i] = source.lbNested(i);
+            instance.ubNested[i] = source.ubNested(i);
+        }
+        instance.ownsArrays = true;
+        return instance;
+    }
+
+    /**
+     * solveIntegerDCA(InstanceSource)
+     * DCA on an instance read through its accessors, see fromSource for the memory it holds
+     * Time-Complexity: O(n^2 log(B)), as solveIntegerDCA()
+     *
+     * @param source the instance
+     * @return ResultTypeRAPNC containing the solution and feasibility
+     */
+    public static ResultTypeRAPNC solveIntegerDCA(InstanceSource source) {
+        return fromSource(source).solveIntegerDCA();
+    }
+
     /**
      * solveIntegerLinearDCA() 
      * This is the implementation of DCA method for linear objectives
@@ -256,29 +490,75 @@ public class RAPNC {
      * @return ResultTypeRAPNC containing the solution and feasibility
      */
     public ResultTypeRAPNC solveIntegerLinearDCA() {
+        if (depth > 0) {
+            return solveIntegerLinearDCARecursion();
+        }
+        if (stats != null) {
+            stats.begin("LinearDCA", dimension);
+        }
+        ResultTypeRAPNC res;
+        try {
+            res = solveIntegerLinearDCARecursion();
+        } catch (Deadline.Expired ex) {
+            res = new ResultTypeRAPNC(ex.status);
+        }
+        if (stats != null) {
+            stats.end();
+        }
+        return res;
+    }
+
+    //The recursion of DCA for linear objectives, see solveIntegerLinearDCA()
+    private ResultTypeRAPNC solveIntegerLinearDCARecursion() {
         //Solve the RAPNC with integer variables
         //1. solve the relaxation problem
         //2. find the maximum violation and then divide the problem into two subproblems
         //3. solve the two subproblem recursively and conquer the results
 
+        this.number_subproblem++; //record the subproblems
+        checkDeadline();
         //Trivial case
         if (dimension == 1) {
             //check feasibility
             if (ubNested[0] >= lbVar[0] && ubNested[0] <= ubVar[0]) {
                 long[] sol = new long[1];
                 sol[0] = ubNested[0];
+                if (trace != null) {
+                    trace.record(SplitTrace.DCA_LEAF, depth, offset, 1, -1, SplitTrace.NONE, 0, 0);
+                }
                 return new ResultTypeRAPNC(true, sol);
             } else {
+                if (trace != null) {
+                    trace.record(SplitTrace.DCA_INFEASIBLE, depth, offset, 1, -1, SplitTrace.NONE, 0, 0);
+                }
                 return new ResultTypeRAPNC(false, null);
             }
         }
 
 
         //call Greedy Algorithm to solve the relaxed instance with greedy algorithm.
+        boolean timed = stats != null || trace != null;
+        long time = timed ? System.nanoTime() : 0;
+        SolverEvents.RAPSolve rapEvent = new SolverEvents.RAPSolve();
+        rapEvent.begin();
         RAP re = createRAP();
+        long rapB = re.B;
         ResultTypeRAP solRAP = re.solveRAPLinear(); 
+        SolverEvents.commitRAPSolve(rapEvent, dimension, rapB, "linear", solRAP.feasible);
+        long rapNanos = 0;
+        if (timed) {
+            long now = System.nanoTime();
+            rapNanos = now - time;
+            time = now;
+            if (stats != null) {
+                stats.recordRAP(dimension, rapNanos);
+            }
+        }
 
         if (!solRAP.feasible) {
+            if (trace != null) {
+                trace.record(SplitTrace.DCA_INFEASIBLE, depth, offset, dimension, -1, SplitTrace.NONE, 0, rapNanos);
+            }
             return new ResultTypeRAPNC(false, null);
         }
         //obtain a solution to RAP
@@ -293,20 +573,20 @@ public class RAPNC {
         int maxIndex = -1;
         long maxVio = 0;
         int maxFlag = 0;//excess 1, shortage 0
-        long[] violation = new long[dimension];
         
         for (int i = 0; i < dimension; i++) {
             sum += solRe[i];
+            long violation = 0;
             int flag = 1;
             if (sum > ubNested[i]) {
-                violation[i] = sum - ubNested[i];
+                violation = sum - ubNested[i];
             } else if (sum < lbNested[i]) {
-                violation[i] = lbNested[i] - sum;
+                violation = lbNested[i] - sum;
                 flag = 0;
             }
-            if (violation[i] > maxVio) {
+            if (violation > maxVio) {
                 maxIndex = i;
-                maxVio = violation[i];
+                maxVio = violation;
                 maxFlag = flag;
             }
         }
@@ -314,6 +594,12 @@ public class RAPNC {
         //If the solution to RAP satisfies all nested constraints. 
         if (maxIndex == -1) {
             //System.out.println(Arrays.toString(solRe));
+            if (stats != null) {
+                stats.recordScan(System.nanoTime() - time);
+            }
+            if (trace != null) {
+                trace.record(SplitTrace.DCA_LEAF, depth, offset, dimension, -1, SplitTrace.NONE, 0, rapNanos);
+            }
             return new ResultTypeRAPNC(true, solRe);
         } 
         /*Debug
@@ -323,30 +609,50 @@ public class RAPNC {
         System.out.println(maxFlag);
         */
 
-        //else divide the problem into two small problems. 
-        if (maxFlag == 0) {
-            ubNested[maxIndex] = lbNested[maxIndex];
-        } else {
-            lbNested[maxIndex] = ubNested[maxIndex];
-        }
+        //else divide the problem into two small problems, with the violated constraint tight.
+        long tight = maxFlag == 0 ? lbNested[maxIndex] : ubNested[maxIndex];
         
         /*Debug
         System.out.print("TightenNested:");
-        System.out.print(ubNested[maxIndex]);
+        System.out.print(tight);
         System.out.print(" with ");
-        System.out.println(ubNested[maxIndex]);
+        System.out.println(tight);
         */      
         
-        List<RAPNC> divide = createRAPNC(maxIndex);
-        ResultTypeRAPNC left = divide.get(0).solveIntegerLinearDCA(); 
-        ResultTypeRAPNC right = divide.get(1).solveIntegerLinearDCA();
+        long scanEnd = stats == null ? 0 : System.nanoTime();
+        SolverEvents.commitDCASplit(offset + maxIndex, offset, dimension, depth, maxVio, maxFlag == 1);
+        if (trace != null) {
+            trace.record(SplitTrace.DCA_SPLIT, depth, offset, dimension, offset + maxIndex, (byte) maxFlag, maxVio, rapNanos);
+        }
+        List<RAPNC> divide = createRAPNC(maxIndex, tight);
+        if (stats != null) {
+            stats.recordSplit(depth, maxIndex + 1, dimension - maxIndex - 1, scanEnd - time, System.nanoTime() - scanEnd);
+        }
+        //The subproblems hold copies of their bounds, so this subproblem drops its relaxation, its solution and its
+        //arrays before the recursion (see releaseArrays). Along the recursion path, only the pending right subproblems
+        //and the solutions of the solved left ones stay alive: they cover disjoint segments, so they hold O(n) memory
+        //even when every split peels off one variable.
+        re = null;
+        solRAP = null;
+        solRe = null;
+        releaseArrays();
+        RAPNC leftProblem = divide.get(0);
+        RAPNC rightProblem = divide.get(1);
+        divide = null;
+        ResultTypeRAPNC left = leftProblem.solveIntegerLinearDCA();
+        this.number_subproblem += leftProblem.number_subproblem;
+        leftProblem = null;
+        ResultTypeRAPNC right = rightProblem.solveIntegerLinearDCA();
+        this.number_subproblem += rightProblem.number_subproblem;
+        rightProblem = null;
 
         if (!(left.feasible && right.feasible)) {
             return new ResultTypeRAPNC(false, null);
         } else {
-            System.arraycopy(left.sol, 0, solRe, 0, left.sol.length);
-            System.arraycopy(right.sol, 0, solRe, maxIndex + 1, right.sol.length);
-            return new ResultTypeRAPNC(true, solRe);
+            long[] sol = new long[dimension];
+            System.arraycopy(left.sol, 0, sol, 0, left.sol.length);
+            System.arraycopy(right.sol, 0, sol, maxIndex + 1, right.sol.length);
+            return new ResultTypeRAPNC(true, sol);
         }
     }  
 
@@ -365,7 +671,19 @@ public class RAPNC {
     public ResultTypeMDA MDA() {
         lbCopyMDA = Arrays.copyOfRange(lbVar, 0, dimension);
         ubCopyMDA = Arrays.copyOfRange(ubVar, 0, dimension);
-        return MDA(0, dimension - 1);
+        if (stats != null) {
+            stats.begin("MDA", dimension);
+        }
+        ResultTypeMDA res;
+        try {
+            res = MDA(0, dimension - 1);
+        } catch (Deadline.Expired ex) {
+            res = new ResultTypeMDA(ex.status);
+        }
+        if (stats != null) {
+            stats.end();
+        }
+        return res;
     }
 
     /**
@@ -382,6 +700,7 @@ public class RAPNC {
 
     public ResultTypeMDA MDA(int v, int w) {
         
+        this.number_subproblem += 4; // record the number of subproblems
         //initialize return of the f
         long[] aa = new long[w - v + 1];
         long[] ab = new long[w - v + 1];
@@ -408,6 +727,7 @@ public class RAPNC {
         int u = v + (w - v) / 2;
         ResultTypeMDA left = MDA(v, u);
         ResultTypeMDA right = MDA(u + 1, w);
+        checkDeadline();
 
         //conquer
         //update the bounds
@@ -510,7 +830,19 @@ public class RAPNC {
     public ResultTypeMDA LinearMDA() {
         lbCopyMDA = Arrays.copyOfRange(lbVar, 0, dimension);
         ubCopyMDA = Arrays.copyOfRange(ubVar, 0, dimension);
-        return LinearMDA(0, dimension - 1);
+        if (stats != null) {
+            stats.begin("LinearMDA", dimension);
+        }
+        ResultTypeMDA res;
+        try {
+            res = LinearMDA(0, dimension - 1);
+        } catch (Deadline.Expired ex) {
+            res = new ResultTypeMDA(ex.status);
+        }
+        if (stats != null) {
+            stats.end();
+        }
+        return res;
     }
 
     /**
@@ -527,6 +859,7 @@ public class RAPNC {
 
     public ResultTypeMDA LinearMDA(int v, int w) {
         
+        this.number_subproblem += 4; // record the number of subproblems
         //initialize return of the solution
         long[] aa = new long[w - v + 1];
         long[] ab = new long[w - v + 1];
@@ -553,6 +886,7 @@ public class RAPNC {
         int u = v + (w - v) / 2;
         ResultTypeMDA left = LinearMDA(v, u);
         ResultTypeMDA right = LinearMDA(u + 1, w);
+        checkDeadline();
 
         //conquer
         //update the bounds
@@ -633,20 +967,14 @@ public class RAPNC {
         updateBounds(right.bb, right.ab, u + 1, w);
         if (v == 0) {
             bb = subproblemRAPSolveLinear(v, w, ubNested[w]);
-            long[] bstar = subproblemRAPSolve(v, w, ubNested[w]);
-
-            for (int i = 0; i < bb.length; i++) {
-                if ((Math.abs(bb[i] - bstar[i]) >= 0.01)) {
-                System.out.println("No, the solution x[" + i + "] is different.");
-                System.out.print(obj.get(i).getValue(1));
-                System.out.print(" ");
-                System.out.print(lbCopyMDA[i]);
-                System.out.print(" ");
-                System.out.print(ubCopyMDA[i]);
-                System.out.print(" ");
-                System.out.print(bb[i]);
-                System.out.print(" ");
-                System.out.println(bstar[i]);     
+            //cross-check the linear solve of the root against the general one, only when someone listens
+            if (stats != null) {
+                long[] bstar = subproblemRAPSolve(v, w, ubNested[w]);
+                for (int i = 0; i < bb.length; i++) {
+                    if (Math.abs(bb[i] - bstar[i]) >= 0.01) {
+                        report("No, the solution x[" + i + "] is different. " + obj.get(i).getValue(1) + " "
+                            + lbCopyMDA[i] + " " + ubCopyMDA[i] + " " + bb[i] + " " + bstar[i]);
+                    }
                 }
             }
         } else {
@@ -739,11 +1067,20 @@ public class RAPNC {
         long[] raplb = Arrays.copyOfRange(lbCopyMDA, v, w + 1);
         long[] rapub = Arrays.copyOfRange(ubCopyMDA, v, w + 1);
         List<Function> rapObj = obj.subList(v, w + 1);
+        long time = stats == null ? 0 : System.nanoTime();
+        SolverEvents.RAPSolve rapEvent = new SolverEvents.RAPSolve();
+        rapEvent.begin();
         RAP rap = new RAP(rapObj, rapB, raplb, rapub);
         rap.scaleFactor = this.scaleFactor;
+        rap.stats = this.stats;
+        rap.deadline = this.deadline;
         ResultTypeRAP res = rap.solveRAP();
+        SolverEvents.commitRAPSolve(rapEvent, w - v + 1, rapB, "scaling", res.feasible);
+        if (stats != null) {
+            stats.recordRAP(w - v + 1, System.nanoTime() - time);
+        }
         if (!res.feasible) {
-            System.out.println("Subproblem" + v + " " + w  + "Infeasible");
+            report("Subproblem" + v + " " + w  + "Infeasible");
         }
         return res.sol;
     }
@@ -795,11 +1132,20 @@ public class RAPNC {
             }
         } else {
             List<Function> rapObj = obj.subList(v, w + 1);
+            long time = stats == null ? 0 : System.nanoTime();
+            SolverEvents.RAPSolve rapEvent = new SolverEvents.RAPSolve();
+            rapEvent.begin();
             RAP rap = new RAP(rapObj, rapB, raplb, rapub);
             rap.scaleFactor = this.scaleFactor;
+            rap.stats = this.stats;
+            rap.deadline = this.deadline;
             res = rap.solveRAPLinear();
+            SolverEvents.commitRAPSolve(rapEvent, w - v + 1, rapB, "linear", res.feasible);
+            if (stats != null) {
+                stats.recordRAP(w - v + 1, System.nanoTime() - time);
+            }
             if (!res.feasible) {
-                System.out.println("Subproblem" + v + " " + w  + "Infeasible");
+                report("Subproblem" + v + " " + w  + "Infeasible");
             }
         }
        
@@ -822,7 +1168,19 @@ public class RAPNC {
         ubCopyMDA = new long[dimension];
         //Arrays.fill(lbCopyMDA, - 2 * ubNested[dimension - 1]);
         //Arrays.fill(ubCopyMDA, 2 * ubNested[dimension - 1]);
-        return FastMDA(0, dimension - 1);
+        if (stats != null) {
+            stats.begin("FastMDA", dimension);
+        }
+        ResultTypeMDA res;
+        try {
+            res = FastMDA(0, dimension - 1);
+        } catch (Deadline.Expired ex) {
+            res = new ResultTypeMDA(ex.status);
+        }
+        if (stats != null) {
+            stats.end();
+        }
+        return res;
     }
 
     /**
@@ -943,9 +1301,20 @@ public class RAPNC {
 
         //divide 
         int u = v + (w - v) / 2;
+        mdaDepth++;
         ResultTypeMDA left = FastMDA(v, u);
         ResultTypeMDA right = FastMDA(u + 1, w);
+        mdaDepth--;
+        checkDeadline();
+
+        long time = (stats == null && trace == null) ? 0 : System.nanoTime();
+        SolverEvents.MDAMerge mergeEvent = new SolverEvents.MDAMerge();
+        mergeEvent.begin();
 
+        //the four subproblems below share the range [v, w]
+        ParametricRAP range = new ParametricRAP(obj, v, w, scaleFactor);
+        range.stats = this.stats;
+        range.deadline = this.deadline;
 
         //conquer
         //update the bounds
@@ -963,14 +1332,15 @@ public class RAPNC {
         }
         updateBounds(right.ba, right.aa, u + 1, w);
         if (v == 0) {
-            aa = subproblemRAPSolveFastMDA(v, w, lbNested[w]);
+            aa = subproblemRAPSolveFastMDA(v, w, lbNested[w], range);
         } else {
-            aa = subproblemRAPSolveFastMDA(v, w, lbNested[w] - lbNested[v - 1]);
+            aa = subproblemRAPSolveFastMDA(v, w, lbNested[w] - lbNested[v - 1], range);
         }
 
         //avoid the last computation
         if (v == 0 && w == dimension - 1) {
             //System.out.println("yes");
+            recordMerge(v, u, w, time, mergeEvent);
             return new ResultTypeMDA(aa, aa, aa, aa);
         }
 
@@ -987,9 +1357,9 @@ public class RAPNC {
         }
         updateBounds(right.bb, right.ab, u + 1, w);
         if (v == 0) {
-            ab = subproblemRAPSolveFastMDA(v, w, ubNested[w]);
+            ab = subproblemRAPSolveFastMDA(v, w, ubNested[w], range);
         } else {
-            ab = subproblemRAPSolveFastMDA(v, w, ubNested[w] - lbNested[v - 1]);
+            ab = subproblemRAPSolveFastMDA(v, w, ubNested[w] - lbNested[v - 1], range);
         }
 
         //ba
@@ -1006,9 +1376,9 @@ public class RAPNC {
         }
         updateBounds(right.ba, right.aa, u + 1, w);
         if (v == 0) {
-            ba = subproblemRAPSolveFastMDA(v, w, lbNested[w]);
+            ba = subproblemRAPSolveFastMDA(v, w, lbNested[w], range);
         } else {
-            ba = subproblemRAPSolveFastMDA(v, w, lbNested[w] - ubNested[v - 1]);
+            ba = subproblemRAPSolveFastMDA(v, w, lbNested[w] - ubNested[v - 1], range);
         }
 
         //bb
@@ -1025,16 +1395,31 @@ public class RAPNC {
         }
         updateBounds(right.bb, right.ab, u + 1, w);
         if (v == 0) {
-            bb = subproblemRAPSolveFastMDA(v, w, ubNested[w]);
+            bb = subproblemRAPSolveFastMDA(v, w, ubNested[w], range);
         } else {
-            bb = subproblemRAPSolveFastMDA(v, w, ubNested[w] - ubNested[v - 1]);
+            bb = subproblemRAPSolveFastMDA(v, w, ubNested[w] - ubNested[v - 1], range);
         }
+        recordMerge(v, u, w, time, mergeEvent);
 
 
         //return 
         return new ResultTypeMDA(aa, ab, ba, bb); 
     }
 
+    //Record the conquer step of the node [v, w] divided at u that started at time
+    private void recordMerge(int v, int u, int w, long time, SolverEvents.MDAMerge mergeEvent) {
+        if (stats != null || trace != null) {
+            long nanos = System.nanoTime() - time;
+            if (stats != null) {
+                stats.recordMerge(nanos);
+            }
+            if (trace != null) {
+                trace.record(SplitTrace.MDA_MERGE, mdaDepth, v, w - v + 1, u, SplitTrace.NONE, 0, nanos);
+            }
+        }
+        SolverEvents.commitMDAMerge(mergeEvent, v, w);
+    }
+
     /**
      * subproblemRAPSolveFastMDA2
      * This is an method used to solve the special RAP subproblems in MDA method
@@ -1063,13 +1448,13 @@ public class RAPNC {
             sum_d += ubVar[i];
 
             if (lbCopyMDA[i] > ubCopyMDA[i]) {
-                System.out.println("Something of c_bar and d_bar may be wrong");
+                report("Something of c_bar and d_bar may be wrong");
                 //here is correct.
             }
         }
 
         if (sum_c_bar > LR || sum_d_bar < LR) {
-            System.out.println("Weired"); // These constraints are always fulfilled.
+            report("Weired"); // These constraints are always fulfilled.
         }
 
         //case one: the problem is infeasible w.r.t. sum_c
@@ -1090,7 +1475,7 @@ public class RAPNC {
                 sum_c_bar += delta;
             }
             if (LR - sum_c_bar > 0) {
-                System.out.println("Not a feasible solution."); 
+                report("Not a feasible solution."); 
             }
             return construct_sol;
         }
@@ -1113,7 +1498,7 @@ public class RAPNC {
             }
 
             if (sum_d_bar - LR > 0) {
-                System.out.println("Not a feasible solution.");
+                report("Not a feasible solution.");
             }
             return construct_sol;
         }
@@ -1131,19 +1516,20 @@ public class RAPNC {
             sum_c += raplb[i - v];
             sum_d += rapub[i - v];
             if (raplb[i - v] > rapub[i - v]) {
-                System.out.println("Something may be wrong");
+                report("Something may be wrong");
             }
         }
         if (sum_c > rapB) {
-            System.out.println("lower bound is wrong");
+            report("lower bound is wrong");
         } else if (sum_d < rapB) {
-            System.out.println("upper bound is wrong");
+            report("upper bound is wrong");
         }
         //System.out.println("Checked");
         rap.scaleFactor = this.scaleFactor;
+        rap.deadline = this.deadline;
         ResultTypeRAP res = rap.solveRAP();
         if (!res.feasible) {
-            System.out.println("Subproblem" + v + " " + w + "Infeasible");
+            report("Subproblem" + v + " " + w + "Infeasible");
         }
         return res.sol;
     }
@@ -1159,6 +1545,24 @@ public class RAPNC {
      * @return solution to the subproblem. Here we simply assume that the problem is always feasible
      */
     public long[] subproblemRAPSolveFastMDA(int v, int w, long LR) { 
+        ParametricRAP range = new ParametricRAP(obj, v, w, scaleFactor);
+        range.stats = this.stats;
+        range.deadline = this.deadline;
+        return subproblemRAPSolveFastMDA(v, w, LR, range);
+    }
+
+    /**
+     * subproblemRAPSolveFastMDA
+     * This is an method used to solve the special RAP subproblems in MDA method. 
+     * The subproblems over the same range share the structure range, see ParametricRAP.
+     * Time-Complexity: O(n log n) 
+     * @param v start index
+     * @param u end index
+     * @param LR the total amount of resource in the subproblems
+     * @param range the parametric RAP over [v, w]
+     * @return solution to the subproblem. Here we simply assume that the problem is always feasible
+     */
+    public long[] subproblemRAPSolveFastMDA(int v, int w, long LR, ParametricRAP range) { 
         //set up checkers
         long sum_c_prime = 0;
         long sum_d_prime = 0;
@@ -1166,9 +1570,8 @@ public class RAPNC {
         long sum_d_bar = 0;
 
         long rapB = LR;
-        long[] raplb = new long[w + 1 - v];
-        long[] rapub = new long[w + 1 - v];
-        List<Function> rapObj = obj.subList(v, w + 1);
+        long[] raplb = range.raplb;
+        long[] rapub = range.rapub;
 
         for (int i = v; i < w + 1; i++) {
 
@@ -1222,27 +1625,24 @@ public class RAPNC {
 
 
         //case three: the RAP problem is feasible under the original bound
-        RAP rap = new RAP(rapObj, rapB, raplb, rapub);
         long sum_c = 0;
         long sum_d = 0;
         for (int i = v; i < w + 1; i++) {
             sum_c += raplb[i - v];
             sum_d += rapub[i - v];
             if (raplb[i - v] > rapub[i - v]) {
-                System.out.println("Something may be wrong");
+                report("Something may be wrong");
             }
         }
         if (sum_c > rapB) {
-            System.out.println("lower bound is wrong");
+            report("lower bound is wrong");
         } else if (sum_d < rapB) {
-            System.out.println("upper bound is wrong");
+            report("upper bound is wrong");
         }
         //System.out.println("Checked");
-        rap.scaleFactor = this.scaleFactor;
-        ResultTypeRAP res = rap.solveRAP();
-        //ResultTypeRAP res = rap.solveRAPLinear();
+        ResultTypeRAP res = range.solve(rapB);
         if (!res.feasible) {
-            System.out.println("Subproblem" + v + " " + w + "Infeasible");
+            report("Subproblem" + v + " " + w + "Infeasible");
         }
         return res.sol;
     }
@@ -1271,6 +1671,7 @@ public class RAPNC {
 
         //case three: the RAP problem is feasible under the original bound
         RAP rap = new RAP(rapObj, rapB, raplb, rapub);
+        rap.deadline = this.deadline;
 
         ResultTypeRAP res = rap.solveRAP();
         //ResultTypeRAP res = rap.solveRAPLinear();
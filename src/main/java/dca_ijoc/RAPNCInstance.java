@@ -0,0 +1,111 @@
+package dca_ijoc;
+
+/*
+ *  An immutable instance of DRAP-NC that can be solved by several algorithms and threads at the same time.
+ *
+ * The instance holds the function oracles and the bound arrays, which are copied once when the instance is created
+ * and never written afterwards. A solve runs on a RAPNC created by newSolver(): the RAPNC shares the arrays of the
+ * instance and holds the state of its solve (number_subproblem, the bounds of MDA, the statistics and the trace), so
+ * concurrent solves of one instance need no copies of the arrays. The function oracles must not have a state, which
+ * is the case of those of RAPNCTestUtils.buildObjectFunction.
+ */
+
+import java.util.*;
+
+public final class RAPNCInstance {
+    final int dimension;
+    final List<Function> obj;
+    //bounds of the instance, never written
+    private final long[] lbVar;
+    private final long[] ubVar;
+    private final long[] lbNested;
+    private final long[] ubNested;
+
+    /**
+     * RAPNCInstance constructor
+     * Time-Complexity: O(n)
+     * @param obj the function oracles
+     * @param lbVar the lower bounds of the variables, which are copied, as are the other arrays
+     * @param ubVar the upper bounds of the variables
+     * @param lbNested the lower bounds of the nested constraints
+     * @param ubNested the upper bounds of the nested constraints
+     */
+    public RAPNCInstance(List<Function> obj, long[] lbVar, long[] ubVar, long[] lbNested, long[] ubNested) {
+        int n = lbVar.length;
+        if (obj.size() != n || ubVar.length != n || lbNested.length != n || ubNested.length != n) {
+            throw new IllegalArgumentException("The function oracles and the bounds must have the same length");
+        }
+        this.dimension = n;
+        this.obj = Collections.unmodifiableList(new ArrayList<Function>(obj));
+        this.lbVar = lbVar.clone();
+        this.ubVar = ubVar.clone();
+        this.lbNested = lbNested.clone();
+        this.ubNested = ubNested.clone();
+    }
+
+    /**
+     * of method
+     * Build an instance from the data, whose arrays are copied
+     * Time-Complexity: O(n)
+     */
+    public static RAPNCInstance of(RAPNCTestUtils.RAPNCInstanceData data) {
+        List<Function> obj = new ArrayList<Function>(data.dimension);
+        for (int i = 0; i < data.dimension; i++) {
+            obj.add(RAPNCTestUtils.buildObjectFunction(data.cost_param_a[i], data.cost_param_b[i], data.objFuncType));
+        }
+        return new RAPNCInstance(obj, data.lbVar, data.capacity, data.lbNested, data.ubNested);
+    }
+
+    public int dimension() {
+        return dimension;
+    }
+
+    /**
+     * newSolver method
+     * Create the context of a new solve of the instance, which shares the arrays of the instance
+     * Time-Complexity: O(1)
+     * @return a RAPNC whose solvers do not modify the instance
+     */
+    public RAPNC newSolver() {
+        return new RAPNC(obj, lbVar, ubVar, lbNested, ubNested);
+    }
+
+    /**
+     * solve method
+     * Solve the instance in a new context, see RAPNC.solve
+     * @param algorithm name of the algorithm
+     * @return ResultTypeRAPNC containing the solution and feasibility
+     */
+    public ResultTypeRAPNC solve(String algorithm) {
+        return newSolver().solve(algorithm);
+    }
+
+    /**
+     * solve method
+     * Solve the instance in a new context that is aborted at the deadline, see Deadline
+     * @param algorithm name of the algorithm
+     * @param deadline the deadline and cancellation token of the solve
+     * @return ResultTypeRAPNC containing the solution and feasibility, or the status TIMED_OUT or CANCELLED
+     */
+    public ResultTypeRAPNC solve(String algorithm, Deadline deadline) {
+        RAPNC solver = newSolver();
+        solver.setDeadline(deadline);
+        return solver.solve(algorithm);
+    }
+
+    public long lbVar(int i) {
+        return lbVar[i];
+    }
+
+    public long ubVar(int i) {
+        return ubVar[i];
+    }
+
+    public long lbNested(int i) {
+        return lbNested[i];
+    }
+
+    public long ubNested(int i) {
+        return ubNested[i];
+    }
+}
@@ -0,0 +1,263 @@
+package dca_ijoc;
+
+/*
+ *  Streaming readers and writers of RAPNCInstanceData files.
+ *
+ * The JSON files written by RAPNCInstanceData.JSONizeToFile are parsed token by token with Gson's JsonReader,
+ * directly into primitive arrays. The arrays are grown as their entries are read, from at most INITIAL_CAPACITY
+ * entries, so a declared dimension allocates nothing by itself; it only bounds the arrays that follow it (Gson writes
+ * the dimension first). A reader can also bound the dimension itself, e.g. by the length of a request. After parsing,
+ * the length of every array is validated against the dimension. Unknown fields are skipped.
+ *
+ * writeInstance streams the same schema through a buffered JsonWriter without pretty printing, so the files are
+ * about two thirds of the size of the pretty-printed ones and can still be read by Gson.fromJson. Files whose name
+ * ends with ".gz" are written and read through gzip (about a quarter of the size).
+ */
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+public final class RAPNCInstanceIO {
+    static final int BUFFER_SIZE = 1 << 16;
+    //initial length of the arrays, which then double up to the dimension
+    static final int INITIAL_CAPACITY = 1 << 12;
+    //bound on the length of a grown array, as in ArrayList
+    static final int MAX_ARRAY_SIZE = Integer.MAX_VALUE - 8;
+
+    private RAPNCInstanceIO() {
+    }
+
+    /**
+     * readInstance method
+     * Read an instance from a JSON file
+     * Time-Complexity: O(n)
+     * @param filename the JSON file
+     * @return the instance data
+     */
+    public static RAPNCTestUtils.RAPNCInstanceData readInstance(String filename) throws IOException {
+        InputStream in = new FileInputStream(filename);
+        if (filename.endsWith(".gz")) {
+            in = new GZIPInputStream(in, BUFFER_SIZE);
+        }
+        try (Reader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            return readInstance(reader);
+        }
+    }
+
+    /**
+     * readInstance method
+     * Read an instance from a JSON stream
+     * Time-Complexity: O(n)
+     * @param reader the JSON stream, which is not closed
+     * @return the instance data
+     */
+    public static RAPNCTestUtils.RAPNCInstanceData readInstance(Reader reader) throws IOException {
+        return readInstance(new JsonReader(reader));
+    }
+
+    /**
+     * readInstance method
+     * Read an instance from the next JSON object of a JsonReader, e.g. a field of an enclosing object
+     * Time-Complexity: O(n)
+     */
+    static RAPNCTestUtils.RAPNCInstanceData readInstance(JsonReader json) throws IOException {
+        return readInstance(json, MAX_ARRAY_SIZE);
+    }
+
+    /**
+     * readInstance method
+     * Read an instance from the next JSON object of a JsonReader, rejecting a dimension above maxDimension before
+     * any array is read
+     * Time-Complexity: O(n)
+     * @param maxDimension the largest accepted dimension
+     */
+    static RAPNCTestUtils.RAPNCInstanceData readInstance(JsonReader json, int maxDimension) throws IOException {
+        String objFuncType = null;
+        int dimension = -1;
+        long[] lbVar = null;
+        long[] capacity = null;
+        long[] lbNested = null;
+        long[] ubNested = null;
+        double[] cost_param_a = null;
+        double[] cost_param_b = null;
+
+        json.beginObject();
+        while (json.hasNext()) {
+            String name = json.nextName();
+            if (json.peek() == JsonToken.NULL) {
+                json.nextNull();
+                continue;
+            }
+            switch (name) {
+                case "objFuncType":
+                    objFuncType = json.nextString();
+                    break;
+                case "dimension":
+                    dimension = json.nextInt();
+                    if (dimension > maxDimension) {
+                        throw new IOException("The dimension " + dimension + " exceeds the maximum of "
+                            + maxDimension);
+                    }
+                    break;
+                case "lbVar":
+                    lbVar = readLongArray(json, dimension);
+                    break;
+                case "capacity":
+                    capacity = readLongArray(json, dimension);
+                    break;
+                case "lbNested":
+                    lbNested = readLongArray(json, dimension);
+                    break;
+                case "ubNested":
+                    ubNested = readLongArray(json, dimension);
+                    break;
+                case "cost_param_a":
+                    cost_param_a = readDoubleArray(json, dimension);
+                    break;
+                case "cost_param_b":
+                    cost_param_b = readDoubleArray(json, dimension);
+                    break;
+                default:
+                    json.skipValue();
+            }
+        }
+        json.endObject();
+
+        if (objFuncType == null || dimension < 1) {
+            throw new IOException("Missing objFuncType or dimension");
+        }
+        checkLength("capacity", capacity == null ? -1 : capacity.length, dimension);
+        checkLength("lbNested", lbNested == null ? -1 : lbNested.length, dimension);
+        checkLength("ubNested", ubNested == null ? -1 : ubNested.length, dimension);
+        checkLength("cost_param_a", cost_param_a == null ? -1 : cost_param_a.length, dimension);
+        checkLength("cost_param_b", cost_param_b == null ? -1 : cost_param_b.length, dimension);
+
+        RAPNCTestUtils.RAPNCInstanceData data = new RAPNCTestUtils.RAPNCInstanceData(
+            objFuncType, dimension, capacity, lbNested, ubNested, cost_param_a, cost_param_b);
+        if (lbVar != null) {
+            checkLength("lbVar", lbVar.length, dimension);
+            data.lbVar = lbVar;
+        }
+        return data;
+    }
+
+    static void checkLength(String name, int length, int dimension) throws IOException {
+        if (length != dimension) {
+            throw new IOException(length < 0 ? "Missing " + name
+                : name + " has " + length + " entries but the dimension is " + dimension);
+        }
+    }
+
+    static int initialCapacity(int expected) {
+        return expected >= 0 ? Math.min(expected, INITIAL_CAPACITY) : 16;
+    }
+
+    //The new length of a full array of the given size, which is below the expected length if it is known (>= 0)
+    static int grow(JsonReader json, int size, int expected) throws IOException {
+        int limit = expected >= 0 ? expected : MAX_ARRAY_SIZE;
+        if (size >= limit) {
+            throw new IOException("Array at " + json.getPath() + " has more than " + limit + " entries");
+        }
+        return (int) Math.min(limit, 2L * size);
+    }
+
+    //Read a JSON array of integers, of at most the expected length if it is known (>= 0)
+    static long[] readLongArray(JsonReader json, int expected) throws IOException {
+        long[] values = new long[initialCapacity(expected)];
+        int size = 0;
+        json.beginArray();
+        while (json.hasNext()) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, grow(json, size, expected));
+            }
+            values[size++] = json.nextLong();
+        }
+        json.endArray();
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+
+    //Read a JSON array of numbers, of at most the expected length if it is known (>= 0)
+    static double[] readDoubleArray(JsonReader json, int expected) throws IOException {
+        double[] values = new double[initialCapacity(expected)];
+        int size = 0;
+        json.beginArray();
+        while (json.hasNext()) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, grow(json, size, expected));
+            }
+            values[size++] = json.nextDouble();
+        }
+        json.endArray();
+        return size == values.length ? values : Arrays.copyOf(values, size);
+    }
+
+    /**
+     * writeInstance method
+     * Write an instance to a JSON file, gzipped if the name ends with ".gz"
+     * Time-Complexity: O(n)
+     * @param data the instance data
+     * @param filename the JSON file
+     */
+    public static void writeInstance(RAPNCTestUtils.RAPNCInstanceData data, String filename) throws IOException {
+        OutputStream out = new FileOutputStream(filename);
+        if (filename.endsWith(".gz")) {
+            out = new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE)) {
+            writeInstance(data, writer);
+        }
+    }
+
+    /**
+     * writeInstance method
+     * Write an instance to a JSON stream in the field order of Gson
+     * Time-Complexity: O(n)
+     * @param data the instance data
+     * @param writer the JSON stream, which is flushed but not closed
+     */
+    public static void writeInstance(RAPNCTestUtils.RAPNCInstanceData data, Writer writer) throws IOException {
+        JsonWriter json = new JsonWriter(writer);
+        json.beginObject();
+        json.name("objFuncType").value(data.objFuncType);
+        json.name("dimension").value(data.dimension);
+        writeLongArray(json.name("lbVar"), data.lbVar);
+        writeLongArray(json.name("capacity"), data.capacity);
+        writeLongArray(json.name("lbNested"), data.lbNested);
+        writeLongArray(json.name("ubNested"), data.ubNested);
+        writeDoubleArray(json.name("cost_param_a"), data.cost_param_a);
+        writeDoubleArray(json.name("cost_param_b"), data.cost_param_b);
+        json.endObject();
+        json.flush();
+    }
+
+    static void writeLongArray(JsonWriter json, long[] values) throws IOException {
+        if (values == null) {
+            json.nullValue();
+            return;
+        }
+        json.beginArray();
+        for (long value : values) {
+            json.value(value);
+        }
+        json.endArray();
+    }
+
+    static void writeDoubleArray(JsonWriter json, double[] values) throws IOException {
+        if (values == null) {
+            json.nullValue();
+            return;
+        }
+        json.beginArray();
+        for (double value : values) {
+            json.value(value);
+        }
+        json.endArray();
+    }
+}
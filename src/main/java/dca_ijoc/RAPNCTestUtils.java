@@ -191,21 +191,12 @@ public class RAPNCTestUtils {
 
         /**
          * JSONizeToFile method 
-         * A method that serilize the data to a json string with pretty printing format
+         * A method that serilize the data to a compact json file, see RAPNCInstanceIO.writeInstance
          * Time-Complexity: O(n) 
          */
         public void JSONizeToFile(String filename) {
-            Gson gson = new GsonBuilder().setPrettyPrinting().create();
             try {
-                // create a writer
-                Writer writer = new FileWriter(filename);
-            
-                // convert map to JSON File
-                gson.toJson(this, writer);
-            
-                // close the writer
-                writer.close();
-                
+                RAPNCInstanceIO.writeInstance(this, filename);
             } catch (IOException ex) {
                 ex.printStackTrace();
             }
@@ -219,7 +210,8 @@ public class RAPNCTestUtils {
 
         /**
          * toRAPNC method 
-         * This is a method that build a RAPNC instance from the RAPNCInstanceData
+         * This is a method that build a RAPNC instance from the RAPNCInstanceData, which shares the arrays of the data.
+         * The solvers do not modify the arrays.
          * Time-Complexity: O(n) 
          */
         public RAPNC toRAPNC() {
@@ -230,6 +222,30 @@ public class RAPNCTestUtils {
             // JSONObject json = new JSONObject();
             return new RAPNC(obj, this.lbVar, this.capacity, this.lbNested, this.ubNested);
         }
+
+        /**
+         * toFreshRAPNC method 
+         * This is a method that build a RAPNC instance with copies of the bound arrays, 
+         * for callers that modify the bounds of the instance. Solving does not need copies, see toRAPNC.
+         * Time-Complexity: O(n) 
+         */
+        public RAPNC toFreshRAPNC() {
+            RAPNC instance = toRAPNC();
+            instance.lbVar = this.lbVar.clone();
+            instance.ubVar = this.capacity.clone();
+            instance.lbNested = this.lbNested.clone();
+            instance.ubNested = this.ubNested.clone();
+            return instance;
+        }
+
+        /**
+         * toInstance method 
+         * This is a method that build an immutable RAPNCInstance with copies of the arrays of the data
+         * Time-Complexity: O(n) 
+         */
+        public RAPNCInstance toInstance() {
+            return RAPNCInstance.of(this);
+        }
     }
 
     /**
@@ -342,7 +358,8 @@ public class RAPNCTestUtils {
         ** DCA: solve the problem by DCA and record the time
         **
         ********************************************************************************/
-        RAPNC test_instance = data.toRAPNC();
+        RAPNCInstance instance = data.toInstance();
+        RAPNC test_instance = instance.newSolver();
         long startTime = System.currentTimeMillis();
         ResultTypeRAPNC res = test_instance.solveIntegerDCA();
 
@@ -357,7 +374,7 @@ public class RAPNCTestUtils {
         **MDA: solve the problem by FastMDA and record the time
         **
         ********************************************************************************/
-        RAPNC test_instance_MDA = data.toRAPNC();
+        RAPNC test_instance_MDA = instance.newSolver();
         startTime = System.currentTimeMillis();
         ResultTypeMDA resFastMDA = test_instance_MDA.FastMDA();
 		endTime = System.currentTimeMillis();
@@ -0,0 +1,282 @@
+package dca_ijoc;
+
+/*
+ *  A content-addressed cache of the results of solved instances.
+ *
+ * A result is keyed by a 128-bit hash of the instance (objective type, dimension, the bound arrays and the bits of
+ * the cost parameters) and of the solver configuration (e.g. the algorithm), so identical instances share their
+ * result whatever their origin. The two 64-bit halves of the key are computed in one pass over the arrays with
+ * independent multipliers; a false hit needs a collision of both halves, which is negligible for any realistic
+ * number of instances.
+ *
+ * The results are kept in memory up to maxBytes (8 bytes per variable of the solution) with least recently used
+ * eviction. With a directory, the results are also stored on disk, one file per key, in a little-endian binary
+ * format in the style of BinaryInstanceFormat:
+ *     int MAGIC, int VERSION, int feasible (0 or 1), int length of the solution (-1 if none),
+ *     long high and long low halves of the key, the solution as longs
+ * A result evicted from memory is then read back from disk. Hits return a copy of the stored result, so callers
+ * may modify it. The methods are thread-safe; instances are solved outside the lock.
+ */
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.util.*;
+
+public final class ResultCache {
+    static final int MAGIC = 0x53455252; // "RRES"
+    static final int VERSION = 1;
+    static final int HEADER_BYTES = 32;
+    private static final long MULTIPLIER_HIGH = 0x9E3779B97F4A7C15L;
+    private static final long MULTIPLIER_LOW = 0xC2B2AE3D27D4EB4FL;
+
+    private final long maxBytes;
+    //the disk tier, null if the results are only kept in memory
+    private final Path directory;
+    private final LinkedHashMap<Key, ResultTypeRAPNC> entries;
+    private long bytes;
+
+    //statistics
+    long hits;
+    long diskHits;
+    long misses;
+    long evictions;
+
+    /*
+    * The 128-bit hash of an instance and a solver configuration
+    */
+    public static final class Key {
+        final long high;
+        final long low;
+
+        Key(long high, long low) {
+            this.high = high;
+            this.low = low;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && ((Key) other).high == high && ((Key) other).low == low;
+        }
+
+        @Override
+        public int hashCode() {
+            return (int) (low ^ (low >>> 32));
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%016x%016x", high, low);
+        }
+    }
+
+    /**
+     * ResultCache constructor
+     * @param maxBytes the bound on the memory of the cached results
+     * @param directory the directory of the disk tier, which is created if needed, or null
+     */
+    public ResultCache(long maxBytes, String directory) throws IOException {
+        this.maxBytes = maxBytes;
+        this.directory = directory == null ? null : Files.createDirectories(Paths.get(directory));
+        this.entries = new LinkedHashMap<Key, ResultTypeRAPNC>(16, 0.75f, true);
+    }
+
+    /**
+     * key method
+     * Time-Complexity: O(n)
+     * @param data the instance
+     * @param config the solver configuration, e.g. the algorithm
+     * @return the key of the instance and the configuration
+     */
+    public static Key key(RAPNCTestUtils.RAPNCInstanceData data, String config) {
+        long[] state = new long[]{MULTIPLIER_LOW, MULTIPLIER_HIGH};
+        mix(state, config);
+        mix(state, data.objFuncType);
+        mix(state, data.dimension);
+        mix(state, data.lbVar);
+        mix(state, data.capacity);
+        mix(state, data.lbNested);
+        mix(state, data.ubNested);
+        for (double value : data.cost_param_a) {
+            mix(state, Double.doubleToLongBits(value));
+        }
+        for (double value : data.cost_param_b) {
+            mix(state, Double.doubleToLongBits(value));
+        }
+        return new Key(finish(state[0]), finish(state[1]));
+    }
+
+    private static void mix(long[] state, long[] values) {
+        long high = state[0];
+        long low = state[1];
+        for (long value : values) {
+            high = Long.rotateLeft(high ^ value, 27) * MULTIPLIER_HIGH;
+            low = Long.rotateLeft(low + value, 31) * MULTIPLIER_LOW;
+        }
+        state[0] = high;
+        state[1] = low;
+    }
+
+    private static void mix(long[] state, String text) {
+        mix(state, text.length());
+        for (int i = 0; i < text.length(); i++) {
+            mix(state, text.charAt(i));
+        }
+    }
+
+    private static void mix(long[] state, long value) {
+        state[0] = Long.rotateLeft(state[0] ^ value, 27) * MULTIPLIER_HIGH;
+        state[1] = Long.rotateLeft(state[1] + value, 31) * MULTIPLIER_LOW;
+    }
+
+    //SplitMix64 finalizer
+    private static long finish(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /**
+     * solve method
+     * Return the cached result of the instance, or solve it and cache the result
+     * Time-Complexity: O(n) on a hit
+     * @param data the instance, which is not modified
+     * @param algorithm the algorithm, see RAPNC.solve
+     * @return a copy of the result
+     */
+    public ResultTypeRAPNC solve(RAPNCTestUtils.RAPNCInstanceData data, String algorithm) throws IOException {
+        Key key = key(data, algorithm);
+        ResultTypeRAPNC result = get(key);
+        if (result == null) {
+            result = data.toRAPNC().solve(algorithm);
+            put(key, result);
+        }
+        return copy(result);
+    }
+
+    /**
+     * get method
+     * @return the cached result of the key, which must not be modified, or null
+     */
+    ResultTypeRAPNC get(Key key) throws IOException {
+        synchronized (this) {
+            ResultTypeRAPNC result = entries.get(key);
+            if (result != null) {
+                hits++;
+                return result;
+            }
+        }
+        ResultTypeRAPNC result = directory == null ? null : read(key);
+        synchronized (this) {
+            if (result == null) {
+                misses++;
+                return null;
+            }
+            diskHits++;
+            cache(key, result);
+            return result;
+        }
+    }
+
+    /**
+     * put method
+     * Cache the result of a key in memory and on disk
+     */
+    void put(Key key, ResultTypeRAPNC result) throws IOException {
+        ResultTypeRAPNC stored = copy(result);
+        synchronized (this) {
+            cache(key, stored);
+        }
+        if (directory != null) {
+            write(key, stored);
+        }
+    }
+
+    private void cache(Key key, ResultTypeRAPNC result) {
+        ResultTypeRAPNC previous = entries.remove(key);
+        if (previous != null) {
+            bytes -= footprint(previous);
+        }
+        long size = footprint(result);
+        if (size > maxBytes) {
+            return;
+        }
+        entries.put(key, result);
+        bytes += size;
+        Iterator<ResultTypeRAPNC> eldest = entries.values().iterator();
+        while (bytes > maxBytes) {
+            bytes -= footprint(eldest.next());
+            eldest.remove();
+            evictions++;
+        }
+    }
+
+    //Bytes of a cached result
+    static long footprint(ResultTypeRAPNC result) {
+        return 8L * (result.sol == null ? 0 : result.sol.length) + 64;
+    }
+
+    private static ResultTypeRAPNC copy(ResultTypeRAPNC result) {
+        return new ResultTypeRAPNC(result.feasible, result.sol == null ? null : result.sol.clone());
+    }
+
+    public synchronized long sizeInBytes() {
+        return bytes;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private Path fileOf(Key key) {
+        return directory.resolve(key + ".rapncres");
+    }
+
+    private void write(Key key, ResultTypeRAPNC result) throws IOException {
+        long[] sol = result.sol == null ? new long[0] : result.sol;
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + 8 * sol.length).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt(result.feasible ? 1 : 0);
+        //-1 for no solution
+        buffer.putInt(result.sol == null ? -1 : sol.length);
+        buffer.putLong(key.high);
+        buffer.putLong(key.low);
+        buffer.asLongBuffer().put(sol);
+        buffer.clear();
+        //write to a temporary file and move it, so that readers never see a partial file
+        Path target = fileOf(key);
+        Path temporary = Files.createTempFile(directory, key.toString(), ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    //Read the result of a key from disk, null if it is not there or the file does not match
+    private ResultTypeRAPNC read(Key key) throws IOException {
+        Path file = fileOf(key);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+            return null;
+        }
+        int feasible = buffer.getInt();
+        int length = buffer.getInt();
+        if (buffer.getLong() != key.high || buffer.getLong() != key.low || length < -1
+                || buffer.remaining() != 8L * Math.max(length, 0)) {
+            return null;
+        }
+        long[] sol = null;
+        if (length >= 0) {
+            sol = new long[length];
+            buffer.asLongBuffer().get(sol);
+        }
+        return new ResultTypeRAPNC(feasible == 1, sol);
+    }
+}
@@ -8,6 +8,8 @@ public class ResultTypeMDA {
 	long[] ab;
 	long[] ba;
 	long[] bb;
+	//TIMED_OUT or CANCELLED if the solve was aborted, then the four solutions are null
+	ResultTypeRAPNC.Status status;
 
 	public ResultTypeMDA(long[] aa, long[] ab, long[] ba, long[] bb) {
 		this.aa = aa;
@@ -15,4 +17,9 @@ public class ResultTypeMDA {
 		this.ba = ba;
 		this.bb = bb;
 	}
-} 
\ No newline at end of file
+
+	//The result of a solve aborted with the given status
+	public ResultTypeMDA(ResultTypeRAPNC.Status status) {
+		this.status = status;
+	}
+}
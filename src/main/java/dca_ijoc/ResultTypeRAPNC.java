@@ -1,13 +1,38 @@
 package dca_ijoc;
 
 /*
-* A class for storing the solution to an instance of DRAP-NC 
+* A class for storing the solution to an instance of DRAP-NC
 */
 public class ResultTypeRAPNC {
+	//outcome of a solve, see Deadline for the aborted solves and AnytimeDCA for GAP_REACHED
+	public enum Status {
+		SOLVED, INFEASIBLE, TIMED_OUT, CANCELLED, GAP_REACHED
+	}
+
 	boolean feasible;
 	public long[] sol;
+	public final Status status;
 	public ResultTypeRAPNC(boolean feasible, long[] sol) {
 		this.feasible = feasible;
 		this.sol = sol;
+		this.status = feasible ? Status.SOLVED : Status.INFEASIBLE;
+	}
+
+	//The result of a solve aborted with the given status, without solution
+	public ResultTypeRAPNC(Status status) {
+		this.feasible = false;
+		this.sol = null;
+		this.status = status;
+	}
+
+	//A result with a solution and any status, e.g. the incumbent of an aborted AnytimeDCA
+	ResultTypeRAPNC(Status status, boolean feasible, long[] sol) {
+		this.feasible = feasible;
+		this.sol = sol;
+		this.status = status;
+	}
+
+	public boolean isAborted() {
+		return status == Status.TIMED_OUT || status == Status.CANCELLED;
 	}
 }
@@ -0,0 +1,315 @@
+package dca_ijoc;
+
+/*
+ *  A scheduler that admits concurrent solves while their estimated memory fits in a heap budget.
+ *
+ * Every solve has an estimate of its peak working memory (estimate(), or a custom FootprintModel) besides the instance
+ * itself, which is already on the heap when the solve is submitted:
+ *     DCA: the root relaxation (copies of the variable bounds, the solution and the tree of the greedy algorithm of
+ *          RAP), then the copies of the bounds and of the objective lists for the two subproblems of a split. A
+ *          subproblem drops its own arrays and its solution before it recurses, so the memory along the recursion path
+ *          is that of the pending right subproblems and of the solutions of the solved left ones: they cover disjoint
+ *          segments, about n variables in total however unbalanced the splits are.
+ *     MDA: the bounds lbCopyMDA and ubCopyMDA, the four solution arrays held at each level of the recursion path
+ *          (about n in total), and at a merge of m variables the four new arrays, the bounds of ParametricRAP and the
+ *          RAP working memory, which is largest at the root (m = n).
+ * The constants are the bytes per variable of these arrays and objects on a 64-bit JVM with compressed pointers.
+ *
+ * A solve is admitted when a thread is free and the estimates of the running solves plus its own fit in the budget.
+ * Otherwise it waits in a queue of at most maxQueued solves, and beyond that it is rejected, as is a solve whose
+ * estimate exceeds the budget on its own. When a solve ends, the queue is scanned in submission order and every waiting
+ * solve that fits is admitted, so small solves keep flowing while a large one waits for memory. A waiting solve can be
+ * overtaken at most MAX_OVERTAKES times; after that no later solve is admitted before it, so it cannot starve. A
+ * waiting solve whose future is cancelled is dropped at the next scan; a running one keeps its memory until it ends,
+ * which is at its next check if it has a Deadline.
+ */
+
+import java.util.*;
+import java.util.concurrent.*;
+
+public final class SolveScheduler {
+    //bytes per variable of the relaxation of DCA and of the RAP subproblems of MDA
+    static final long RAP_BYTES = 100;
+    //bytes per variable of a split of DCA, see the estimate above
+    static final long SPLIT_BYTES = 56;
+    //bytes per variable of the bounds and of the solutions held by MDA
+    static final long MDA_BYTES = 48;
+    //bytes per variable of a merge of MDA besides the RAP subproblem
+    static final long MERGE_BYTES = 96;
+    //objects of a solve that do not depend on the dimension
+    static final long FIXED_BYTES = 1 << 12;
+    //number of later solves that may be admitted before a waiting one
+    static final int MAX_OVERTAKES = 64;
+
+    private final long budget;
+    private final int threads;
+    private final int maxQueued;
+    private final FootprintModel model;
+    private final ExecutorService workers;
+    private final ArrayDeque<Task<?>> queue;
+    private long reserved;
+    private int running;
+    private boolean shutdown;
+
+    //statistics
+    long admitted;
+    long queued;
+    long rejected;
+    long peakReserved;
+
+    /*
+    * The estimated peak memory of a solve in bytes, besides the instance
+    */
+    public interface FootprintModel {
+        long estimate(String algorithm, int dimension);
+    }
+
+    //A submitted solve
+    private static final class Task<T> {
+        final Callable<T> solve;
+        final long bytes;
+        final CompletableFuture<T> result;
+        int overtakes;
+        //outcome of the solve until the result is completed
+        private T value;
+        private Throwable failure;
+
+        Task(Callable<T> solve, long bytes) {
+            this.solve = solve;
+            this.bytes = bytes;
+            this.result = new CompletableFuture<T>();
+        }
+
+        void call() {
+            try {
+                value = solve.call();
+            } catch (Throwable ex) {
+                failure = ex;
+            }
+        }
+
+        void complete() {
+            if (failure == null) {
+                result.complete(value);
+            } else {
+                result.completeExceptionally(failure);
+            }
+        }
+    }
+
+    /**
+     * SolveScheduler constructor
+     * @param budget the bound on the estimated memory of the running solves in bytes
+     * @param threads the maximum number of running solves
+     * @param maxQueued the maximum number of waiting solves, 0 to reject the solves that cannot start at once
+     */
+    public SolveScheduler(long budget, int threads, int maxQueued) {
+        this(budget, threads, maxQueued, SolveScheduler::estimate);
+    }
+
+    /**
+     * SolveScheduler constructor
+     * @param model the estimate of the memory of a solve
+     */
+    public SolveScheduler(long budget, int threads, int maxQueued, FootprintModel model) {
+        this.budget = budget;
+        this.threads = threads;
+        this.maxQueued = maxQueued;
+        this.model = model;
+        this.workers = Executors.newFixedThreadPool(threads, task -> {
+            Thread worker = new Thread(task, "solve-scheduler-worker");
+            worker.setDaemon(true);
+            return worker;
+        });
+        this.queue = new ArrayDeque<Task<?>>();
+    }
+
+    /**
+     * estimate method
+     * The default estimate of the peak memory of a solve, see above
+     * Time-Complexity: O(1)
+     * @param algorithm the algorithm, see RAPNC.solve
+     * @param dimension the dimension of the instance
+     * @return the estimated bytes
+     */
+    public static long estimate(String algorithm, int dimension) {
+        long n = dimension;
+        switch (algorithm) {
+            case "DCA":
+            case "LinearDCA":
+                return (RAP_BYTES + 2 * SPLIT_BYTES) * n + FIXED_BYTES;
+            case "FastMDA":
+            case "MDA":
+            case "LinearMDA":
+                return (MDA_BYTES + MERGE_BYTES + RAP_BYTES) * n + FIXED_BYTES;
+            default:
+                throw new IllegalArgumentException("Unknown algorithm " + algorithm);
+        }
+    }
+
+    /**
+     * submit method
+     * Submit a solve, which starts at once, waits for memory or is rejected
+     * @param instance the instance
+     * @param algorithm the algorithm, see RAPNC.solve
+     * @return the result of the solve, completed with a RejectedExecutionException if the solve is rejected
+     */
+    public CompletableFuture<ResultTypeRAPNC> submit(RAPNCInstance instance, String algorithm) {
+        return submit(algorithm, instance.dimension(), () -> instance.solve(algorithm));
+    }
+
+    /**
+     * submit method
+     * Submit a solve that is aborted at the deadline, see Deadline. Cancelling the returned future cancels the
+     * deadline, so a running solve stops at its next check and a waiting one never starts.
+     * @param instance the instance
+     * @param algorithm the algorithm, see RAPNC.solve
+     * @param deadline the deadline and cancellation token of the solve
+     * @return the result of the solve, completed with a RejectedExecutionException if the solve is rejected
+     */
+    public CompletableFuture<ResultTypeRAPNC> submit(RAPNCInstance instance, String algorithm, Deadline deadline) {
+        CompletableFuture<ResultTypeRAPNC> result = submit(algorithm, instance.dimension(),
+            () -> instance.solve(algorithm, deadline));
+        result.whenComplete((res, ex) -> {
+            if (ex instanceof CancellationException) {
+                deadline.cancel();
+            }
+        });
+        return result;
+    }
+
+    /**
+     * submit method
+     * Submit a solve whose memory is estimated by the algorithm and the dimension, e.g. a solve that is timed
+     * @param algorithm the algorithm of the estimate
+     * @param dimension the dimension of the estimate
+     * @param solve the solve
+     * @return the result of the solve, completed with a RejectedExecutionException if the solve is rejected
+     */
+    public <T> CompletableFuture<T> submit(String algorithm, int dimension, Callable<T> solve) {
+        Task<T> task = new Task<T>(solve, model.estimate(algorithm, dimension));
+        List<Task<?>> start;
+        synchronized (this) {
+            if (shutdown) {
+                rejected++;
+                task.result.completeExceptionally(new RejectedExecutionException("The scheduler is shut down"));
+                return task.result;
+            }
+            if (task.bytes > budget) {
+                rejected++;
+                task.result.completeExceptionally(new RejectedExecutionException("The estimated memory of "
+                    + algorithm + " on " + dimension + " variables, " + task.bytes + " bytes, exceeds the budget of "
+                    + budget + " bytes"));
+                return task.result;
+            }
+            queue.addLast(task);
+            start = admit();
+            if (!start.contains(task)) {
+                if (queue.size() > maxQueued) {
+                    queue.removeLast();
+                    rejected++;
+                    task.result.completeExceptionally(new RejectedExecutionException("The scheduler is full: "
+                        + running + " running and " + maxQueued + " waiting solves"));
+                } else {
+                    queued++;
+                }
+            }
+        }
+        run(start);
+        return task.result;
+    }
+
+    private boolean fits(Task<?> task) {
+        return running < threads && reserved + task.bytes <= budget;
+    }
+
+    //Remove the waiting solves that fit from the queue and reserve their memory
+    private List<Task<?>> admit() {
+        List<Task<?>> start = new ArrayList<Task<?>>();
+        List<Task<?>> bypassed = new ArrayList<Task<?>>();
+        if (shutdown) {
+            return start;
+        }
+        Iterator<Task<?>> waiting = queue.iterator();
+        while (waiting.hasNext() && running < threads) {
+            Task<?> task = waiting.next();
+            if (task.result.isDone()) {
+                //cancelled while waiting
+                waiting.remove();
+            } else if (fits(task)) {
+                waiting.remove();
+                reserved += task.bytes;
+                running++;
+                admitted++;
+                peakReserved = Math.max(peakReserved, reserved);
+                start.add(task);
+                for (Task<?> other : bypassed) {
+                    other.overtakes++;
+                }
+            } else if (task.overtakes >= MAX_OVERTAKES) {
+                //no later solve goes before this one any more
+                break;
+            } else {
+                bypassed.add(task);
+            }
+        }
+        return start;
+    }
+
+    //Start admitted solves on the workers, outside of the lock
+    private void run(List<Task<?>> tasks) {
+        for (Task<?> task : tasks) {
+            try {
+                workers.execute(() -> {
+                    task.call();
+                    //release the memory before the result is seen
+                    List<Task<?>> next;
+                    synchronized (this) {
+                        reserved -= task.bytes;
+                        running--;
+                        next = admit();
+                    }
+                    task.complete();
+                    run(next);
+                });
+            } catch (RejectedExecutionException ex) {
+                //shutdown() ran after the solve was admitted: give its memory back and reject it
+                synchronized (this) {
+                    reserved -= task.bytes;
+                    running--;
+                    rejected++;
+                }
+                task.result.completeExceptionally(new RejectedExecutionException("The scheduler is shut down", ex));
+            }
+        }
+    }
+
+    public synchronized long reservedBytes() {
+        return reserved;
+    }
+
+    public synchronized int running() {
+        return running;
+    }
+
+    public synchronized int waiting() {
+        return queue.size();
+    }
+
+    /**
+     * shutdown method
+     * Reject the waiting solves and the new ones; the running solves complete
+     */
+    public void shutdown() {
+        List<Task<?>> waiting;
+        synchronized (this) {
+            shutdown = true;
+            waiting = new ArrayList<Task<?>>(queue);
+            queue.clear();
+        }
+        for (Task<?> task : waiting) {
+            task.result.completeExceptionally(new RejectedExecutionException("The scheduler is shut down"));
+        }
+        workers.shutdown();
+    }
+}
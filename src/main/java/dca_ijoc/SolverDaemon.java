@@ -0,0 +1,462 @@
+package dca_ijoc;
+
+/*
+ *  A long-running solver that reads instance requests as JSON lines and streams the results back.
+ *
+ * Starting a JVM per solve costs more than the solve of a small instance (startup, class loading and the JIT). The
+ * daemon pays this once: at startup, warmUp() solves synthetic instances of every objective by every algorithm so
+ * that the solvers are compiled, then the daemon serves requests until the end of its input.
+ *
+ * Protocol: one JSON object per line in each direction. A request is
+ *     {"id": "r1", "algorithm": "DCA", "instance": {...}}
+ *     {"id": 2, "algorithm": "FastMDA", "file": "test_instances/f_1600_0.json.gz", "timeoutMs": 500}
+ * where "instance" is an instance in the schema of RAPNCInstanceIO and "file" an instance file of InstanceCache.load
+ * (JSON, gzipped JSON, AMPL .dat or binary .rapnc). The algorithm is one of RAPNC.solve and defaults to DCA. The optional
+ * timeoutMs bounds the time from the receipt of the request to the end of its solve, see Deadline. A response is
+ *     {"id": "r1", "algorithm": "DCA", "status": "SOLVED", "feasible": true, "objective": 1234.5, "sol": [...],
+ *      "parseNanos": 81000, "queueNanos": 2000, "solveNanos": 350000}
+ * where the status is one of ResultTypeRAPNC.Status; a solve past its timeout stops at its next check and has the
+ * status TIMED_OUT and no solution.
+ * or {"id": "r1", "error": "..."} if the request cannot be parsed, is rejected or fails. The requests are parsed by a
+ * pool of workers and solved by a SolveScheduler, which runs a solve once its estimated memory fits in the heap budget
+ * (by default half of the maximum heap). Each response is written as soon as it is ready, so the responses are matched
+ * to the requests by their id; queueNanos includes the wait for memory. At most 2 * threads requests of a stream are
+ * in progress; beyond that, the daemon stops reading.
+ *
+ * Usage:
+ *     java -cp ./ dca_ijoc.App [--threads n] [--warmup rounds] [--port p] [--budget-mb m] [--max-queued q]
+ *         [--file-root dir] [--max-dimension d]
+ * serves System.in and System.out; with --port the daemon instead listens on the loopback interface (port 0 picks a
+ * free port) and serves every connection with the same protocol. With --max-queued, the solves beyond q waiting for
+ * memory are rejected. Diagnostics go to System.err.
+ *
+ * A request is parsed before its solve is admitted, so the parser bounds its memory itself: the dimension of an
+ * instance must not exceed --max-dimension (by default BinaryInstanceFormat.MAX_DIMENSION) nor half of the length of
+ * the request, and the arrays are grown as their entries are read. A request that fails in any way, even with an
+ * OutOfMemoryError, gets an error response.
+ *
+ * Any local user can connect to the loopback port, so with --port the "file" field is rejected unless --file-root
+ * is given. With --file-root, a file is resolved against dir (symbolic links included) and must lie under it, and a
+ * file that cannot be read is reported without the details of the failure.
+ */
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.google.gson.stream.JsonWriter;
+
+public final class SolverDaemon {
+    //objectives and size of the synthetic instances of the warm-up
+    static final String[] WARMUP_TYPES = {"linear", "quadratic", "f", "fuel", "crash"};
+    static final int WARMUP_SIZE = 2000;
+
+    private final ExecutorService workers;
+    private final int threads;
+    //admission control of the solves
+    private final SolveScheduler scheduler;
+    //false if the requests may not read files
+    private volatile boolean filesEnabled = true;
+    //real path of the directory of the files of the requests, null if any file may be read
+    private volatile Path fileRoot;
+    //largest dimension of the instances of the requests
+    private volatile int maxDimension = BinaryInstanceFormat.MAX_DIMENSION;
+
+    //A parsed request
+    static final class Request {
+        //raw JSON of the id, null if absent
+        String id;
+        String algorithm = "DCA";
+        RAPNCTestUtils.RAPNCInstanceData data;
+        String file;
+        //time limit in milliseconds, 0 if none
+        long timeoutMs;
+    }
+
+    /**
+     * SolverDaemon constructor
+     * The solves may use half of the maximum heap and every request waits for memory
+     * @param threads number of workers that parse the requests and of concurrent solves
+     */
+    public SolverDaemon(int threads) {
+        this(threads, Runtime.getRuntime().maxMemory() / 2, Integer.MAX_VALUE);
+    }
+
+    /**
+     * SolverDaemon constructor
+     * @param threads number of workers that parse the requests and of concurrent solves
+     * @param budget the heap budget of the concurrent solves in bytes, see SolveScheduler
+     * @param maxQueued the maximum number of solves that wait for memory, beyond which requests are rejected
+     */
+    public SolverDaemon(int threads, long budget, int maxQueued) {
+        this.threads = threads;
+        this.scheduler = new SolveScheduler(budget, threads, maxQueued);
+        this.workers = Executors.newFixedThreadPool(threads, task -> {
+            Thread worker = new Thread(task, "solver-daemon-worker");
+            worker.setDaemon(true);
+            return worker;
+        });
+    }
+
+    /**
+     * setFileRoot method
+     * Restrict the "file" field of the requests to the files under root, or reject every "file" field if root is null
+     * @param root an existing directory, or null
+     */
+    public void setFileRoot(Path root) throws IOException {
+        fileRoot = root == null ? null : root.toRealPath();
+        filesEnabled = root != null;
+    }
+
+    /**
+     * setMaxDimension method
+     * Reject the requests whose instance has more than maxDimension variables
+     * @param maxDimension the largest accepted dimension
+     */
+    public void setMaxDimension(int maxDimension) {
+        this.maxDimension = maxDimension;
+    }
+
+    /**
+     * warmUp method
+     * Solve synthetic instances of every objective by DCA and FastMDA (and LinearDCA for the linear objective) on the
+     * workers, so that the requests are solved by compiled code
+     * @param rounds number of solves of every instance
+     * @return the time of the warm-up in nanoseconds
+     */
+    public long warmUp(int rounds) throws InterruptedException {
+        long start = System.nanoTime();
+        List<Callable<Object>> solves = new ArrayList<Callable<Object>>();
+        for (int r = 0; r < rounds; r++) {
+            for (int t = 0; t < WARMUP_TYPES.length; t++) {
+                String objFuncType = WARMUP_TYPES[t];
+                long seed = 31L * r + t;
+                for (String algorithm : objFuncType.equals("linear")
+                        ? new String[]{"DCA", "LinearDCA", "FastMDA"} : new String[]{"DCA", "FastMDA"}) {
+                    solves.add(() -> RAPNCTestUtils.generateInstanceData(objFuncType, WARMUP_SIZE, 100,
+                        new Random(seed)).toRAPNC().solve(algorithm));
+                }
+            }
+        }
+        for (Future<Object> solve : workers.invokeAll(solves)) {
+            try {
+                solve.get();
+            } catch (ExecutionException ex) {
+                throw new IllegalStateException("The warm-up failed", ex.getCause());
+            }
+        }
+        return System.nanoTime() - start;
+    }
+
+    /**
+     * serve method
+     * Solve the requests of a stream until its end and write the responses, see the protocol above
+     * @param in the requests, one JSON object per line
+     * @param out the responses, one JSON object per line, which is flushed but not closed
+     */
+    public void serve(InputStream in, OutputStream out) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        int maxPending = 2 * threads;
+        Semaphore pending = new Semaphore(maxPending);
+        AtomicReference<IOException> failure = new AtomicReference<IOException>();
+
+        try {
+            String line;
+            while (failure.get() == null && (line = reader.readLine()) != null) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                pending.acquire();
+                String request = line;
+                long submitted = System.nanoTime();
+                workers.execute(() -> respond(request, submitted, response -> {
+                    try {
+                        synchronized (writer) {
+                            writer.write(response);
+                            writer.write('\n');
+                            writer.flush();
+                        }
+                    } catch (IOException ex) {
+                        failure.compareAndSet(null, ex);
+                    } finally {
+                        pending.release();
+                    }
+                }));
+            }
+            //wait for the responses of the stream
+            pending.acquire(maxPending);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while serving the requests");
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+    }
+
+    /**
+     * listen method
+     * Serve every connection of the server socket on its own thread until the socket is closed
+     * @param server a bound server socket
+     */
+    public void listen(ServerSocket server) throws IOException {
+        while (true) {
+            Socket socket;
+            try {
+                socket = server.accept();
+            } catch (SocketException ex) {
+                if (server.isClosed()) {
+                    return;
+                }
+                throw ex;
+            }
+            Thread connection = new Thread(() -> {
+                try (Socket client = socket) {
+                    serve(client.getInputStream(), client.getOutputStream());
+                } catch (IOException ex) {
+                    System.err.println("Connection " + socket.getRemoteSocketAddress() + " failed: " + ex);
+                }
+            }, "solver-daemon-" + socket.getPort());
+            connection.setDaemon(true);
+            connection.start();
+        }
+    }
+
+    public void shutdown() {
+        workers.shutdown();
+        scheduler.shutdown();
+    }
+
+    //Parse a request and submit its solve to the scheduler, then pass the response to reply
+    private void respond(String line, long submitted, Consumer<String> reply) {
+        long start = System.nanoTime();
+        Request request = new Request();
+        boolean solving = false;
+        Throwable failure = null;
+        try {
+            //every entry of an array takes at least two characters, a digit and a separator
+            parseRequest(line, request, Math.min(maxDimension, line.length() / 2));
+            RAPNCTestUtils.RAPNCInstanceData data = request.data != null ? request.data : load(request.file);
+            RAPNC instance = data.toRAPNC();
+            if (request.timeoutMs > 0) {
+                //the time limit starts at the receipt of the request
+                instance.setDeadline(Deadline.after(TimeUnit.MILLISECONDS.toNanos(request.timeoutMs)
+                    - (System.nanoTime() - submitted), TimeUnit.NANOSECONDS));
+            }
+            long parseNanos = System.nanoTime() - start;
+            scheduler.submit(request.algorithm, data.dimension, () -> {
+                long solveStart = System.nanoTime();
+                ResultTypeRAPNC res = instance.solve(request.algorithm);
+                long solveNanos = System.nanoTime() - solveStart;
+                return response(request, instance, res, parseNanos, solveStart - submitted - parseNanos, solveNanos);
+            }).whenComplete((response, ex) -> reply.accept(ex == null ? response : error(request.id, ex)));
+            solving = true;
+        } catch (Throwable ex) {
+            //an OutOfMemoryError too, which leaves the parsed arrays unreachable
+            failure = ex;
+        } finally {
+            if (!solving) {
+                //the response releases the permit of the request, see serve
+                reply.accept(error(request.id, failure));
+            }
+        }
+    }
+
+    //Load the file of a request, see setFileRoot
+    private RAPNCTestUtils.RAPNCInstanceData load(String file) throws IOException {
+        if (!filesEnabled) {
+            throw new IOException("Files are disabled, see --file-root");
+        }
+        RAPNCTestUtils.RAPNCInstanceData data = loadUnder(fileRoot, file);
+        if (data.dimension > maxDimension) {
+            throw new IOException("The dimension " + data.dimension + " exceeds the maximum of " + maxDimension);
+        }
+        return data;
+    }
+
+    private static RAPNCTestUtils.RAPNCInstanceData loadUnder(Path root, String file) throws IOException {
+        if (root == null) {
+            return InstanceCache.load(file);
+        }
+        Path path;
+        try {
+            path = root.resolve(file).toRealPath();
+        } catch (IOException | InvalidPathException ex) {
+            throw new IOException("No such file under the file root");
+        }
+        if (!path.startsWith(root)) {
+            throw new IOException("No such file under the file root");
+        }
+        try {
+            return InstanceCache.load(path.toString());
+        } catch (IOException | RuntimeException ex) {
+            System.err.println("Cannot read " + path + ": " + ex);
+            throw new IOException("Cannot read the instance file");
+        }
+    }
+
+    //The response of a solved request
+    private static String response(Request request, RAPNC instance, ResultTypeRAPNC res, long parseNanos,
+            long queueNanos, long solveNanos) throws IOException {
+        StringWriter response = new StringWriter();
+        JsonWriter json = new JsonWriter(response);
+        json.beginObject();
+        writeId(json, request.id);
+        json.name("algorithm").value(request.algorithm);
+        json.name("status").value(res.status.name());
+        json.name("feasible").value(res.feasible);
+        if (res.feasible) {
+            double objective = 0;
+            for (int i = 0; i < instance.dimension; i++) {
+                objective += instance.obj.get(i).getValue(res.sol[i]);
+            }
+            json.name("objective").value(objective);
+            RAPNCInstanceIO.writeLongArray(json.name("sol"), res.sol);
+        }
+        json.name("parseNanos").value(parseNanos);
+        json.name("queueNanos").value(queueNanos);
+        json.name("solveNanos").value(solveNanos);
+        json.endObject();
+        json.flush();
+        return response.toString();
+    }
+
+    //The response of a request that cannot be parsed, is rejected or fails, with the id if it is known
+    private static String error(String id, Throwable ex) {
+        StringWriter response = new StringWriter();
+        try {
+            JsonWriter json = new JsonWriter(response);
+            json.beginObject();
+            writeId(json, id);
+            json.name("error").value(String.valueOf(ex.getMessage()));
+            json.endObject();
+            json.flush();
+        } catch (IOException impossible) {
+            //a StringWriter does not throw
+            throw new UncheckedIOException(impossible);
+        }
+        return response.toString();
+    }
+
+    private static void writeId(JsonWriter json, String id) throws IOException {
+        if (id != null) {
+            json.name("id").jsonValue(id);
+        }
+    }
+
+    /**
+     * parseRequest method
+     * Parse a request line into request, see the protocol above
+     * @param maxDimension the largest accepted dimension of the instance
+     */
+    static void parseRequest(String line, Request request, int maxDimension) throws IOException {
+        JsonReader json = new JsonReader(new StringReader(line));
+        json.beginObject();
+        while (json.hasNext()) {
+            String name = json.nextName();
+            switch (name) {
+                case "id":
+                    JsonToken token = json.peek();
+                    if (token == JsonToken.STRING) {
+                        StringWriter id = new StringWriter();
+                        new JsonWriter(id).value(json.nextString()).flush();
+                        request.id = id.toString();
+                    } else if (token == JsonToken.NUMBER) {
+                        request.id = json.nextString();
+                    } else {
+                        throw new IOException("The id must be a string or a number");
+                    }
+                    break;
+                case "algorithm":
+                    request.algorithm = json.nextString();
+                    break;
+                case "instance":
+                    request.data = RAPNCInstanceIO.readInstance(json, maxDimension);
+                    break;
+                case "file":
+                    request.file = json.nextString();
+                    break;
+                case "timeoutMs":
+                    request.timeoutMs = json.nextLong();
+                    break;
+                default:
+                    json.skipValue();
+            }
+        }
+        json.endObject();
+        if ((request.data == null) == (request.file == null)) {
+            throw new IOException("A request needs exactly one of instance and file");
+        }
+    }
+
+    /**
+     * main method
+     * Run the daemon, see the usage above
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int threads = Runtime.getRuntime().availableProcessors();
+        int rounds = 3;
+        int port = -1;
+        long budget = Runtime.getRuntime().maxMemory() / 2;
+        int maxQueued = Integer.MAX_VALUE;
+        String fileRoot = null;
+        int maxDimension = BinaryInstanceFormat.MAX_DIMENSION;
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--threads":
+                    threads = Integer.parseInt(args[++i]);
+                    break;
+                case "--warmup":
+                    rounds = Integer.parseInt(args[++i]);
+                    break;
+                case "--port":
+                    port = Integer.parseInt(args[++i]);
+                    break;
+                case "--budget-mb":
+                    budget = Long.parseLong(args[++i]) << 20;
+                    break;
+                case "--max-queued":
+                    maxQueued = Integer.parseInt(args[++i]);
+                    break;
+                case "--file-root":
+                    fileRoot = args[++i];
+                    break;
+                case "--max-dimension":
+                    maxDimension = Integer.parseInt(args[++i]);
+                    break;
+                default:
+                    System.err.println("Usage: SolverDaemon [--threads n] [--warmup rounds] [--port p] [--budget-mb m]"
+                        + " [--max-queued q] [--file-root dir] [--max-dimension d]");
+                    System.err.println("With --port, requests may read files only under --file-root.");
+                    System.exit(2);
+            }
+        }
+
+        SolverDaemon daemon = new SolverDaemon(threads, budget, maxQueued);
+        daemon.setMaxDimension(maxDimension);
+        if (fileRoot != null || port >= 0) {
+            daemon.setFileRoot(fileRoot == null ? null : Paths.get(fileRoot));
+        }
+        long nanos = daemon.warmUp(rounds);
+        System.err.printf("Warm-up: %d ms, %d workers%n", nanos / 1000000, threads);
+        if (port < 0) {
+            daemon.serve(System.in, System.out);
+            daemon.shutdown();
+            return;
+        }
+        try (ServerSocket server = new ServerSocket(port, 50, InetAddress.getLoopbackAddress())) {
+            System.err.println("Listening on " + server.getLocalSocketAddress());
+            daemon.listen(server);
+        }
+    }
+}
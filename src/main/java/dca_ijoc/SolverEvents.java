@@ -0,0 +1,134 @@
+package dca_ijoc;
+
+/*
+ *  Java Flight Recorder events of the DRAP-NC solvers.
+ *
+ * All events are disabled by default, so a solve only creates a short-lived event object per RAP call, split or
+ * merge, which the JIT removes when the event is disabled. To capture them from a running JVM, enable the events
+ * in a JFR settings file (e.g. <event name="dca_ijoc.RAPSolve"><setting name="enabled">true</setting></event>)
+ * and start a recording with jcmd <pid> JFR.start settings=<file>. jdk.jfr requires JDK 8u262 or later.
+ *
+ *     DCASplit: a split of DCA with the split index, violation and segment size
+ *     RAPSolve: a RAP subproblem with its dimension, budget, algorithm and duration
+ *     MDAMerge: the conquer step of a node [v, w] of FastMDA with its duration
+ */
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+public final class SolverEvents {
+    private SolverEvents() {
+    }
+
+    /**
+     * register method
+     * Register the events so that they can be configured before the first solve
+     */
+    public static void register() {
+        FlightRecorder.register(DCASplit.class);
+        FlightRecorder.register(RAPSolve.class);
+        FlightRecorder.register(MDAMerge.class);
+    }
+
+    //Commit a RAPSolve event that was started by begin()
+    static void commitRAPSolve(RAPSolve event, int dimension, long budget, String algorithm, boolean feasible) {
+        if (event.shouldCommit()) {
+            event.dimension = dimension;
+            event.budget = budget;
+            event.algorithm = algorithm;
+            event.feasible = feasible;
+            event.commit();
+        }
+    }
+
+    //Commit a DCASplit event
+    static void commitDCASplit(int index, int segmentStart, int segmentSize, int depth, long violation, boolean excess) {
+        DCASplit event = new DCASplit();
+        if (event.isEnabled()) {
+            event.index = index;
+            event.segmentStart = segmentStart;
+            event.segmentSize = segmentSize;
+            event.depth = depth;
+            event.violation = violation;
+            event.excess = excess;
+            event.commit();
+        }
+    }
+
+    //Commit an MDAMerge event that was started by begin()
+    static void commitMDAMerge(MDAMerge event, int v, int w) {
+        if (event.shouldCommit()) {
+            event.v = v;
+            event.w = w;
+            event.commit();
+        }
+    }
+
+    @Name("dca_ijoc.DCASplit")
+    @Label("DCA Split")
+    @Category({"DRAP-NC", "DCA"})
+    @Description("DCA fixes the nested constraint with maximum violation and divides the segment")
+    @Enabled(false)
+    @StackTrace(false)
+    static class DCASplit extends Event {
+        @Label("Split Index")
+        @Description("Index of the tightened nested constraint in the original instance")
+        int index;
+
+        @Label("Segment Start")
+        int segmentStart;
+
+        @Label("Segment Size")
+        int segmentSize;
+
+        @Label("Depth")
+        int depth;
+
+        @Label("Violation")
+        long violation;
+
+        @Label("Excess")
+        @Description("True if the upper nested bound is violated, false if the lower one is violated")
+        boolean excess;
+    }
+
+    @Name("dca_ijoc.RAPSolve")
+    @Label("RAP Solve")
+    @Category({"DRAP-NC", "RAP"})
+    @Description("A DRAP subproblem solved by DCA or MDA")
+    @Enabled(false)
+    @StackTrace(false)
+    static class RAPSolve extends Event {
+        @Label("Dimension")
+        int dimension;
+
+        @Label("Budget")
+        long budget;
+
+        @Label("Algorithm")
+        String algorithm;
+
+        @Label("Feasible")
+        boolean feasible;
+    }
+
+    @Name("dca_ijoc.MDAMerge")
+    @Label("MDA Merge")
+    @Category({"DRAP-NC", "MDA"})
+    @Description("The conquer step of a node of FastMDA, including its RAP subproblems")
+    @Enabled(false)
+    @StackTrace(false)
+    static class MDAMerge extends Event {
+        @Label("Start Index")
+        int v;
+
+        @Label("End Index")
+        int w;
+    }
+}
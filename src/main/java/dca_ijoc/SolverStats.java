@@ -0,0 +1,226 @@
+package dca_ijoc;
+
+/*
+ *  A class for collecting statistics of a single solve of DRAP-NC (DCA or MDA).
+ *
+ * An instance of SolverStats is attached to a RAPNC by setStats() and shared by all subproblems created during the
+ * solve. When no SolverStats is attached, the solvers only pay for a null check at each RAP call, split and merge.
+ * The counters are plain fields, so a SolverStats must not be shared by concurrent solves.
+ *
+ * Recorded data:
+ *     RAP calls and a histogram of their dimension (bucket k counts dimensions in [2^k, 2^(k+1)))
+ *     oracle evaluations (calls of Function.getValue in the greedy algorithm) and heap operations
+ *     DCA splits, their depth and balance (size of the smaller part over the size of the segment)
+ *     MDA merges
+ *     time spent in each phase and bytes allocated by the solving thread
+ *     diagnostic messages of the solvers
+ */
+
+import java.lang.management.ManagementFactory;
+import java.util.*;
+
+public class SolverStats {
+    //maximum number of diagnostic messages that are kept
+    static final int MAX_MESSAGES = 100;
+
+    String algorithm;
+    int dimension;
+
+    //RAP subproblems
+    long rapCalls;
+    long[] rapSizeHistogram;
+    long oracleEvaluations;
+    long heapOperations;
+
+    //DCA recursion
+    long dcaSplits;
+    int dcaMaxDepth;
+    long dcaDepthSum;
+    double dcaBalanceSum;
+
+    //MDA recursion
+    long mdaMerges;
+
+    //time per phase in nanoseconds
+    long totalNanos;
+    long rapNanos;
+    long scanNanos;
+    long divideNanos;
+    long mergeNanos;
+
+    //bytes allocated by the solving thread, -1 if the JVM does not support it
+    long bytesAllocated;
+
+    long messageCount;
+    List<String> messages;
+
+    private long startNanos;
+    private long startBytes;
+
+    public SolverStats() {
+        this.rapSizeHistogram = new long[64];
+        this.messages = new ArrayList<String>();
+        this.bytesAllocated = -1;
+    }
+
+    /**
+     * begin method
+     * Called by the solver when the solve of the whole instance starts
+     * @param algorithm name of the algorithm
+     * @param dimension dimension of the instance
+     */
+    public void begin(String algorithm, int dimension) {
+        this.algorithm = algorithm;
+        this.dimension = dimension;
+        this.startBytes = threadAllocatedBytes();
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * end method
+     * Called by the solver when the solve of the whole instance ends
+     */
+    public void end() {
+        this.totalNanos += System.nanoTime() - startNanos;
+        long endBytes = threadAllocatedBytes();
+        if (startBytes >= 0 && endBytes >= 0) {
+            this.bytesAllocated = Math.max(this.bytesAllocated, 0) + endBytes - startBytes;
+        }
+    }
+
+    /**
+     * recordRAP method
+     * Record a RAP subproblem
+     * @param size dimension of the RAP
+     * @param nanos time spent in solving the RAP
+     */
+    public void recordRAP(int size, long nanos) {
+        this.rapCalls++;
+        this.rapSizeHistogram[63 - Long.numberOfLeadingZeros(Math.max(size, 1))]++;
+        this.rapNanos += nanos;
+    }
+
+    /**
+     * recordGreedy method
+     * Record the work of one call of the greedy algorithm
+     * @param oracleEvaluations number of calls of Function.getValue
+     * @param heapOperations number of insertions and deletions in the heap
+     */
+    public void recordGreedy(long oracleEvaluations, long heapOperations) {
+        this.oracleEvaluations += oracleEvaluations;
+        this.heapOperations += heapOperations;
+    }
+
+    /**
+     * recordSplit method
+     * Record a split of DCA
+     * @param depth depth of the divided segment in the recursion tree (the root has depth 0)
+     * @param leftSize dimension of the left subproblem
+     * @param rightSize dimension of the right subproblem
+     * @param scanNanos time spent in finding the maximum violation
+     * @param divideNanos time spent in creating the two subproblems
+     */
+    public void recordSplit(int depth, int leftSize, int rightSize, long scanNanos, long divideNanos) {
+        this.dcaSplits++;
+        this.dcaMaxDepth = Math.max(this.dcaMaxDepth, depth);
+        this.dcaDepthSum += depth;
+        this.dcaBalanceSum += ((double) Math.min(leftSize, rightSize)) / (leftSize + rightSize);
+        this.scanNanos += scanNanos;
+        this.divideNanos += divideNanos;
+    }
+
+    /**
+     * recordScan method
+     * Record a search of the maximum violation that does not lead to a split
+     * @param scanNanos time spent in finding the maximum violation
+     */
+    public void recordScan(long scanNanos) {
+        this.scanNanos += scanNanos;
+    }
+
+    /**
+     * recordMerge method
+     * Record the conquer step of a node of MDA
+     * @param nanos time spent in the conquer step, including the RAP subproblems
+     */
+    public void recordMerge(long nanos) {
+        this.mdaMerges++;
+        this.mergeNanos += nanos;
+    }
+
+    /**
+     * message method
+     * Record a diagnostic message of the solver. Only the first MAX_MESSAGES messages are kept.
+     * @param message the message
+     */
+    public void message(String message) {
+        this.messageCount++;
+        if (messages.size() < MAX_MESSAGES) {
+            messages.add(message);
+        }
+    }
+
+    /**
+     * averageSplitBalance method
+     * @return the average balance of the DCA splits in [0, 0.5], 0 if there is no split
+     */
+    public double averageSplitBalance() {
+        return dcaSplits == 0 ? 0 : dcaBalanceSum / dcaSplits;
+    }
+
+    /**
+     * averageSplitDepth method
+     * @return the average depth of the DCA splits, 0 if there is no split
+     */
+    public double averageSplitDepth() {
+        return dcaSplits == 0 ? 0 : ((double) dcaDepthSum) / dcaSplits;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(algorithm).append(" n=").append(dimension);
+        sb.append(" time=").append(totalNanos / 1000000.0).append("ms");
+        sb.append(" rap=").append(rapNanos / 1000000.0).append("ms");
+        sb.append(" scan=").append(scanNanos / 1000000.0).append("ms");
+        sb.append(" divide=").append(divideNanos / 1000000.0).append("ms");
+        sb.append(" merge=").append(mergeNanos / 1000000.0).append("ms");
+        sb.append(" rapCalls=").append(rapCalls);
+        sb.append(" oracle=").append(oracleEvaluations);
+        sb.append(" heap=").append(heapOperations);
+        sb.append(" splits=").append(dcaSplits);
+        sb.append(" maxDepth=").append(dcaMaxDepth);
+        sb.append(" balance=").append(averageSplitBalance());
+        sb.append(" merges=").append(mdaMerges);
+        sb.append(" bytes=").append(bytesAllocated);
+        sb.append(" messages=").append(messageCount);
+        sb.append(" rapSizes={");
+        boolean first = true;
+        for (int k = 0; k < rapSizeHistogram.length; k++) {
+            if (rapSizeHistogram[k] > 0) {
+                if (!first) {
+                    sb.append(", ");
+                }
+                sb.append(1L << k).append(':').append(rapSizeHistogram[k]);
+                first = false;
+            }
+        }
+        sb.append('}');
+        return sb.toString();
+    }
+
+    /**
+     * threadAllocatedBytes method
+     * @return bytes allocated by the current thread so far, -1 if the JVM does not support it
+     */
+    static long threadAllocatedBytes() {
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean) {
+            com.sun.management.ThreadMXBean sunBean = (com.sun.management.ThreadMXBean) bean;
+            if (sunBean.isThreadAllocatedMemorySupported() && sunBean.isThreadAllocatedMemoryEnabled()) {
+                return sunBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+            }
+        }
+        return -1;
+    }
+}
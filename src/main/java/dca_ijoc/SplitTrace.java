@@ -0,0 +1,272 @@
+package dca_ijoc;
+
+/*
+ *  A compact binary trace of the recursion tree of DCA and FastMDA.
+ *
+ * A SplitTrace.Writer attached to a RAPNC by setTrace() records one entry per node of the recursion tree:
+ *     DCA_SPLIT: DCA fixed the nested constraint splitIndex and divided the segment
+ *     DCA_LEAF: the RAP relaxation of the segment satisfied all nested constraints (or the segment has one variable)
+ *     DCA_INFEASIBLE: the RAP relaxation of the segment is infeasible (or its single variable cannot take the
+ *                     budget), so the instance is infeasible
+ *     MDA_MERGE: FastMDA conquered the node [start, start + size - 1] divided at splitIndex
+ * Each entry stores the depth, the segment bounds in the original instance, the split index and direction, the
+ * violation and the time spent in the RAP relaxation (DCA) or in the conquer step (MDA). Entries are written in
+ * the order in which the nodes are solved (pre-order for DCA, post-order for MDA).
+ *
+ * File format (big-endian, as written by DataOutputStream):
+ *     int MAGIC, int VERSION, then ENTRY_BYTES bytes per entry:
+ *     byte kind, int depth, int start, int size, int splitIndex, byte direction, long violation, long nanos
+ *
+ * SplitTrace.Reader replays a trace entry by entry and summarize() aggregates it, e.g. to compare the split behaviour
+ * of two versions without rerunning the experiments:
+ *     java -cp ./ dca_ijoc.SplitTrace trace1.bin trace2.bin
+ */
+
+import java.io.*;
+import java.util.*;
+
+public final class SplitTrace {
+    static final int MAGIC = 0x44434154; // "DCAT"
+    static final int VERSION = 1;
+    static final int ENTRY_BYTES = 34;
+
+    //kinds of entries
+    public static final byte DCA_SPLIT = 0;
+    public static final byte DCA_LEAF = 1;
+    public static final byte MDA_MERGE = 2;
+    public static final byte DCA_INFEASIBLE = 3;
+
+    //split directions
+    public static final byte SHORTAGE = 0;
+    public static final byte EXCESS = 1;
+    public static final byte NONE = -1;
+
+    private SplitTrace() {
+    }
+
+    /*
+    * An entry of the trace, i.e. a node of the recursion tree
+    */
+    public static final class Entry {
+        byte kind;
+        int depth;
+        int start;
+        int size;
+        int splitIndex;
+        byte direction;
+        long violation;
+        long nanos;
+
+        public Entry(byte kind, int depth, int start, int size, int splitIndex, byte direction, long violation, long nanos) {
+            this.kind = kind;
+            this.depth = depth;
+            this.start = start;
+            this.size = size;
+            this.splitIndex = splitIndex;
+            this.direction = direction;
+            this.violation = violation;
+            this.nanos = nanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("kind=%d depth=%d start=%d size=%d split=%d direction=%d violation=%d nanos=%d",
+                kind, depth, start, size, splitIndex, direction, violation, nanos);
+        }
+    }
+
+    /*
+    * A buffered writer of traces. I/O errors are rethrown as UncheckedIOException since the solvers do not declare
+    * checked exceptions. A writer must not be shared by concurrent solves.
+    */
+    public static final class Writer implements Closeable {
+        private final DataOutputStream out;
+        long entries;
+
+        public Writer(String filename) throws IOException {
+            this(new FileOutputStream(filename));
+        }
+
+        public Writer(OutputStream stream) throws IOException {
+            this.out = new DataOutputStream(new BufferedOutputStream(stream, 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+        }
+
+        /**
+         * record method
+         * Append an entry to the trace
+         * Time-Complexity: O(1)
+         */
+        public void record(byte kind, int depth, int start, int size, int splitIndex, byte direction, long violation, long nanos) {
+            try {
+                out.writeByte(kind);
+                out.writeInt(depth);
+                out.writeInt(start);
+                out.writeInt(size);
+                out.writeInt(splitIndex);
+                out.writeByte(direction);
+                out.writeLong(violation);
+                out.writeLong(nanos);
+                entries++;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }
+
+        @Override
+        public void close() throws IOException {
+            out.close();
+        }
+    }
+
+    /*
+    * A streaming reader of traces
+    */
+    public static final class Reader implements Closeable {
+        private final DataInputStream in;
+
+        public Reader(String filename) throws IOException {
+            this(new FileInputStream(filename));
+        }
+
+        public Reader(InputStream stream) throws IOException {
+            this.in = new DataInputStream(new BufferedInputStream(stream, 1 << 16));
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a split trace");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported split trace version " + version);
+            }
+        }
+
+        /**
+         * next method
+         * @return the next entry of the trace, null at the end of the trace
+         */
+        public Entry next() throws IOException {
+            int kind = in.read();
+            if (kind < 0) {
+                return null;
+            }
+            return new Entry((byte) kind, in.readInt(), in.readInt(), in.readInt(), in.readInt(), in.readByte(),
+                in.readLong(), in.readLong());
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+
+    /**
+     * read method
+     * Read all entries of a trace file
+     * @param filename the trace file
+     * @return list of entries in the order they were recorded
+     */
+    public static List<Entry> read(String filename) throws IOException {
+        List<Entry> entries = new ArrayList<Entry>();
+        try (Reader reader = new Reader(filename)) {
+            Entry entry;
+            while ((entry = reader.next()) != null) {
+                entries.add(entry);
+            }
+        }
+        return entries;
+    }
+
+    /*
+    * Aggregated statistics of a trace
+    */
+    public static final class Summary {
+        long splits;
+        long leaves;
+        long infeasibleLeaves;
+        long merges;
+        int maxDepth;
+        //splits that peel off a single variable, the source of the quadratic behaviour of DCA
+        long peelingSplits;
+        long excessSplits;
+        long totalNanos;
+        //number of splits and time per depth
+        long[] splitsPerDepth = new long[0];
+        long[] nanosPerDepth = new long[0];
+
+        void add(Entry entry) {
+            if (entry.depth >= splitsPerDepth.length) {
+                splitsPerDepth = Arrays.copyOf(splitsPerDepth, Math.max(entry.depth + 1, 2 * splitsPerDepth.length));
+                nanosPerDepth = Arrays.copyOf(nanosPerDepth, splitsPerDepth.length);
+            }
+            maxDepth = Math.max(maxDepth, entry.depth);
+            totalNanos += entry.nanos;
+            nanosPerDepth[entry.depth] += entry.nanos;
+            if (entry.kind == DCA_SPLIT) {
+                splits++;
+                splitsPerDepth[entry.depth]++;
+                int leftSize = entry.splitIndex - entry.start + 1;
+                if (leftSize == 1 || entry.size - leftSize == 1) {
+                    peelingSplits++;
+                }
+                if (entry.direction == EXCESS) {
+                    excessSplits++;
+                }
+            } else if (entry.kind == DCA_LEAF) {
+                leaves++;
+            } else if (entry.kind == DCA_INFEASIBLE) {
+                infeasibleLeaves++;
+            } else {
+                merges++;
+            }
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append("splits=").append(splits);
+            sb.append(" leaves=").append(leaves);
+            sb.append(" infeasibleLeaves=").append(infeasibleLeaves);
+            sb.append(" merges=").append(merges);
+            sb.append(" maxDepth=").append(maxDepth);
+            sb.append(" peelingSplits=").append(peelingSplits);
+            sb.append(" excessSplits=").append(excessSplits);
+            sb.append(" time=").append(totalNanos / 1000000.0).append("ms");
+            sb.append(System.lineSeparator()).append("depth splits time(ms)");
+            for (int d = 0; d <= maxDepth && d < splitsPerDepth.length; d++) {
+                sb.append(System.lineSeparator()).append(d).append(' ').append(splitsPerDepth[d]).append(' ')
+                    .append(nanosPerDepth[d] / 1000000.0);
+            }
+            return sb.toString();
+        }
+    }
+
+    /**
+     * summarize method
+     * Aggregate a trace file without loading it into memory
+     * @param filename the trace file
+     * @return the summary of the trace
+     */
+    public static Summary summarize(String filename) throws IOException {
+        Summary summary = new Summary();
+        try (Reader reader = new Reader(filename)) {
+            Entry entry;
+            while ((entry = reader.next()) != null) {
+                summary.add(entry);
+            }
+        }
+        return summary;
+    }
+
+    /**
+     * main method
+     * Print the summary of each trace file given as argument
+     */
+    public static void main(String[] args) throws IOException {
+        for (String filename : args) {
+            System.out.println(filename);
+            System.out.println(summarize(filename));
+            System.out.println();
+        }
+    }
+}
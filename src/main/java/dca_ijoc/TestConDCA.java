@@ -9,6 +9,7 @@
 
 package dca_ijoc;
 import java.util.*;
+import java.util.concurrent.*;
 
 import java.io.*;
 import java.lang.reflect.Type;
@@ -30,53 +31,88 @@ public class TestConDCA {
      * @param varBounds    the upperbounds of capacity
      * @param sizes        sizes of the instances
      * @param Random generator so that we can control the random instance
+     * @param gzip        if true, the instance files are gzipped (*.json.gz)
      * @return a collection of instance of RAPNC data
      */
-    public static void genTestCollectionToFiles(String[] objFuncTypes, int[] varBounds, int[] sizes, int rep, String folderpath, Random generator) {
-        for (String objFuncType : objFuncTypes) {
-            for (int varBound : varBounds) {
-                Map<Integer, ArrayList<String>> testCollectionMap = new HashMap<>();
-                for (int size : sizes) {
-                    // write files
-                    ArrayList<String> filelocations = new ArrayList<>();
-                    String filepath = folderpath
-                            + String.format("/Instance%s/VB=%d/n=%d/", objFuncType, varBound, size);
-                    new File(filepath).mkdirs();
-                    for (int i = 0; i < rep; i++) {
-                        RAPNCTestUtils.RAPNCInstanceData data = RAPNCTestUtils.generateInstanceData(objFuncType, size, varBound, generator);
-                        String filename = genDataFileName(objFuncType, varBound, size, i);
+    public static void genTestCollectionToFiles(String[] objFuncTypes, int[] varBounds, int[] sizes, int rep, String folderpath, Random generator, boolean gzip) {
+        // The instances are generated in order by the calling thread so that they only depend on the generator,
+        // and written by a pool of threads. At most 2 * threads instances wait in memory to be written.
+        int threads = Runtime.getRuntime().availableProcessors();
+        ExecutorService writers = Executors.newFixedThreadPool(threads);
+        Semaphore pending = new Semaphore(2 * threads);
+        List<Future<?>> writes = new ArrayList<>();
+        try {
+            for (String objFuncType : objFuncTypes) {
+                for (int varBound : varBounds) {
+                    Map<Integer, ArrayList<String>> testCollectionMap = new HashMap<>();
+                    for (int size : sizes) {
+                        // write files
+                        ArrayList<String> filelocations = new ArrayList<>();
+                        String filepath = folderpath
+                                + String.format("/Instance%s/VB=%d/n=%d/", objFuncType, varBound, size);
+                        new File(filepath).mkdirs();
+                        for (int i = 0; i < rep; i++) {
+                            RAPNCTestUtils.RAPNCInstanceData data = RAPNCTestUtils.generateInstanceData(objFuncType, size, varBound, generator);
+                            String filename = filepath + genDataFileName(objFuncType, varBound, size, i) + (gzip ? ".gz" : "");
+
+                            // Write data to file
+                            pending.acquireUninterruptibly();
+                            writes.add(writers.submit(() -> {
+                                try {
+                                    RAPNCInstanceIO.writeInstance(data, filename);
+                                } catch (IOException ex) {
+                                    throw new UncheckedIOException(ex);
+                                } finally {
+                                    pending.release();
+                                }
+                            }));
+                            filelocations.add(filename);
+                        }
+                        testCollectionMap.put(Integer.valueOf(size), filelocations);
+                    }
 
-                        // Write data to file
-                        data.JSONizeToFile(filepath + filename);
-                        filelocations.add(filepath + filename);
+                    Gson gson = new GsonBuilder().setPrettyPrinting().create();
+                    try {
+                        // create a writer
+                        Writer writer = new FileWriter(
+                                folderpath 
+                                + String.format(
+                                    "/%s",
+                                    genDataCollectionFileName(objFuncType, varBound)
+                                )
+                            );
+
+                        // convert map to JSON File
+                        gson.toJson(testCollectionMap, writer);
+
+                        // close the writer
+                        writer.close();
+
+                    } catch (IOException ex) {
+                        ex.printStackTrace();
                     }
-                    testCollectionMap.put(Integer.valueOf(size), filelocations);
                 }
+            }
 
-                Gson gson = new GsonBuilder().setPrettyPrinting().create();
+            // wait for all files and report the failed ones
+            for (Future<?> write : writes) {
                 try {
-                    // create a writer
-                    Writer writer = new FileWriter(
-                            folderpath 
-                            + String.format(
-                                "/%s",
-                                genDataCollectionFileName(objFuncType, varBound)
-                            )
-                        );
-
-                    // convert map to JSON File
-                    gson.toJson(testCollectionMap, writer);
-
-                    // close the writer
-                    writer.close();
-
-                } catch (IOException ex) {
-                    ex.printStackTrace();
+                    write.get();
+                } catch (ExecutionException ex) {
+                    ex.getCause().printStackTrace();
                 }
             }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            writers.shutdown();
         }
     }
 
+    public static void genTestCollectionToFiles(String[] objFuncTypes, int[] varBounds, int[] sizes, int rep, String folderpath, Random generator) {
+        genTestCollectionToFiles(objFuncTypes, varBounds, sizes, rep, folderpath, generator, false);
+    }
+
     public static void genTestCollectionToFiles(String[] objFuncTypes, int[] varBounds, int[] sizes, int rep, String folderpath) {
         Random generator = new Random();
         genTestCollectionToFiles(objFuncTypes, varBounds, sizes, rep, folderpath, generator);
@@ -91,9 +127,10 @@ public class TestConDCA {
      * @param size        sizes of the instances
      * @param varBound    the upperbounds of capacity
      * @param time_stamp a unique timestamp that indicates the folder of test instances
-     * @return void, will output the test data in test_logs
+     * @param cache       parsed instances kept between calls, or null to read every file
+     * @return void, will output one JSON record per run in test_logs (see ExperimentRunner)
      */
-    public static void readFilesAndEvaluate(String objFuncType, int varBound, int[] sizes, String time_stamp) {
+    public static void readFilesAndEvaluate(String objFuncType, int varBound, int[] sizes, String time_stamp, InstanceCache cache) {
         Gson gson = new Gson();
         String fileCollectionJSON = String.format("./test_instances/%s/", time_stamp) 
             + genDataCollectionFileName(objFuncType, varBound);
@@ -106,36 +143,22 @@ public class TestConDCA {
                 empMapType
             );
 
-            (new File("test_logs/")).mkdirs();
-            PrintStream o = new PrintStream(
-                new File(
-                    "test_logs/DCA---MDA numerical experiment_" 
-                    + String.format("Time=%s", time_stamp)
-                    + String.format("_ObjType=%s", objFuncType)
-                    + String.format("_varBound=%d.txt", varBound)
-                )
-            );
+            String logfile = "test_logs/DCA---MDA numerical experiment_" 
+                + String.format("Time=%s", time_stamp)
+                + String.format("_ObjType=%s", objFuncType)
+                + String.format("_varBound=%d.jsonl", varBound);
 
-            System.setOut(o);
-
-            System.out.println("Test: Variable bound " + varBound + ":General Convex Function");
-		    System.out.println("Dimension        DCA       FastMDA	      number_subproblem_DCA      number_subproblem_MDA");
-            
+            List<String> instance_json_files = new ArrayList<>();
             for (int size : sizes) {
-                ArrayList<String> instance_json_files = jsonfiles.get(Integer.valueOf(size));
-                for (String instance_json_file : instance_json_files) {
-                    
-                    BufferedReader br = new BufferedReader(new FileReader(instance_json_file));
-                    RAPNCTestUtils.RAPNCInstanceData instance = gson.fromJson(
-                        br, 
-                        RAPNCTestUtils.RAPNCInstanceData.class
-                    );
-
-                    System.out.println(RAPNCTestUtils.compare_DCA_MDA(instance));
-                }
+                instance_json_files.addAll(jsonfiles.get(Integer.valueOf(size)));
+            }
 
-                System.out.println();
+            try (ExperimentRunner runner = new ExperimentRunner(logfile)) {
+                // The next instances are read and parsed while the current one is solved, see PipelinedEvaluator
+                PipelinedEvaluator.evaluate(instance_json_files, runner, cache);
             }
+            System.out.println(logfile);
+            System.out.println(ExperimentRunner.formatSummary(ExperimentRunner.readRecords(logfile)));
 
         } catch (Exception ex) {
             ex.printStackTrace();
@@ -143,6 +166,10 @@ public class TestConDCA {
 
     }
 
+    public static void readFilesAndEvaluate(String objFuncType, int varBound, int[] sizes, String time_stamp) {
+        readFilesAndEvaluate(objFuncType, varBound, sizes, time_stamp, null);
+    }
+
     /**
      * evaluateDCAMDAInMemory method 
      * Evalute the performance of MDA and DCA in Memory without storing test instances. 
@@ -152,30 +179,30 @@ public class TestConDCA {
      * @param sizes        sizes of the instances
      * @param varBound    the upperbounds of capacity
      * @param generator   rand generator so that we can control the random instance
-     * @return void, will output the test data in test_logs
+     * @param warmups     untimed solves of each instance by each algorithm
+     * @param repetitions timed solves of each instance by each algorithm
+     * @return void, will output one JSON record per run in test_logs (see ExperimentRunner)
      */
-    public static void evaluateDCAMDAInMemory(String objFuncType, int varBound, int[] sizes, int rep, Random generator) {
-        try {
-            PrintStream o = new PrintStream(
-                new File(
-                    "test_logs/DCA---MDA numerical experiment_" 
-                    + String.format("Time=%d", System.currentTimeMillis())
-                    + String.format("_ObjType=%s", objFuncType)
-                    + String.format("_varBound=%d.txt", varBound)
-                )
-            );
+    public static void evaluateDCAMDAInMemory(String objFuncType, int varBound, int[] sizes, int rep, Random generator,
+            int warmups, int repetitions) {
+        String logfile = "test_logs/DCA---MDA numerical experiment_" 
+            + String.format("Time=%d", System.currentTimeMillis())
+            + String.format("_ObjType=%s", objFuncType)
+            + String.format("_varBound=%d.jsonl", varBound);
 
-            System.setOut(o);
-
-            System.out.println("Test: Variable bound " + varBound + ":General Convex Function");
-            System.out.println("Dimension        DCA       FastMDA	      number_subproblem_DCA      number_subproblem_MDA");
-            for (int size : sizes) {
-                for (int i = 0; i < rep; i++) {
-                    RAPNCTestUtils.RAPNCInstanceData instance = RAPNCTestUtils.generateInstanceData(objFuncType, size, varBound, generator);
-                    System.out.println(RAPNCTestUtils.compare_DCA_MDA(instance));
+        try {
+            try (ExperimentRunner runner = new ExperimentRunner(logfile, ExperimentRunner.DEFAULT_ALGORITHMS, warmups,
+                    repetitions)) {
+                for (int size : sizes) {
+                    for (int i = 0; i < rep; i++) {
+                        RAPNCTestUtils.RAPNCInstanceData instance = RAPNCTestUtils.generateInstanceData(objFuncType, size, varBound, generator);
+                        runner.run(genDataFileName(objFuncType, varBound, size, i), instance);
+                    }
                 }
-                System.out.println();
             }
+            //the summary is read back from the log, which the runner does not keep in memory
+            System.out.println(logfile);
+            System.out.println(ExperimentRunner.formatSummary(ExperimentRunner.readRecords(logfile)));
         } catch (Exception e) {
             e.printStackTrace();
         }
@@ -189,13 +216,18 @@ public class TestConDCA {
      *                    "quadratic", "f", "fuel", "crash"]
      * @param size        sizes of the instances
      * @param varBound    the upperbounds of capacity
-     * @return void, will output the test data in test_logs
+     * @return void, will output one JSON record per run in test_logs (see ExperimentRunner)
      */
     public static void evaluateDCAMDAInMemory(String objFuncType, int varBound, int[] sizes, int rep) {
         Random generator = new Random();
         evaluateDCAMDAInMemory(objFuncType, varBound, sizes, rep, generator);
     }
 
+    public static void evaluateDCAMDAInMemory(String objFuncType, int varBound, int[] sizes, int rep, Random generator) {
+        evaluateDCAMDAInMemory(objFuncType, varBound, sizes, rep, generator, ExperimentRunner.DEFAULT_WARMUPS,
+            ExperimentRunner.DEFAULT_REPETITIONS);
+    }
+
     /**
      * evaluateCollectionsDCAMDAInMemory method 
      * Evalute the performance of MDA and DCA in Memory without storing test instances for multiple inputs. 
@@ -204,16 +236,24 @@ public class TestConDCA {
      * @param sizes        sizes of the instances
      * @param varBounds    the upperbounds of capacity
      * @param generator   rand generator so that we can control the random instance
-     * @return void, will output the test data in test_logs
+     * @param warmups     untimed solves of each instance by each algorithm
+     * @param repetitions timed solves of each instance by each algorithm
+     * @return void, will output one JSON record per run in test_logs (see ExperimentRunner)
      */
-    public static void evaluateCollectionsDCAMDAInMemory(String[] objFuncTypes, int[] varBounds, int[] sizes, int rep, Random generator) {
+    public static void evaluateCollectionsDCAMDAInMemory(String[] objFuncTypes, int[] varBounds, int[] sizes, int rep,
+            Random generator, int warmups, int repetitions) {
         for (String objFuncType : objFuncTypes) {
             for (int varBound : varBounds) {
-                evaluateDCAMDAInMemory(objFuncType, varBound, sizes, rep, generator);
+                evaluateDCAMDAInMemory(objFuncType, varBound, sizes, rep, generator, warmups, repetitions);
             }
         }
     }
 
+    public static void evaluateCollectionsDCAMDAInMemory(String[] objFuncTypes, int[] varBounds, int[] sizes, int rep, Random generator) {
+        evaluateCollectionsDCAMDAInMemory(objFuncTypes, varBounds, sizes, rep, generator,
+            ExperimentRunner.DEFAULT_WARMUPS, ExperimentRunner.DEFAULT_REPETITIONS);
+    }
+
      /**
      * evaluateCollectionsDCAMDAInMemory method 
      * Evalute the performance of MDA and DCA in Memory without storing test instances for multiple inputs. 
@@ -221,7 +261,7 @@ public class TestConDCA {
      *                    "quadratic", "f", "fuel", "crash"]
      * @param varBounds    the upperbounds of capacity
      * @param sizes        sizes of the instances
-     * @return void, will output the test data in test_logs
+     * @return void, will output one JSON record per run in test_logs (see ExperimentRunner)
      */
     public static void evaluateCollectionsDCAMDAInMemory(String[] objFuncTypes, int[] varBounds, int[] sizes, int rep) {
         Random generator = new Random();
@@ -238,7 +278,7 @@ public class TestConDCA {
      *                    "quadratic", "f", "fuel", "crash"]
      * @param sizes        sizes of the instances
      * @param varBounds    the upperbounds of capacity
-     * @return void, will output the test data in test_logs
+     * @return void, will output one JSON record per run in test_logs (see ExperimentRunner)
      */
     public static void ExperimentInPaper() {
         int[] sizes = new int[]{800, 1600, 3200, 6400, 12800, 25600, 51200, 51200<<1, 51200<<2, 51200<<3, 51200<<4, 51200<<5, 51200<<6, 51200<<7};
@@ -246,9 +286,10 @@ public class TestConDCA {
         int[] varBounds = new int[]{100};
         int rep = 10;
 
-        evaluateCollectionsDCAMDAInMemory(new String[]{"f",}, varBounds, sizes, rep, new Random(ExperimentInPaperSeed_F));
-        evaluateCollectionsDCAMDAInMemory(new String[]{"fuel",}, varBounds, sizes, rep, new Random(ExperimentInPaperSeed_FUEL));
-        evaluateCollectionsDCAMDAInMemory(new String[]{"crash",}, varBounds, sizes, rep, new Random(ExperimentInPaperSeed_CRASH));
+        // As in the paper, every instance is solved once by each algorithm, without warm-up
+        evaluateCollectionsDCAMDAInMemory(new String[]{"f",}, varBounds, sizes, rep, new Random(ExperimentInPaperSeed_F), 0, 1);
+        evaluateCollectionsDCAMDAInMemory(new String[]{"fuel",}, varBounds, sizes, rep, new Random(ExperimentInPaperSeed_FUEL), 0, 1);
+        evaluateCollectionsDCAMDAInMemory(new String[]{"crash",}, varBounds, sizes, rep, new Random(ExperimentInPaperSeed_CRASH), 0, 1);
 
         return;
     }
@@ -0,0 +1,68 @@
+package dca_ijoc;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit test for AMPLDataWriter.
+ */
+class AMPLDataWriterTest {
+
+    //The data file as written with String.format
+    private static String format(RAPNCTestUtils.RAPNCInstanceData data, double optimalValue) {
+        String nl = System.lineSeparator();
+        StringBuilder expected = new StringBuilder();
+        expected.append(String.format(Locale.ROOT, "# Optimal value by DCA: %f", optimalValue)).append(nl);
+        expected.append("data;").append(nl).append(nl);
+        expected.append(String.format("param N = %d;", data.dimension)).append(nl);
+        String[] names = new String[]{"capacity", "nested_lowerbound", "nested_upperbound"};
+        long[][] columns = new long[][]{data.capacity, data.lbNested, data.ubNested};
+        for (int k = 0; k < 3; k++) {
+            expected.append("param " + names[k] + " := ").append(nl);
+            for (int i = 0; i < data.dimension; i++) {
+                expected.append(String.format("%d %d", i + 1, columns[k][i])).append(nl);
+            }
+            expected.append(";").append(nl);
+        }
+        double[][] costs = new double[][]{data.cost_param_a, data.cost_param_b};
+        for (int k = 0; k < 2; k++) {
+            expected.append("param cost_" + (k == 0 ? "a" : "b") + " := ").append(nl);
+            for (int i = 0; i < data.dimension; i++) {
+                expected.append(String.format(Locale.ROOT, "%d %f", i + 1, costs[k][i])).append(nl);
+            }
+            expected.append(";").append(nl);
+        }
+        return expected.toString();
+    }
+
+    @Test
+    void testSameAsStringFormat() throws IOException {
+        RAPNCTestUtils.RAPNCInstanceData data = RAPNCTestUtils.generateInstanceData("Con_FUEL", 3000, 100, new Random(25));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AMPLDataWriter.write(data, out, instance -> -1234.5678905, Runnable::run);
+        assertEquals(format(data, -1234.5678905), out.toString("US-ASCII"));
+    }
+
+    @Test
+    void testReadBack() throws IOException {
+        RAPNCTestUtils.RAPNCInstanceData data = RAPNCTestUtils.generateInstanceData("Con_CRASH", 500, 100, new Random(26));
+        double optimalValue = AMPLDataWriter.DCA.optimalValue(data);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        AMPLDataWriter.write(data, out, AMPLDataWriter.DCA, java.util.concurrent.ForkJoinPool.commonPool());
+
+        AMPLInstanceReader reader = new AMPLInstanceReader(new ByteArrayInputStream(out.toByteArray()));
+        RAPNCTestUtils.RAPNCInstanceData read = reader.read("Con_CRASH");
+        assertEquals(optimalValue, reader.optimalValue, 1e-6);
+        for (int i = 0; i < data.dimension; i++) {
+            assertEquals(data.lbNested[i], read.lbNested[i]);
+            assertEquals(data.cost_param_b[i], read.cost_param_b[i], 1e-6);
+        }
+    }
+}
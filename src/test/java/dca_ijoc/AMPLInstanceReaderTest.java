@@ -0,0 +1,96 @@
+package dca_ijoc;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for AMPLInstanceReader.
+ */
+class AMPLInstanceReaderTest {
+    static final String AMPL_FILE = "./ampl_instances/datafiles/Con_F/rapnc_ampl_Con_F_n=10.dat";
+
+    @Test
+    void testReadAMPLHeader() throws IOException {
+        AMPLInstanceReader reader = new AMPLInstanceReader(new FileInputStream(AMPL_FILE));
+        RAPNCTestUtils.RAPNCInstanceData data = reader.read("Con_F");
+        assertEquals(10, data.dimension);
+        assertEquals(6024855.085330, reader.optimalValue);
+    }
+
+    @Test
+    void testNonASCIIComment() throws IOException {
+        String file = "# Optimal value by DCA: 5.000000\n# Kosten in \u20ac, Gr\u00f6\u00dfe n = 2\ndata;\n\n"
+            + "param N = 2;\nparam capacity := \n1 3\n2 4\n;\nparam nested_lowerbound := \n1 0\n2 5\n;\n"
+            + "param nested_upperbound := \n1 3\n2 5\n;\nparam cost_a := \n1 1.000000\n2 1.000000\n;\n"
+            + "param cost_b := \n1 0.000000\n2 0.000000\n;\n";
+        AMPLInstanceReader reader = new AMPLInstanceReader(new ByteArrayInputStream(file.getBytes(StandardCharsets.UTF_8)));
+        RAPNCTestUtils.RAPNCInstanceData data = reader.read("quadratic");
+        assertEquals(2, data.dimension);
+        assertEquals(4, data.capacity[1]);
+        assertEquals(5, data.ubNested[1]);
+        assertEquals(5.0, reader.optimalValue);
+    }
+
+    private static IOException readError(String file) {
+        AMPLInstanceReader reader = new AMPLInstanceReader(new ByteArrayInputStream(file.getBytes(StandardCharsets.UTF_8)));
+        return assertThrows(IOException.class, () -> reader.read("quadratic"));
+    }
+
+    @Test
+    void testInvalidAMPL() {
+        String params = "param capacity := \n1 3\n2 4\n;\nparam nested_lowerbound := \n1 0\n2 5\n;\n"
+            + "param nested_upperbound := \n1 3\n2 5\n;\nparam cost_a := \n1 1.000000\n2 1.000000\n;\n"
+            + "param cost_b := \n1 0.000000\n2 0.000000\n;\n";
+        //(int) 4294967298L would be 2
+        String message = readError("data;\nparam N = 4294967298;\n" + params).getMessage();
+        assertTrue(message.contains("4294967298"), message);
+        message = readError("data;\nparam N = 2;\n" + params.replace("2 4\n", "1 4\n")).getMessage();
+        assertTrue(message.contains("repeated") && message.contains("line 5"), message);
+        message = readError("data;\nparam N = 2;\n" + params.replace("2 0.000000", "1 0.000000")).getMessage();
+        assertTrue(message.contains("repeated") && message.contains("cost_b"), message);
+        message = readError("# Optimal value by DCA: n/a\ndata;\nparam N = 2;\n" + params).getMessage();
+        assertTrue(message.contains("line 1") && message.contains("n/a"), message);
+    }
+
+    @Test
+    void testConvertAMPL() throws IOException {
+        File file = File.createTempFile("instance", ".rapnc");
+        file.deleteOnExit();
+        BinaryInstanceFormat.convert(AMPL_FILE, file.getPath());
+        RAPNCTestUtils.RAPNCInstanceData data = BinaryInstanceFormat.read(file.getPath());
+
+        assertEquals("Con_F", data.objFuncType);
+        assertEquals(10, data.dimension);
+        assertEquals(118, data.capacity[0]);
+        assertEquals(56, data.capacity[9]);
+        assertEquals(379, data.lbNested[9]);
+        assertEquals(data.lbNested[9], data.ubNested[9]);
+        assertEquals(0.447334, data.cost_param_b[0]);
+        assertEquals(-0.573342, data.cost_param_b[1]);
+        assertArrayEquals(new long[10], data.lbVar);
+    }
+
+    @Test
+    void testValidateAMPL() throws IOException {
+        AMPLInstanceReader.Validation validation = AMPLInstanceReader.validate(AMPL_FILE);
+        assertEquals(10, validation.dimension);
+        assertEquals(6024855.085330, validation.headerValue);
+        assertTrue(validation.agrees());
+        assertFalse(AMPLInstanceReader.agrees(validation.headerValue, 1.001 * validation.solvedValue));
+        //the rounding of the costs to six decimals changes the values by at most about 1.6e-6 relative
+        assertTrue(AMPLInstanceReader.agrees(1000.0, 1000.0016));
+        assertFalse(AMPLInstanceReader.agrees(1000.0, 1000.005));
+        assertEquals(10, AMPLInstanceReader.readRAPNC(AMPL_FILE).dimension);
+    }
+}
@@ -0,0 +1,42 @@
+package dca_ijoc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for AdversarialInstanceGenerator.
+ */
+class AdversarialInstanceGeneratorTest {
+
+    @Test
+    void testFamiliesAreFeasible() {
+        for (String family : AdversarialInstanceGenerator.FAMILIES) {
+            RAPNCTestUtils.RAPNCInstanceData data = AdversarialInstanceGenerator.generateInstanceData(
+                family, "quadratic", 300, 100, new Random(6));
+            ResultTypeRAPNC dca = data.toFreshRAPNC().solveIntegerDCA();
+            ResultTypeMDA mda = data.toFreshRAPNC().FastMDA();
+            assertTrue(dca.feasible, family);
+            assertArrayEquals(mda.aa, dca.sol, family);
+        }
+    }
+
+    @Test
+    void testPeelingChain() {
+        RAPNCTestUtils.RAPNCInstanceData data = AdversarialInstanceGenerator.peeling("linear", 200, 100, new Random(7));
+        RAPNC instance = data.toFreshRAPNC();
+        SolverStats stats = new SolverStats();
+        instance.setStats(stats);
+        assertTrue(instance.solveIntegerDCA().feasible);
+        // every split peels off one variable
+        assertEquals(199, stats.dcaSplits);
+        assertEquals(198, stats.dcaMaxDepth);
+        assertThrows(IllegalArgumentException.class,
+            () -> AdversarialInstanceGenerator.peeling("f", 200, 100, new Random(7)));
+    }
+}
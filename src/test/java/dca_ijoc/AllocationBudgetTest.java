@@ -0,0 +1,80 @@
+package dca_ijoc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Allocation-budget tests of the DRAP-NC solvers.
+ *
+ * The bytes allocated by the solving thread (ThreadMXBean.getThreadAllocatedBytes) are divided by the dimension
+ * of the instance and compared with a budget per algorithm. The budgets are about 1.5 times the allocation of the
+ * current implementation after warm-up and can be overridden by system properties, e.g. -Dallocation.DCA=8000.
+ * The tests are skipped on JVMs that do not support thread allocation counters.
+ */
+class AllocationBudgetTest {
+    static final int SIZE = 12800;
+    static final String[] OBJ_FUNC_TYPES = new String[]{"f", "crash"};
+
+    //prepares a fresh copy of the instance and returns the solve to be measured
+    interface Solve {
+        Runnable prepare(RAPNCTestUtils.RAPNCInstanceData data);
+    }
+
+    static double budget(String algorithm, double defaultValue) {
+        return Double.parseDouble(System.getProperty("allocation." + algorithm, String.valueOf(defaultValue)));
+    }
+
+    /**
+     * Bytes allocated per variable by one solve after warm-up
+     */
+    static double bytesPerVariable(RAPNCTestUtils.RAPNCInstanceData data, Solve solve) {
+        for (int i = 0; i < 3; i++) {
+            solve.prepare(data).run();
+        }
+        Runnable run = solve.prepare(data);
+        long start = SolverStats.threadAllocatedBytes();
+        run.run();
+        return ((double) (SolverStats.threadAllocatedBytes() - start)) / data.dimension;
+    }
+
+    private static void check(String algorithm, double defaultBudget, Solve solve) {
+        assumeTrue(SolverStats.threadAllocatedBytes() >= 0, "thread allocation counters are not supported");
+        double budget = budget(algorithm, defaultBudget);
+        for (String objFuncType : OBJ_FUNC_TYPES) {
+            RAPNCTestUtils.RAPNCInstanceData data = RAPNCTestUtils.generateInstanceData(
+                objFuncType, SIZE, 100, new Random(11));
+            double bytes = bytesPerVariable(data, solve);
+            System.out.println(algorithm + " " + objFuncType + ": " + bytes + " bytes per variable");
+            assertTrue(bytes <= budget,
+                algorithm + " " + objFuncType + " allocates " + bytes + " bytes per variable, budget " + budget);
+        }
+    }
+
+    @Test
+    void testSolveRAP() {
+        check("RAP", 1400, data -> {
+            RAP rap = data.toFreshRAPNC().createRAP();
+            return () -> rap.solveRAP();
+        });
+    }
+
+    @Test
+    void testDCA() {
+        check("DCA", 10000, data -> {
+            RAPNC instance = data.toFreshRAPNC();
+            return () -> instance.solveIntegerDCA();
+        });
+    }
+
+    @Test
+    void testFastMDA() {
+        check("FastMDA", 28000, data -> {
+            RAPNC instance = data.toFreshRAPNC();
+            return () -> instance.FastMDA();
+        });
+    }
+}
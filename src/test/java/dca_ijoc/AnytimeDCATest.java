@@ -0,0 +1,158 @@
+package dca_ijoc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for AnytimeDCA.
+ */
+class AnytimeDCATest {
+
+    private static void assertFeasible(RAPNC instance, long[] sol) {
+        long sum = 0;
+        for (int i = 0; i < instance.dimension; i++) {
+            assertTrue(sol[i] >= instance.lbVar[i] && sol[i] <= instance.ubVar[i]);
+            sum += sol[i];
+            assertTrue(sum >= instance.lbNested[i] && sum <= instance.ubNested[i]);
+        }
+        assertEquals(instance.ubNested[instance.dimension - 1], sum);
+    }
+
+    private static double value(RAPNC instance, long[] sol) {
+        double value = 0;
+        for (int i = 0; i < instance.dimension; i++) {
+            value += instance.obj.get(i).getValue(sol[i]);
+        }
+        return value;
+    }
+
+    @Test
+    void testOptimal() {
+        for (String objFuncType : new String[]{"linear", "quadratic", "f", "fuel", "crash"}) {
+            RAPNC instance = RAPNCTestUtils.generateInstanceData(objFuncType, 800, 100, new Random(50)).toRAPNC();
+            List<AnytimeDCA.Stage> stages = new ArrayList<AnytimeDCA.Stage>();
+            AnytimeDCA anytime = new AnytimeDCA(instance);
+            anytime.setListener(stages::add);
+            AnytimeDCA.Result res = anytime.solve();
+            double optimal = value(instance, instance.solveIntegerDCA().sol);
+
+            assertEquals(ResultTypeRAPNC.Status.SOLVED, res.status);
+            assertFeasible(instance, res.sol);
+            assertEquals(optimal, value(instance, res.sol), 1e-9 * Math.abs(optimal));
+            assertEquals(res.stages, stages.size());
+            //the first incumbent has no variable where [FUEL] or [CRASH] is infinite
+            assertTrue(stages.get(0).upperBound < Double.POSITIVE_INFINITY, objFuncType);
+            double tolerance = 1e-9 * Math.abs(optimal);
+            for (int i = 0; i < stages.size(); i++) {
+                AnytimeDCA.Stage stage = stages.get(i);
+                assertEquals(i, stage.index);
+                assertTrue(stage.lowerBound <= optimal + tolerance, objFuncType);
+                assertTrue(stage.upperBound >= optimal - tolerance, objFuncType);
+                if (i > 0) {
+                    assertTrue(stage.lowerBound >= stages.get(i - 1).lowerBound - tolerance, objFuncType);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testTargetGap() {
+        RAPNC instance = RAPNCTestUtils.generateInstanceData("crash", 2000, 100, new Random(51)).toRAPNC();
+        AnytimeDCA exact = new AnytimeDCA(instance);
+        int stages = exact.solve().stages;
+
+        AnytimeDCA anytime = new AnytimeDCA(instance);
+        anytime.setTargetGap(1e-3);
+        List<long[]> incumbents = new ArrayList<long[]>();
+        anytime.setListener(stage -> incumbents.add(anytime.incumbent()));
+        AnytimeDCA.Result res = anytime.solve();
+        //the solve stops at the target gap before the segments are solved
+        assertEquals(ResultTypeRAPNC.Status.GAP_REACHED, res.status);
+        assertTrue(res.gap() <= 1e-3 && res.gap() > 0);
+        assertTrue(res.stages < stages);
+        assertFeasible(instance, res.sol);
+        //every stage has a feasible incumbent
+        for (long[] incumbent : incumbents) {
+            assertFeasible(instance, incumbent);
+        }
+        assertArrayEquals(incumbents.get(incumbents.size() - 1), res.sol);
+    }
+
+    @Test
+    void testDeadline() {
+        RAPNC instance = RAPNCTestUtils.generateInstanceData("f", 2000, 100, new Random(52)).toRAPNC();
+        AnytimeDCA expired = new AnytimeDCA(instance);
+        expired.setDeadline(Deadline.after(0, TimeUnit.NANOSECONDS));
+        AnytimeDCA.Result res = expired.solve();
+        assertEquals(ResultTypeRAPNC.Status.TIMED_OUT, res.status);
+        assertNull(res.sol);
+        assertNull(instance.deadline);
+
+        //stop after the third stage
+        Deadline deadline = new Deadline();
+        AnytimeDCA anytime = new AnytimeDCA(instance);
+        anytime.setDeadline(deadline);
+        anytime.setListener(stage -> {
+            if (stage.index == 2) {
+                deadline.cancel();
+            }
+        });
+        res = anytime.solve();
+        assertEquals(ResultTypeRAPNC.Status.CANCELLED, res.status);
+        assertEquals(3, res.stages);
+        assertTrue(res.feasible);
+        assertFeasible(instance, res.sol);
+        assertTrue(res.lowerBound <= value(instance, res.sol) + 1e-9 * Math.abs(res.upperBound));
+    }
+
+    @Test
+    void testInfiniteLower() {
+        //x1 + x2 + x3 = 6 and x1 + x2 >= 4 with x1 = 0: [CRASH] is infinite at x1 = 0 in every solution
+        RAPNC instance = new RAPNC(3);
+        for (int i = 0; i < 3; i++) {
+            instance.obj.add(RAPNCTestUtils.buildObjectFunction(1, 0, "crash"));
+            instance.ubVar[i] = 4;
+            instance.ubNested[i] = 6;
+        }
+        instance.ubVar[0] = 0;
+        instance.lbNested[1] = 4;
+        instance.lbNested[2] = 6;
+        List<AnytimeDCA.Stage> stages = new ArrayList<AnytimeDCA.Stage>();
+        AnytimeDCA anytime = new AnytimeDCA(instance);
+        anytime.setListener(stages::add);
+        AnytimeDCA.Result res = anytime.solve();
+
+        assertEquals(ResultTypeRAPNC.Status.SOLVED, res.status);
+        assertFeasible(instance, res.sol);
+        assertTrue(res.stages > 1);
+        //the infinite lowers of the divided segments are not subtracted from each other
+        for (AnytimeDCA.Stage stage : stages) {
+            assertEquals(Double.POSITIVE_INFINITY, stage.lowerBound);
+        }
+        assertEquals(Double.POSITIVE_INFINITY, res.lowerBound);
+        assertEquals(Double.POSITIVE_INFINITY, res.upperBound);
+    }
+
+    @Test
+    void testRepair() {
+        //x1 + x2 + x3 = 6, x1 <= 1, x1 + x2 >= 5, 0 <= x <= 4
+        RAPNC instance = new RAPNC(3);
+        instance.ubNested[0] = 1;
+        instance.lbNested[1] = 5;
+        instance.ubNested[1] = 6;
+        instance.lbNested[2] = 6;
+        instance.ubNested[2] = 6;
+        Arrays.fill(instance.ubVar, 4);
+        assertArrayEquals(new long[]{1, 4, 1}, AnytimeDCA.repair(instance, new long[]{2, 2, 2}));
+        assertArrayEquals(new long[]{1, 4, 1}, AnytimeDCA.repair(instance, new long[]{0, 0, 6}));
+        instance.ubVar[1] = 3;
+        assertNull(AnytimeDCA.repair(instance, new long[]{2, 2, 2}));
+    }
+}
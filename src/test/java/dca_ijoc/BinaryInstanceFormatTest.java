@@ -0,0 +1,67 @@
+package dca_ijoc;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for BinaryInstanceFormat.
+ */
+class BinaryInstanceFormatTest {
+    static final String AMPL_FILE = "./ampl_instances/datafiles/Con_F/rapnc_ampl_Con_F_n=10.dat";
+
+    private static File tempFile() throws IOException {
+        File file = File.createTempFile("instance", ".rapnc");
+        file.deleteOnExit();
+        return file;
+    }
+
+    @Test
+    void testRoundTrip() throws IOException {
+        RAPNCTestUtils.RAPNCInstanceData data = RAPNCTestUtils.generateInstanceData("fuel", 1000, 100, new Random(15));
+        File file = tempFile();
+        BinaryInstanceFormat.write(data, file.getPath());
+        assertEquals(BinaryInstanceFormat.HEADER_BYTES + 6 * 8 * 1000, file.length());
+
+        BinaryInstanceFormat.MappedInstance mapped = BinaryInstanceFormat.map(file.getPath());
+        assertEquals("fuel", mapped.objFuncType);
+        assertEquals(data.lbNested[999], mapped.lbNested.get(999));
+        RAPNCInstanceIOTest.assertSameInstance(data, BinaryInstanceFormat.read(file.getPath()));
+        //the bytes of the file in memory, after other bytes
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        ByteBuffer buffer = ByteBuffer.allocate(3 + bytes.length);
+        buffer.put(new byte[3]).put(bytes).position(3);
+        RAPNCInstanceIOTest.assertSameInstance(data, BinaryInstanceFormat.read(buffer));
+        assertThrows(IOException.class,
+            () -> BinaryInstanceFormat.read(ByteBuffer.wrap(Arrays.copyOf(bytes, bytes.length - 8))));
+    }
+
+    @Test
+    void testCorruptedFile() throws IOException {
+        RAPNCTestUtils.RAPNCInstanceData data = RAPNCTestUtils.generateInstanceData("f", 10, 100, new Random(16));
+        File file = tempFile();
+        BinaryInstanceFormat.write(data, file.getPath());
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(file.length() - 8);
+        }
+        assertThrows(IOException.class, () -> BinaryInstanceFormat.read(file.getPath()));
+        assertThrows(IOException.class, () -> BinaryInstanceFormat.read(AMPL_FILE));
+    }
+
+    @Test
+    void testMaxDimension() {
+        //every column of the largest dimension fits in one mapping
+        assertTrue(8L * BinaryInstanceFormat.MAX_DIMENSION <= Integer.MAX_VALUE);
+        assertTrue(8L * (BinaryInstanceFormat.MAX_DIMENSION + 1L) > Integer.MAX_VALUE);
+    }
+}
@@ -0,0 +1,111 @@
+package dca_ijoc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for Deadline.
+ */
+class DeadlineTest {
+    private static final String[] ALGORITHMS = {"DCA", "LinearDCA", "FastMDA", "MDA", "LinearMDA"};
+
+    //A function oracle that cancels the token after a number of evaluations
+    private static final class Cancelling extends Function {
+        final Function inner;
+        final Deadline deadline;
+        final long[] evaluations;
+        final long limit;
+
+        Cancelling(Function inner, Deadline deadline, long[] evaluations, long limit) {
+            this.inner = inner;
+            this.deadline = deadline;
+            this.evaluations = evaluations;
+            this.limit = limit;
+        }
+
+        public double getValue(double x) {
+            if (++evaluations[0] == limit) {
+                deadline.cancel();
+            }
+            return inner.getValue(x);
+        }
+    }
+
+    @Test
+    void testExpired() {
+        RAPNCInstance instance = RAPNCTestUtils.generateInstanceData("linear", 2000, 100, new Random(49)).toInstance();
+        for (String algorithm : ALGORITHMS) {
+            ResultTypeRAPNC res = instance.solve(algorithm, Deadline.after(0, TimeUnit.NANOSECONDS));
+            assertEquals(ResultTypeRAPNC.Status.TIMED_OUT, res.status);
+            assertTrue(res.isAborted());
+            assertFalse(res.feasible);
+            assertNull(res.sol);
+        }
+    }
+
+    @Test
+    void testNotExpired() {
+        RAPNCInstance instance = RAPNCTestUtils.generateInstanceData("linear", 800, 100, new Random(49)).toInstance();
+        //MDA and LinearMDA need objectives with penalties, see RAPNC.MDA()
+        for (String algorithm : new String[]{"DCA", "LinearDCA", "FastMDA"}) {
+            ResultTypeRAPNC res = instance.solve(algorithm, Deadline.after(1, TimeUnit.HOURS));
+            assertEquals(ResultTypeRAPNC.Status.SOLVED, res.status);
+            assertArrayEquals(instance.solve(algorithm).sol, res.sol);
+        }
+        ResultTypeRAPNC res = instance.solve("DCA", new Deadline());
+        assertEquals(ResultTypeRAPNC.Status.SOLVED, res.status);
+        assertEquals(Long.MAX_VALUE, new Deadline().remainingNanos());
+    }
+
+    @Test
+    void testCancelDuringGreedy() {
+        int dimension = 4000;
+        for (String algorithm : new String[]{"DCA", "FastMDA"}) {
+            RAPNC solver = RAPNCTestUtils.generateInstanceData("crash", dimension, 100, new Random(49)).toRAPNC();
+            Deadline deadline = new Deadline();
+            long[] evaluations = new long[1];
+            List<Function> obj = new ArrayList<Function>();
+            for (Function function : solver.obj) {
+                obj.add(new Cancelling(function, deadline, evaluations, 5 * dimension));
+            }
+            solver.obj = obj;
+            solver.setDeadline(deadline);
+
+            ResultTypeRAPNC res = solver.solve(algorithm);
+            assertEquals(ResultTypeRAPNC.Status.CANCELLED, res.status);
+            assertTrue(deadline.isCancelled());
+            //the solve stops within the greedy loop of RAP or at its end, not at the end of the current subproblem
+            assertTrue(evaluations[0] - 5 * dimension <= 2 * dimension + 2 * Deadline.CHECK_INTERVAL);
+        }
+    }
+
+    @Test
+    void testCancelScheduledSolve() throws Exception {
+        SolveScheduler scheduler = new SolveScheduler(Long.MAX_VALUE, 1, 4);
+        try {
+            RAPNCInstance instance = RAPNCTestUtils.generateInstanceData("f", 800, 100, new Random(49)).toInstance();
+            CountDownLatch release = new CountDownLatch(1);
+            CompletableFuture<Boolean> blocking = scheduler.submit("DCA", 1, () -> release.await(10, TimeUnit.SECONDS));
+            Deadline deadline = new Deadline();
+            CompletableFuture<ResultTypeRAPNC> result = scheduler.submit(instance, "DCA", deadline);
+            assertEquals(1, scheduler.waiting());
+            result.cancel(true);
+            assertTrue(deadline.isCancelled());
+            release.countDown();
+            blocking.get(10, TimeUnit.SECONDS);
+
+            ResultTypeRAPNC res = scheduler.submit(instance, "FastMDA", new Deadline()).get(10, TimeUnit.SECONDS);
+            assertEquals(ResultTypeRAPNC.Status.SOLVED, res.status);
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+}
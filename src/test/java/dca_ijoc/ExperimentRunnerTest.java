@@ -0,0 +1,85 @@
+package dca_ijoc;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for ExperimentRunner.
+ */
+class ExperimentRunnerTest {
+
+    private static List<ExperimentRunner.Record> runToFile(String suffix) throws IOException {
+        File file = File.createTempFile("experiment", suffix);
+        file.deleteOnExit();
+        RAPNCTestUtils.RAPNCInstanceData data = RAPNCTestUtils.generateInstanceData("fuel", 400, 100, new Random(4));
+        try (ExperimentRunner runner = new ExperimentRunner(file.getPath(), ExperimentRunner.DEFAULT_ALGORITHMS, 1, 3)) {
+            List<ExperimentRunner.Record> records = runner.run("fuel,400", data);
+            assertEquals(6, records.size());
+        }
+        return ExperimentRunner.readRecords(file.getPath());
+    }
+
+    @Test
+    void testRecordsRoundTrip() throws IOException {
+        for (String suffix : new String[]{".jsonl", ".csv"}) {
+            List<ExperimentRunner.Record> records = runToFile(suffix);
+            assertEquals(6, records.size());
+            for (ExperimentRunner.Record record : records) {
+                assertEquals("fuel,400", record.instanceId);
+                assertEquals(400, record.dimension);
+                assertTrue(record.feasible);
+                assertTrue(record.agrees);
+                assertTrue(record.subproblems >= 1);
+            }
+            ExperimentRunner.Summary summary = ExperimentRunner.summarize(records).get("FastMDA fuel n=400");
+            assertEquals(3, summary.count);
+            assertTrue(summary.medianMs <= summary.p95Ms && summary.p95Ms <= summary.p99Ms);
+        }
+    }
+
+    @Test
+    void testCompare() throws IOException {
+        List<ExperimentRunner.Record> baseline = runToFile(".jsonl");
+        List<ExperimentRunner.Record> candidate = ExperimentRunner.readRecords(
+            File.createTempFile("experiment", ".jsonl").getPath());
+        for (ExperimentRunner.Record record : baseline) {
+            ExperimentRunner.Record slower = ExperimentRunner.newRecord(record.instanceId, record.objFuncType,
+                record.dimension, record.algorithm);
+            slower.nanos = record.algorithm.equals("DCA") ? 2 * record.nanos + 1 : record.nanos;
+            slower.agrees = true;
+            candidate.add(slower);
+        }
+        List<String> findings = ExperimentRunner.compare(baseline, candidate, 0.5);
+        assertEquals(1, findings.size());
+        assertTrue(findings.get(0).startsWith("REGRESSION DCA fuel n=400"));
+        assertTrue(ExperimentRunner.compare(baseline, baseline, 0.0).isEmpty());
+    }
+
+    @Test
+    void testAgreementWithTies() throws IOException {
+        //with equal costs, DCA and LinearDCA return different optimal solutions of the same value
+        RAPNCTestUtils.RAPNCInstanceData data = RAPNCTestUtils.generateInstanceData("linear", 400, 100, new Random(31));
+        Arrays.fill(data.cost_param_a, 1.0);
+        Arrays.fill(data.cost_param_b, 1.0);
+        File file = File.createTempFile("experiment", ".jsonl");
+        file.deleteOnExit();
+        try (ExperimentRunner runner = new ExperimentRunner(file.getPath(), new String[]{"DCA", "LinearDCA"}, 0, 1)) {
+            List<ExperimentRunner.Record> records = runner.run("linear,400", data);
+            assertEquals(2, records.size());
+            assertTrue(records.get(1).agrees);
+        }
+        assertFalse(Arrays.equals(data.toRAPNC().solve("DCA").sol, data.toRAPNC().solve("LinearDCA").sol));
+        assertTrue(ExperimentRunner.agrees(17119.0, 17119.0 + 1e-6));
+        assertFalse(ExperimentRunner.agrees(17119.0, 17119.1));
+        assertFalse(ExperimentRunner.agrees(Double.NaN, 17119.0));
+    }
+}
@@ -0,0 +1,99 @@
+package dca_ijoc;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for InstanceCache.
+ */
+class InstanceCacheTest {
+
+    private static String writeInstance(int size, long seed) throws IOException {
+        File file = File.createTempFile("cached", ".json");
+        file.deleteOnExit();
+        RAPNCInstanceIO.writeInstance(RAPNCTestUtils.generateInstanceData("fuel", size, 100, new Random(seed)),
+            file.getPath());
+        return file.getPath();
+    }
+
+    @Test
+    void testHitsShareTheArrays() throws IOException {
+        String filename = writeInstance(500, 28);
+        InstanceCache cache = new InstanceCache(1 << 20);
+        RAPNCTestUtils.RAPNCInstanceData data = cache.get(filename);
+        long[] lbNested = data.lbNested.clone();
+        long[] ubNested = data.ubNested.clone();
+
+        for (int i = 0; i < 3; i++) {
+            RAPNC instance = cache.newRAPNC(filename);
+            assertSame(data.lbNested, instance.lbNested);
+            assertTrue(instance.solveIntegerDCA().feasible);
+        }
+        assertSame(data, cache.get(filename));
+        assertArrayEquals(lbNested, data.lbNested);
+        assertArrayEquals(ubNested, data.ubNested);
+        assertEquals(1, cache.misses);
+        assertEquals(4, cache.hits);
+    }
+
+    @Test
+    void testModifiedFileIsParsedAgain() throws IOException {
+        String filename = writeInstance(100, 29);
+        InstanceCache cache = new InstanceCache(1 << 20);
+        RAPNCTestUtils.RAPNCInstanceData data = cache.get(filename);
+        RAPNCInstanceIO.writeInstance(RAPNCTestUtils.generateInstanceData("fuel", 200, 100, new Random(29)), filename);
+        new File(filename).setLastModified(System.currentTimeMillis() + 2000);
+        assertEquals(200, cache.get(filename).dimension);
+        assertEquals(1, cache.size());
+        assertEquals(InstanceCache.footprint(cache.get(filename)), cache.sizeInBytes());
+        assertTrue(data.dimension == 100);
+    }
+
+    @Test
+    void testLeastRecentlyUsedEviction() throws IOException {
+        String[] files = new String[]{writeInstance(1000, 30), writeInstance(1000, 31), writeInstance(1000, 32)};
+        RAPNCTestUtils.RAPNCInstanceData data = RAPNCTestUtils.generateInstanceData("fuel", 1000, 100, new Random(30));
+        //room for two instances
+        InstanceCache cache = new InstanceCache(2 * InstanceCache.footprint(data) + 1);
+        cache.get(files[0]);
+        cache.get(files[1]);
+        cache.get(files[0]);
+        cache.get(files[2]);
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.evictions);
+        cache.get(files[0]);
+        assertEquals(2, cache.hits);
+        //files[1] was the least recently used one
+        cache.get(files[1]);
+        assertEquals(4, cache.misses);
+        assertEquals(2, cache.evictions);
+    }
+
+    @Test
+    void testPipelineSkipsParsing() throws IOException {
+        String[] files = new String[]{writeInstance(300, 33), writeInstance(400, 34)};
+        InstanceCache cache = new InstanceCache(1 << 20);
+        for (int run = 0; run < 3; run++) {
+            File log = File.createTempFile("pipeline", ".jsonl");
+            log.deleteOnExit();
+            try (ExperimentRunner runner = new ExperimentRunner(log.getPath(), new String[]{"DCA"}, 0, 1)) {
+                PipelinedEvaluator.evaluate(Arrays.asList(files), runner, cache);
+            }
+            List<ExperimentRunner.Record> records = ExperimentRunner.readRecords(log.getPath());
+            assertEquals(2, records.size());
+            assertTrue(records.get(1).feasible);
+        }
+        assertEquals(2, cache.misses);
+        assertEquals(4, cache.hits);
+    }
+}
@@ -0,0 +1,96 @@
+package dca_ijoc;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for NestedBoundCodec.
+ */
+class NestedBoundCodecTest {
+
+    @Test
+    void testRoundTrip() {
+        RAPNCTestUtils.RAPNCInstanceData data = RAPNCTestUtils.generateInstanceData("f", 1000, 100, new Random(17));
+        for (long[] values : new long[][]{data.lbNested, data.ubNested}) {
+            NestedBoundCodec.Encoded encoded = NestedBoundCodec.encode(values);
+            assertArrayEquals(values, encoded.toArray());
+            for (int i = 0; i < values.length; i += 37) {
+                assertEquals(values[i], encoded.get(i));
+            }
+            assertEquals(values[999], encoded.get(999));
+
+            NestedBoundCodec.Cursor cursor = encoded.cursor();
+            for (long value : values) {
+                assertTrue(cursor.hasNext());
+                assertEquals(value, cursor.next());
+            }
+            assertFalse(cursor.hasNext());
+            //deltas below 64 take one byte and deltas below 8192 two bytes
+            assertTrue(encoded.byteLength <= 2 * values.length);
+        }
+    }
+
+    @Test
+    void testNegativeAndLargeDeltas() {
+        long[] values = new long[]{5, 3, -10, Long.MAX_VALUE / 2, 0, Long.MIN_VALUE / 2, 7};
+        NestedBoundCodec.Encoded encoded = NestedBoundCodec.encode(values);
+        assertArrayEquals(values, encoded.toArray());
+
+        ByteBuffer buffer = ByteBuffer.allocate(8 + encoded.byteLength);
+        NestedBoundCodec.write(encoded, buffer);
+        buffer.flip();
+        assertArrayEquals(values, NestedBoundCodec.read(buffer).toArray());
+        assertThrows(IllegalArgumentException.class,
+            () -> NestedBoundCodec.fromBytes(values.length + 1, encoded.bytes, encoded.byteLength));
+
+        //the byte array grows in long arithmetic up to MAX_BYTES
+        assertEquals(NestedBoundCodec.MAX_BYTES, NestedBoundCodec.grow(1 << 30, (1L << 30) + 10));
+        assertEquals(100, NestedBoundCodec.grow(16, 100));
+        assertThrows(IllegalArgumentException.class,
+            () -> NestedBoundCodec.grow(NestedBoundCodec.MAX_BYTES, NestedBoundCodec.MAX_BYTES + 1L));
+    }
+
+    @Test
+    void testCompressedBinaryFormat() throws IOException {
+        RAPNCTestUtils.RAPNCInstanceData data = RAPNCTestUtils.generateInstanceData("fuel", 1000, 100, new Random(18));
+        File file = File.createTempFile("instance", ".rapnc");
+        file.deleteOnExit();
+        BinaryInstanceFormat.write(data, file.getPath(), true);
+        assertTrue(file.length() < BinaryInstanceFormat.HEADER_BYTES + 4 * 8 * 1000 + 2 * (8 + 2 * 1000 + 8));
+
+        BinaryInstanceFormat.MappedInstance mapped = BinaryInstanceFormat.map(file.getPath());
+        assertNotNull(mapped.lbNestedEncoded);
+        //the nested bounds are not decoded by map(), nor copied to the heap
+        assertNull(mapped.lbNested);
+        assertNull(mapped.ubNested);
+        assertTrue(mapped.lbNestedEncoded.bytes.isDirect());
+        assertTrue(mapped.ubNestedEncoded.bytes.isDirect());
+        assertEquals(data.ubNested[500], mapped.ubNestedEncoded.get(500));
+        //scans in increasing order, random access and scans from a random index
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(data.lbNested[i], mapped.lbNested(i));
+            assertEquals(data.ubNested[i], mapped.ubNested(i));
+        }
+        Random random = new Random(19);
+        for (int k = 0; k < 200; k++) {
+            int i = random.nextInt(1000);
+            assertEquals(data.ubNested[i], mapped.ubNested(i));
+            if (i + 1 < 1000) {
+                assertEquals(data.ubNested[i + 1], mapped.ubNested(i + 1));
+            }
+        }
+        RAPNCInstanceIOTest.assertSameInstance(data, BinaryInstanceFormat.read(file.getPath()));
+    }
+}
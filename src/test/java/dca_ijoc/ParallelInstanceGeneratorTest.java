@@ -0,0 +1,49 @@
+package dca_ijoc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for ParallelInstanceGenerator.
+ */
+class ParallelInstanceGeneratorTest {
+
+    @Test
+    void testSameInstanceForAnyThreadCount() {
+        int size = 3 * ParallelInstanceGenerator.CHUNK + 17;
+        ForkJoinPool single = new ForkJoinPool(1);
+        ForkJoinPool many = new ForkJoinPool(4);
+        try {
+            RAPNCTestUtils.RAPNCInstanceData expected =
+                ParallelInstanceGenerator.generateInstanceData("fuel", size, 100, 19, single);
+            RAPNCInstanceIOTest.assertSameInstance(expected,
+                ParallelInstanceGenerator.generateInstanceData("fuel", size, 100, 19, many));
+            RAPNCInstanceIOTest.assertSameInstance(expected,
+                ParallelInstanceGenerator.generateInstanceData("fuel", size, 100, 19));
+            assertFalse(expected.cost_param_b[0] == ParallelInstanceGenerator.generateInstanceData(
+                "fuel", size, 100, 20, many).cost_param_b[0]);
+        } finally {
+            single.shutdown();
+            many.shutdown();
+        }
+    }
+
+    @Test
+    void testFeasibleInstances() {
+        for (String objFuncType : new String[]{"f", "fuel", "crash"}) {
+            RAPNCTestUtils.RAPNCInstanceData data =
+                ParallelInstanceGenerator.generateInstanceData(objFuncType, 2000, 100, 21);
+            for (int i = 0; i < data.dimension; i++) {
+                assertTrue(data.lbNested[i] <= data.ubNested[i]);
+                assertTrue(i == 0 || data.lbNested[i - 1] <= data.lbNested[i]);
+            }
+            assertEquals(data.lbNested[1999], data.ubNested[1999]);
+            assertTrue(data.toFreshRAPNC().solveIntegerDCA().feasible);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package dca_ijoc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit test for ParametricRAP.
+ */
+class ParametricRAPTest {
+
+    private static List<Function> quadratic(int dimension) {
+        List<Function> obj = new ArrayList<Function>();
+        for (int i = 0; i < dimension; i++) {
+            obj.add(RAPNCTestUtils.buildObjectFunction(1, 0, "quadratic"));
+        }
+        return obj;
+    }
+
+    private static double value(List<Function> obj, long[] sol) {
+        double value = 0;
+        for (int i = 0; i < sol.length; i++) {
+            value += obj.get(i).getValue(sol[i]);
+        }
+        return value;
+    }
+
+    private static long[] solve(ParametricRAP range, long[] lb, long[] ub, long LR) {
+        System.arraycopy(lb, 0, range.raplb, 0, lb.length);
+        System.arraycopy(ub, 0, range.rapub, 0, ub.length);
+        return range.solve(LR).sol;
+    }
+
+    private static long[] solveCold(List<Function> obj, long[] lb, long[] ub, long LR) {
+        return new RAP(obj, LR, lb.clone(), ub.clone()).solveRAP().sol;
+    }
+
+    @Test
+    void testBoundIncrease() {
+        //min x^2 + y^2 with x + y = 6: ub = (1, 10) gives (1, 5), ub = (10, 10) gives (3, 3)
+        List<Function> obj = quadratic(2);
+        ParametricRAP range = new ParametricRAP(obj, 0, 1, 1);
+        assertArrayEquals(new long[]{1, 5}, solve(range, new long[2], new long[]{1, 10}, 6));
+        assertArrayEquals(new long[]{3, 3}, solve(range, new long[2], new long[]{10, 10}, 6));
+    }
+
+    @Test
+    void testBudgetIncrease() {
+        List<Function> obj = quadratic(50);
+        Random random = new Random(26);
+        long[] lb = new long[50];
+        long[] ub = new long[50];
+        for (int i = 0; i < 50; i++) {
+            lb[i] = random.nextInt(5);
+            ub[i] = lb[i] + random.nextInt(40);
+        }
+        ParametricRAP range = new ParametricRAP(obj, 0, 49, 1);
+        assertEquals(value(obj, solveCold(obj, lb, ub, 500)), value(obj, solve(range, lb, ub, 500)));
+        assertEquals(value(obj, solveCold(obj, lb, ub, 700)), value(obj, solve(range, lb, ub, 700)));
+
+        //the shared bound vectors are overwritten by every subproblem
+        for (int k = 0; k < 20; k++) {
+            long[] lb2 = lb.clone();
+            long[] ub2 = ub.clone();
+            for (int i = 0; i < 50; i++) {
+                lb2[i] += random.nextInt(2);
+                ub2[i] += random.nextInt(10);
+            }
+            long LR = 700 + random.nextInt(300);
+            assertEquals(value(obj, solveCold(obj, lb2, ub2, LR)), value(obj, solve(range, lb2, ub2, LR)));
+        }
+    }
+}
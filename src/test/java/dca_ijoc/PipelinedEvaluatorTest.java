@@ -0,0 +1,69 @@
+package dca_ijoc;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for PipelinedEvaluator.
+ */
+class PipelinedEvaluatorTest {
+
+    private static File tempFile(String suffix) throws IOException {
+        File file = File.createTempFile("pipeline", suffix);
+        file.deleteOnExit();
+        return file;
+    }
+
+    @Test
+    void testRecordsInFileOrder() throws IOException {
+        Random generator = new Random(27);
+        List<String> files = new ArrayList<String>();
+        for (int i = 0; i < 6; i++) {
+            File file = tempFile(i % 2 == 0 ? ".json" : ".json.gz");
+            RAPNCInstanceIO.writeInstance(RAPNCTestUtils.generateInstanceData("crash", 100 + 50 * i, 100, generator),
+                file.getPath());
+            files.add(file.getPath());
+        }
+        //binary files of both versions are parsed from their bytes like the other formats
+        for (boolean compressNested : new boolean[]{false, true}) {
+            File file = tempFile(".rapnc");
+            BinaryInstanceFormat.write(RAPNCTestUtils.generateInstanceData("f", 120, 100, generator), file.getPath(),
+                compressNested);
+            files.add(file.getPath());
+        }
+        files.add(BinaryInstanceFormatTest.AMPL_FILE);
+
+        File log = tempFile(".jsonl");
+        try (ExperimentRunner runner = new ExperimentRunner(log.getPath(), ExperimentRunner.DEFAULT_ALGORITHMS, 0, 2)) {
+            PipelinedEvaluator.evaluate(files, runner);
+        }
+        List<ExperimentRunner.Record> records = ExperimentRunner.readRecords(log.getPath());
+        assertEquals(4 * files.size(), records.size());
+        for (int k = 0; k < records.size(); k++) {
+            ExperimentRunner.Record record = records.get(k);
+            assertEquals(files.get(k / 4), record.instanceId);
+            assertTrue(record.feasible);
+            assertTrue(record.agrees);
+        }
+        assertEquals(10, records.get(records.size() - 1).dimension);
+    }
+
+    @Test
+    void testFailure() throws IOException {
+        File log = tempFile(".jsonl");
+        try (ExperimentRunner runner = new ExperimentRunner(log.getPath())) {
+            assertThrows(IOException.class, () -> PipelinedEvaluator.evaluate(
+                Arrays.asList(BinaryInstanceFormatTest.AMPL_FILE, "./no such file.json"), runner));
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package dca_ijoc;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for ProceduralInstanceSource and ArrayInstanceSource.
+ */
+class ProceduralInstanceSourceTest {
+
+    @Test
+    void testRandomAccessMatchesScan() {
+        int size = 3 * ProceduralInstanceSource.CHECKPOINT + 5;
+        RAPNCTestUtils.RAPNCInstanceData data = new ProceduralInstanceSource("fuel", size, 100, 22).toInstanceData();
+        ProceduralInstanceSource source = new ProceduralInstanceSource("fuel", size, 100, 22);
+        for (int i = size - 1; i >= 0; i -= 311) {
+            assertEquals(data.lbNested[i], source.lbNested(i));
+            assertEquals(data.ubNested[i], source.ubNested(i));
+            assertEquals(data.capacity[i], source.ubVar(i));
+            assertEquals(data.cost_param_b[i], source.costParamB(i));
+        }
+        for (int i = 0; i < size; i++) {
+            assertTrue(data.lbNested[i] <= data.ubNested[i]);
+            assertTrue(i == 0 || data.ubNested[i - 1] <= data.ubNested[i]);
+        }
+        assertEquals(data.lbNested[size - 1], data.ubNested[size - 1]);
+    }
+
+    @Test
+    void testFeasibleInstances() {
+        for (String objFuncType : new String[]{"f", "fuel", "crash"}) {
+            RAPNCTestUtils.RAPNCInstanceData data =
+                new ProceduralInstanceSource(objFuncType, 2000, 100, 23).toInstanceData();
+            assertTrue(data.toFreshRAPNC().solveIntegerDCA().feasible);
+        }
+    }
+
+    @Test
+    void testSolveFromSource() throws IOException {
+        for (String objFuncType : new String[]{"f", "fuel", "crash"}) {
+            ProceduralInstanceSource source = new ProceduralInstanceSource(objFuncType, 3000, 100, 25);
+            RAPNCTestUtils.RAPNCInstanceData data = source.toInstanceData();
+            ResultTypeRAPNC expected = data.toFreshRAPNC().solveIntegerDCA();
+            assertTrue(expected.feasible);
+            assertArrayEquals(expected.sol, RAPNC.solveIntegerDCA(source).sol);
+
+            //the source goes through the same splits as the arrays, with statistics
+            RAPNC instance = data.toFreshRAPNC();
+            SolverStats arrayStats = new SolverStats();
+            instance.setStats(arrayStats);
+            instance.solveIntegerDCA();
+            RAPNC fromSource = RAPNC.fromSource(source);
+            SolverStats sourceStats = new SolverStats();
+            fromSource.setStats(sourceStats);
+            assertArrayEquals(expected.sol, fromSource.solveIntegerDCA().sol);
+            assertEquals(instance.number_subproblem, fromSource.number_subproblem);
+            assertEquals(arrayStats.dcaSplits, sourceStats.dcaSplits);
+            assertTrue(sourceStats.dcaSplits > 0);
+            //the root released the arrays it owns
+            assertNull(fromSource.lbNested);
+
+            //a mapped file with compressed nested bounds is scanned by cursors
+            File file = File.createTempFile("instance", ".rapnc");
+            file.deleteOnExit();
+            BinaryInstanceFormat.write(source, file.getPath(), true);
+            assertArrayEquals(expected.sol, RAPNC.solveIntegerDCA(BinaryInstanceFormat.map(file.getPath())).sol);
+        }
+
+        //x1 + x2 + x3 = 6 and x1 + x2 >= 9 with 0 <= x <= 4: the relaxation is feasible, the subproblems are not
+        RAPNCTestUtils.RAPNCInstanceData infeasible = new RAPNCTestUtils.RAPNCInstanceData("quadratic", 3,
+            new long[]{4, 4, 4}, new long[]{0, 9, 6}, new long[]{100, 100, 6}, new double[]{1, 1, 1}, new double[3]);
+        infeasible.lbVar = new long[3];
+        assertFalse(RAPNC.solveIntegerDCA(new ArrayInstanceSource(infeasible)).feasible);
+        assertFalse(infeasible.toFreshRAPNC().solveIntegerDCA().feasible);
+    }
+
+    @Test
+    void testStreamToBinaryFormat() throws IOException {
+        InstanceSource source = new ProceduralInstanceSource("crash", 5000, 100, 24);
+        File file = File.createTempFile("instance", ".rapnc");
+        file.deleteOnExit();
+        BinaryInstanceFormat.write(source, file.getPath(), true);
+        RAPNCInstanceIOTest.assertSameInstance(source.toInstanceData(), BinaryInstanceFormat.read(file.getPath()));
+
+        RAPNCTestUtils.RAPNCInstanceData data = source.toInstanceData();
+        assertSame(data, new ArrayInstanceSource(data).toInstanceData());
+    }
+}
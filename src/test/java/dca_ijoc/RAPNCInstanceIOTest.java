@@ -0,0 +1,114 @@
+package dca_ijoc;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.util.Random;
+
+import com.google.gson.Gson;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Unit test for RAPNCInstanceIO.
+ */
+class RAPNCInstanceIOTest {
+
+    static void assertSameInstance(RAPNCTestUtils.RAPNCInstanceData expected, RAPNCTestUtils.RAPNCInstanceData actual) {
+        assertEquals(expected.objFuncType, actual.objFuncType);
+        assertEquals(expected.dimension, actual.dimension);
+        assertArrayEquals(expected.lbVar, actual.lbVar);
+        assertArrayEquals(expected.capacity, actual.capacity);
+        assertArrayEquals(expected.lbNested, actual.lbNested);
+        assertArrayEquals(expected.ubNested, actual.ubNested);
+        assertArrayEquals(expected.cost_param_a, actual.cost_param_a);
+        assertArrayEquals(expected.cost_param_b, actual.cost_param_b);
+    }
+
+    @Test
+    void testReadJSONize() throws IOException {
+        RAPNCTestUtils.RAPNCInstanceData data = RAPNCTestUtils.generateInstanceData("fuel", 500, 100, new Random(12));
+        assertSameInstance(data, RAPNCInstanceIO.readInstance(new StringReader(data.JSONize())));
+        //the arrays grow past their initial capacity up to the dimension
+        RAPNCTestUtils.RAPNCInstanceData large = RAPNCTestUtils.generateInstanceData("f",
+            RAPNCInstanceIO.INITIAL_CAPACITY * 3 + 1, 100, new Random(14));
+        assertSameInstance(large, RAPNCInstanceIO.readInstance(new StringReader(large.JSONize())));
+    }
+
+    @Test
+    void testReadInstanceFile() throws IOException {
+        String filename = "./test_instances/1589214682686/Instancef/VB=100/n=800/f_VB=100_n=800_0.json";
+        RAPNCTestUtils.RAPNCInstanceData expected;
+        try (Reader reader = new FileReader(filename)) {
+            expected = new Gson().fromJson(reader, RAPNCTestUtils.RAPNCInstanceData.class);
+        }
+        assertSameInstance(expected, RAPNCInstanceIO.readInstance(filename));
+    }
+
+    @Test
+    void testArraysBeforeDimension() throws IOException {
+        String json = "{\"lbNested\":[1,2],\"ubNested\":[3,4],\"capacity\":[5,6],\"cost_param_a\":[0.5,1],"
+            + "\"cost_param_b\":[1,-1e-3],\"extra\":{\"x\":[1]},\"objFuncType\":\"crash\",\"dimension\":2}";
+        RAPNCTestUtils.RAPNCInstanceData data = RAPNCInstanceIO.readInstance(new StringReader(json));
+        assertEquals(2, data.dimension);
+        assertArrayEquals(new long[]{0, 0}, data.lbVar);
+        assertArrayEquals(new long[]{3, 4}, data.ubNested);
+        assertArrayEquals(new double[]{1, -1e-3}, data.cost_param_b);
+    }
+
+    @Test
+    void testLengthValidation() {
+        String tooLong = "{\"objFuncType\":\"f\",\"dimension\":2,\"capacity\":[1,2,3]}";
+        assertThrows(IOException.class, () -> RAPNCInstanceIO.readInstance(new StringReader(tooLong)));
+        String tooShort = "{\"lbNested\":[1],\"ubNested\":[1,2],\"capacity\":[5,6],\"cost_param_a\":[0.5,1],"
+            + "\"cost_param_b\":[1,1],\"objFuncType\":\"f\",\"dimension\":2}";
+        assertThrows(IOException.class, () -> RAPNCInstanceIO.readInstance(new StringReader(tooShort)));
+        String missing = "{\"objFuncType\":\"f\",\"dimension\":2,\"capacity\":[1,2]}";
+        assertThrows(IOException.class, () -> RAPNCInstanceIO.readInstance(new StringReader(missing)));
+    }
+
+    @Test
+    void testWriteInstance() throws IOException {
+        RAPNCTestUtils.RAPNCInstanceData data = RAPNCTestUtils.generateInstanceData("crash", 300, 100, new Random(13));
+        StringWriter writer = new StringWriter();
+        RAPNCInstanceIO.writeInstance(data, writer);
+        // compact output in the schema of Gson
+        assertEquals(-1, writer.toString().indexOf('\n'));
+        assertSameInstance(data, RAPNCTestUtils.RAPNCInstanceData.readJsonData(writer.toString()));
+
+        for (String suffix : new String[]{".json", ".json.gz"}) {
+            File file = File.createTempFile("instance", suffix);
+            file.deleteOnExit();
+            RAPNCInstanceIO.writeInstance(data, file.getPath());
+            assertSameInstance(data, RAPNCInstanceIO.readInstance(file.getPath()));
+        }
+    }
+
+    @Test
+    void testGenTestCollectionToFiles() throws IOException {
+        File folder = Files.createTempDirectory("instances").toFile();
+        int[] sizes = new int[]{50, 100};
+        TestConDCA.genTestCollectionToFiles(new String[]{"f"}, new int[]{100}, sizes, 3, folder.getPath(),
+            new Random(14), true);
+
+        // the files do not depend on the order in which they are written
+        Random generator = new Random(14);
+        for (int size : sizes) {
+            for (int i = 0; i < 3; i++) {
+                File file = new File(folder, String.format("/Instancef/VB=100/n=%d/", size)
+                    + TestConDCA.genDataFileName("f", 100, size, i) + ".gz");
+                assertSameInstance(RAPNCTestUtils.generateInstanceData("f", size, 100, generator),
+                    RAPNCInstanceIO.readInstance(file.getPath()));
+                file.delete();
+            }
+        }
+    }
+}
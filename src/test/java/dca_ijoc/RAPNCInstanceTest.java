@@ -0,0 +1,151 @@
+package dca_ijoc;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for RAPNCInstance.
+ */
+class RAPNCInstanceTest {
+
+    @Test
+    void testSolversDoNotModifyTheInstance() {
+        for (String objFuncType : new String[]{"linear", "f", "crash"}) {
+            RAPNCTestUtils.RAPNCInstanceData data = RAPNCTestUtils.generateInstanceData(objFuncType, 800, 100,
+                new Random(46));
+            long[] lbVar = data.lbVar.clone();
+            long[] capacity = data.capacity.clone();
+            long[] lbNested = data.lbNested.clone();
+            long[] ubNested = data.ubNested.clone();
+
+            String[] algorithms = objFuncType.equals("linear")
+                ? new String[]{"DCA", "LinearDCA", "FastMDA"} : new String[]{"DCA", "FastMDA"};
+            long[] reference = null;
+            for (String algorithm : algorithms) {
+                ResultTypeRAPNC res = data.toRAPNC().solve(algorithm);
+                assertTrue(res.feasible);
+                if (reference == null) {
+                    reference = res.sol;
+                }
+                assertArrayEquals(reference, res.sol);
+            }
+            assertArrayEquals(lbVar, data.lbVar);
+            assertArrayEquals(capacity, data.capacity);
+            assertArrayEquals(lbNested, data.lbNested);
+            assertArrayEquals(ubNested, data.ubNested);
+        }
+    }
+
+    @Test
+    void testCreateRAPNC() {
+        RAPNCTestUtils.RAPNCInstanceData data = RAPNCTestUtils.generateInstanceData("fuel", 10, 100, new Random(47));
+        RAPNC instance = data.toRAPNC();
+        long[] lbNested = data.lbNested.clone();
+        long[] ubNested = data.ubNested.clone();
+        List<RAPNC> divide = instance.createRAPNC(4, lbNested[4]);
+
+        assertArrayEquals(lbNested, data.lbNested);
+        assertArrayEquals(ubNested, data.ubNested);
+        RAPNC left = divide.get(0);
+        RAPNC right = divide.get(1);
+        assertEquals(5, left.dimension);
+        assertEquals(lbNested[4], left.lbNested[4]);
+        assertEquals(lbNested[4], left.ubNested[4]);
+        assertEquals(ubNested[3], left.ubNested[3]);
+        assertEquals(5, right.dimension);
+        assertEquals(ubNested[9] - lbNested[4], right.ubNested[4]);
+        assertEquals(lbNested[5] - lbNested[4], right.lbNested[0]);
+    }
+
+    /*
+    * Solve a peeling chain of the size given as first argument by DCA and LinearDCA, exit with 1 if a solve fails.
+    * Every split of DCA on a peeling chain peels off one variable, so the recursion path has n subproblems.
+    */
+    static final class PeelingSolve {
+        public static void main(String[] args) {
+            int size = Integer.parseInt(args[0]);
+            for (String objFuncType : new String[]{"quadratic", "linear"}) {
+                RAPNC instance = AdversarialInstanceGenerator.generateInstanceData("peeling", objFuncType, size, 100,
+                    new Random(48)).toFreshRAPNC();
+                ResultTypeRAPNC res = instance.solve(objFuncType.equals("linear") ? "LinearDCA" : "DCA");
+                if (!res.feasible || instance.number_subproblem != 2L * size - 1) {
+                    System.exit(1);
+                }
+            }
+        }
+    }
+
+    //The class path of the main and test classes, from where they were loaded rather than from the launcher
+    private static String classPath(Class<?>... classes) throws Exception {
+        Set<String> entries = new LinkedHashSet<String>();
+        for (Class<?> type : classes) {
+            entries.add(Paths.get(type.getProtectionDomain().getCodeSource().getLocation().toURI()).toString());
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    @Test
+    void testUnbalancedSplits() throws Exception {
+        //The instance and the estimate of its solve take about 1 MB; the arrays of the subproblems along the
+        //recursion path of a peeling chain would take about 100 MB if every subproblem kept them
+        int size = 2500;
+        assertTrue(SolveScheduler.estimate("DCA", size) < 1 << 20);
+        Process process = new ProcessBuilder(
+            Paths.get(System.getProperty("java.home"), "bin", "java").toString(), "-Xmx24m", "-Xss16m",
+            "-cp", classPath(RAPNC.class, PeelingSolve.class), PeelingSolve.class.getName(), String.valueOf(size))
+            .redirectErrorStream(true).start();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1 << 12];
+        try (InputStream in = process.getInputStream()) {
+            for (int read; (read = in.read(buffer)) > 0; ) {
+                output.write(buffer, 0, read);
+            }
+        }
+        assertTrue(process.waitFor(5, TimeUnit.MINUTES));
+        assertEquals(0, process.exitValue(), new String(output.toByteArray(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testConcurrentSolves() throws Exception {
+        RAPNCTestUtils.RAPNCInstanceData data = RAPNCTestUtils.generateInstanceData("quadratic", 2000, 100,
+            new Random(48));
+        RAPNCInstance instance = data.toInstance();
+        ResultTypeRAPNC expected = data.toFreshRAPNC().solveIntegerDCA();
+        assertTrue(expected.feasible);
+
+        ExecutorService threads = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<ResultTypeRAPNC>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                String algorithm = i % 2 == 0 ? "DCA" : "FastMDA";
+                results.add(threads.submit(() -> instance.solve(algorithm)));
+            }
+            for (Future<ResultTypeRAPNC> result : results) {
+                assertArrayEquals(expected.sol, result.get().sol);
+            }
+        } finally {
+            threads.shutdown();
+        }
+
+        RAPNC solver = instance.newSolver();
+        solver.solveIntegerDCA();
+        RAPNC other = instance.newSolver();
+        other.solveIntegerDCA();
+        assertEquals(solver.number_subproblem, other.number_subproblem);
+        for (int i = 0; i < data.dimension; i++) {
+            assertEquals(data.lbNested[i], instance.lbNested(i));
+            assertEquals(data.ubNested[i], instance.ubNested(i));
+        }
+    }
+}
@@ -0,0 +1,81 @@
+package dca_ijoc;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for ResultCache.
+ */
+class ResultCacheTest {
+
+    @Test
+    void testKeys() {
+        RAPNCTestUtils.RAPNCInstanceData data = RAPNCTestUtils.generateInstanceData("crash", 300, 100, new Random(35));
+        RAPNCTestUtils.RAPNCInstanceData same = RAPNCTestUtils.generateInstanceData("crash", 300, 100, new Random(35));
+        assertEquals(ResultCache.key(data, "DCA"), ResultCache.key(same, "DCA"));
+        assertNotEquals(ResultCache.key(data, "DCA"), ResultCache.key(data, "FastMDA"));
+        same.cost_param_b[299] = Math.nextUp(same.cost_param_b[299]);
+        assertNotEquals(ResultCache.key(data, "DCA"), ResultCache.key(same, "DCA"));
+        same = RAPNCTestUtils.generateInstanceData("fuel", 300, 100, new Random(35));
+        assertNotEquals(ResultCache.key(data, "DCA"), ResultCache.key(same, "DCA"));
+    }
+
+    @Test
+    void testMemoryTier() throws IOException {
+        RAPNCTestUtils.RAPNCInstanceData data = RAPNCTestUtils.generateInstanceData("fuel", 500, 100, new Random(36));
+        long[] ubNested = data.ubNested.clone();
+        ResultCache cache = new ResultCache(1 << 20, null);
+        ResultTypeRAPNC first = cache.solve(data, "DCA");
+        first.sol[0] = -1;
+        ResultTypeRAPNC second = cache.solve(data, "DCA");
+        assertTrue(second.feasible);
+        assertArrayEquals(data.toFreshRAPNC().solveIntegerDCA().sol, second.sol);
+        assertArrayEquals(ubNested, data.ubNested);
+        assertEquals(1, cache.misses);
+        assertEquals(1, cache.hits);
+        assertEquals(ResultCache.footprint(second), cache.sizeInBytes());
+    }
+
+    @Test
+    void testDiskTier() throws IOException {
+        File directory = Files.createTempDirectory("results").toFile();
+        directory.deleteOnExit();
+        Random generator = new Random(37);
+        RAPNCTestUtils.RAPNCInstanceData[] instances = new RAPNCTestUtils.RAPNCInstanceData[3];
+        //room for one result in memory
+        ResultCache cache = new ResultCache(8 * 400 + 100, directory.getPath());
+        for (int i = 0; i < instances.length; i++) {
+            instances[i] = RAPNCTestUtils.generateInstanceData("f", 400, 100, generator);
+            cache.solve(instances[i], "DCA");
+        }
+        assertEquals(1, cache.size());
+        assertEquals(2, cache.evictions);
+        for (File file : directory.listFiles()) {
+            file.deleteOnExit();
+        }
+
+        ResultTypeRAPNC result = cache.solve(instances[0], "DCA");
+        assertEquals(1, cache.diskHits);
+        assertArrayEquals(instances[0].toFreshRAPNC().solveIntegerDCA().sol, result.sol);
+
+        //a new cache with the same directory
+        ResultCache restarted = new ResultCache(1 << 20, directory.getPath());
+        assertArrayEquals(result.sol, restarted.solve(instances[0], "DCA").sol);
+        assertEquals(1, restarted.diskHits);
+        assertEquals(0, restarted.misses);
+        restarted.solve(instances[1], "FastMDA");
+        assertEquals(1, restarted.misses);
+        for (File file : directory.listFiles()) {
+            file.deleteOnExit();
+        }
+    }
+}
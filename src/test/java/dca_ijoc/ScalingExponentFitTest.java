@@ -0,0 +1,29 @@
+package dca_ijoc;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Unit test for the regression of ScalingExponentTest, which runs in the default build unlike the scaling tests.
+ */
+class ScalingExponentFitTest {
+
+    @Test
+    void testFitExponent() {
+        double[] x = new double[]{100, 200, 400, 800};
+        double[] y = new double[]{3e4, 1.2e5, 4.8e5, 1.92e6};
+        assertEquals(2, ScalingExponentTest.fitExponent(x, y), 1e-9);
+    }
+
+    @Test
+    void testFitNoisyExponent() {
+        //y = 5 x^1.5 with multiplicative noise of +-10% that averages out on the log scale
+        double[] x = new double[]{800, 1600, 3200, 6400, 12800, 25600};
+        double[] y = new double[x.length];
+        for (int i = 0; i < x.length; i++) {
+            y[i] = 5 * Math.pow(x[i], 1.5) * (i % 2 == 0 ? 1.1 : 1 / 1.1);
+        }
+        assertEquals(1.5, ScalingExponentTest.fitExponent(x, y), 0.05);
+    }
+}
@@ -0,0 +1,138 @@
+package dca_ijoc;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Scaling-exponent regression tests of the DRAP-NC solvers.
+ *
+ * Each solver runs on a geometric ladder of sizes, and the exponents of the running time and of the number of
+ * subproblems are fitted by least squares on the log-log scale. A test fails when an exponent exceeds its threshold,
+ * e.g. after an accidental O(n^2) copy per split. The tests are tagged "performance" and run by
+ *     mvn -P performance test
+ * On random instances, DCA solves about O(n^0.3) subproblems in near-linear time and FastMDA solves O(n)
+ * subproblems in O(n log n log B) time, so the default thresholds leave room for noise but not for a quadratic term.
+ * The ladder and the thresholds can be overridden by system properties, e.g.
+ *     -Dscaling.sizes=800,3200,12800,51200,204800,819200 -Dscaling.instances=3 -Dscaling.DCA.time=1.4
+ */
+@Tag("performance")
+class ScalingExponentTest {
+    static final int[] DEFAULT_SIZES = new int[]{800, 1600, 3200, 6400, 12800, 25600, 51200, 51200 << 1};
+
+    //fitted exponents of a solver on a ladder
+    static final class Exponents {
+        double time;
+        double subproblems;
+
+        @Override
+        public String toString() {
+            return String.format("time=%.3f subproblems=%.3f", time, subproblems);
+        }
+    }
+
+    static int[] sizes() {
+        String property = System.getProperty("scaling.sizes");
+        if (property == null) {
+            return DEFAULT_SIZES;
+        }
+        return Arrays.stream(property.split(",")).mapToInt(s -> Integer.parseInt(s.trim())).toArray();
+    }
+
+    static double threshold(String algorithm, String quantity, double defaultValue) {
+        return Double.parseDouble(System.getProperty("scaling." + algorithm + "." + quantity, String.valueOf(defaultValue)));
+    }
+
+    /**
+     * Least-squares slope of log(y) over log(x)
+     */
+    static double fitExponent(double[] x, double[] y) {
+        int n = x.length;
+        double mx = 0, my = 0;
+        for (int i = 0; i < n; i++) {
+            mx += Math.log(x[i]) / n;
+            my += Math.log(y[i]) / n;
+        }
+        double sxy = 0, sxx = 0;
+        for (int i = 0; i < n; i++) {
+            double dx = Math.log(x[i]) - mx;
+            sxy += dx * (Math.log(y[i]) - my);
+            sxx += dx * dx;
+        }
+        return sxy / sxx;
+    }
+
+    /**
+     * Solve seeded instances of each size of the ladder and fit the exponents of the median time and of the
+     * median number of subproblems.
+     */
+    static Exponents measure(String algorithm, String objFuncType) {
+        int[] sizes = sizes();
+        int instances = Integer.getInteger("scaling.instances", 3);
+        Random generator = new Random(Long.getLong("scaling.seed", 9999L));
+
+        // warm up the JIT on the two smallest sizes
+        for (int k = 0; k < Math.min(2, sizes.length); k++) {
+            RAPNCTestUtils.generateInstanceData(objFuncType, sizes[k], 100, generator).toFreshRAPNC().solve(algorithm);
+        }
+
+        double[] x = new double[sizes.length];
+        double[] time = new double[sizes.length];
+        double[] subproblems = new double[sizes.length];
+        for (int k = 0; k < sizes.length; k++) {
+            long[] nanos = new long[instances];
+            long[] counts = new long[instances];
+            for (int i = 0; i < instances; i++) {
+                RAPNC instance = RAPNCTestUtils.generateInstanceData(objFuncType, sizes[k], 100, generator).toFreshRAPNC();
+                long start = System.nanoTime();
+                instance.solve(algorithm);
+                nanos[i] = Math.max(System.nanoTime() - start, 1);
+                counts[i] = Math.max(instance.number_subproblem, 1);
+            }
+            x[k] = sizes[k];
+            time[k] = ExperimentRunner.median(sorted(nanos));
+            subproblems[k] = ExperimentRunner.median(sorted(counts));
+        }
+
+        Exponents exponents = new Exponents();
+        exponents.time = fitExponent(x, time);
+        exponents.subproblems = fitExponent(x, subproblems);
+        return exponents;
+    }
+
+    private static long[] sorted(long[] values) {
+        long[] copy = values.clone();
+        Arrays.sort(copy);
+        return copy;
+    }
+
+    private static void check(String algorithm, String objFuncType, double maxTime, double maxSubproblems) {
+        Exponents exponents = measure(algorithm, objFuncType);
+        double timeThreshold = threshold(algorithm, "time", maxTime);
+        double subproblemThreshold = threshold(algorithm, "subproblems", maxSubproblems);
+        String fitted = algorithm + " " + objFuncType + " (" + exponents + "): ";
+        assertTrue(exponents.time <= timeThreshold, fitted + "time exponent > " + timeThreshold);
+        assertTrue(exponents.subproblems <= subproblemThreshold, fitted + "subproblem exponent > " + subproblemThreshold);
+    }
+
+    @Test
+    void testDCA() {
+        check("DCA", "f", 1.4, 0.6);
+        check("DCA", "fuel", 1.4, 0.6);
+        check("DCA", "crash", 1.4, 0.6);
+    }
+
+    @Test
+    void testLinearDCA() {
+        check("LinearDCA", "linear", 1.4, 0.6);
+    }
+
+    @Test
+    void testFastMDA() {
+        check("FastMDA", "f", 1.4, 1.05);
+    }
+}
@@ -0,0 +1,159 @@
+package dca_ijoc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for SolveScheduler.
+ */
+class SolveSchedulerTest {
+    //the estimate of a solve is its dimension in bytes
+    private static final SolveScheduler.FootprintModel DIMENSION = (algorithm, dimension) -> dimension;
+
+    private static Callable<Integer> blocked(CountDownLatch release, int value) {
+        return () -> {
+            release.await();
+            return value;
+        };
+    }
+
+    private static boolean isRejected(CompletableFuture<?> result) {
+        try {
+            result.getNow(null);
+            return false;
+        } catch (CompletionException ex) {
+            return ex.getCause() instanceof RejectedExecutionException;
+        }
+    }
+
+    @Test
+    void testEstimate() {
+        assertTrue(SolveScheduler.estimate("DCA", 2000000) > SolveScheduler.estimate("DCA", 1000000));
+        assertEquals(SolveScheduler.estimate("DCA", 1000), SolveScheduler.estimate("LinearDCA", 1000));
+        assertTrue(SolveScheduler.estimate("FastMDA", 1000000) > 100L * 1000000);
+        assertThrows(IllegalArgumentException.class, () -> SolveScheduler.estimate("Simplex", 10));
+    }
+
+    @Test
+    void testAdmission() throws Exception {
+        SolveScheduler scheduler = new SolveScheduler(100, 4, 1, DIMENSION);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        CountDownLatch releaseOthers = new CountDownLatch(1);
+        try {
+            CompletableFuture<Integer> first = scheduler.submit("DCA", 60, blocked(releaseFirst, 1));
+            CompletableFuture<Integer> large = scheduler.submit("DCA", 60, blocked(releaseOthers, 2));
+            CompletableFuture<Integer> small = scheduler.submit("DCA", 30, blocked(releaseOthers, 3));
+            CompletableFuture<Integer> tooLarge = scheduler.submit("DCA", 101, blocked(releaseOthers, 4));
+            CompletableFuture<Integer> full = scheduler.submit("DCA", 60, blocked(releaseOthers, 5));
+
+            //the small solve overtakes the large one, which waits for memory
+            assertEquals(2, scheduler.running());
+            assertEquals(1, scheduler.waiting());
+            assertEquals(90, scheduler.reservedBytes());
+            assertTrue(isRejected(tooLarge));
+            assertTrue(isRejected(full));
+            assertFalse(large.isDone());
+
+            releaseFirst.countDown();
+            assertEquals(1, (int) first.get(10, TimeUnit.SECONDS));
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (scheduler.waiting() > 0 && System.nanoTime() < deadline) {
+                Thread.sleep(1);
+            }
+            assertEquals(0, scheduler.waiting());
+            assertEquals(90, scheduler.reservedBytes());
+
+            releaseOthers.countDown();
+            assertEquals(2, (int) large.get(10, TimeUnit.SECONDS));
+            assertEquals(3, (int) small.get(10, TimeUnit.SECONDS));
+            assertEquals(3, scheduler.admitted);
+            assertEquals(1, scheduler.queued);
+            assertEquals(2, scheduler.rejected);
+            assertEquals(90, scheduler.peakReserved);
+        } finally {
+            releaseFirst.countDown();
+            releaseOthers.countDown();
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void testNoStarvation() throws Exception {
+        int threads = SolveScheduler.MAX_OVERTAKES + 4;
+        SolveScheduler scheduler = new SolveScheduler(100, threads, Integer.MAX_VALUE, DIMENSION);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            List<CompletableFuture<Integer>> results = new ArrayList<>();
+            results.add(scheduler.submit("DCA", 30, blocked(release, 0)));
+            CompletableFuture<Integer> large = scheduler.submit("DCA", 71, blocked(release, 1));
+            for (int i = 0; i <= SolveScheduler.MAX_OVERTAKES; i++) {
+                results.add(scheduler.submit("DCA", 1, blocked(release, 2)));
+            }
+            //the last small solve waits behind the large one although it fits
+            assertEquals(1 + SolveScheduler.MAX_OVERTAKES, scheduler.running());
+            assertEquals(2, scheduler.waiting());
+
+            release.countDown();
+            assertEquals(1, (int) large.get(10, TimeUnit.SECONDS));
+            for (CompletableFuture<Integer> result : results) {
+                result.get(10, TimeUnit.SECONDS);
+            }
+        } finally {
+            release.countDown();
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void testShutdownAfterAdmission() throws Exception {
+        SolveScheduler scheduler = new SolveScheduler(100, 1, 1, DIMENSION);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            CompletableFuture<Integer> first = scheduler.submit("DCA", 10, blocked(release, 1));
+            CompletableFuture<Integer> second = scheduler.submit("DCA", 20, blocked(release, 2));
+            //the end of the first solve admits the second one, then its result shuts the scheduler down before the
+            //second solve reaches the workers
+            first.whenComplete((res, ex) -> scheduler.shutdown());
+            release.countDown();
+            assertEquals(1, (int) first.get(10, TimeUnit.SECONDS));
+            ExecutionException failure = assertThrows(ExecutionException.class,
+                () -> second.get(10, TimeUnit.SECONDS));
+            assertTrue(failure.getCause() instanceof RejectedExecutionException);
+            assertEquals(0, scheduler.reservedBytes());
+            assertEquals(0, scheduler.running());
+        } finally {
+            release.countDown();
+            scheduler.shutdown();
+        }
+    }
+
+    @Test
+    void testSolves() throws Exception {
+        SolveScheduler scheduler = new SolveScheduler(SolveScheduler.estimate("FastMDA", 500) * 2, 4, 16);
+        try {
+            List<RAPNCTestUtils.RAPNCInstanceData> instances = new ArrayList<>();
+            List<CompletableFuture<ResultTypeRAPNC>> results = new ArrayList<>();
+            for (int i = 0; i < 6; i++) {
+                RAPNCTestUtils.RAPNCInstanceData data = RAPNCTestUtils.generateInstanceData("crash", 500, 100,
+                    new Random(50 + i));
+                instances.add(data);
+                results.add(scheduler.submit(data.toInstance(), i % 2 == 0 ? "DCA" : "FastMDA"));
+            }
+            for (int i = 0; i < instances.size(); i++) {
+                assertArrayEquals(instances.get(i).toRAPNC().solveIntegerDCA().sol, results.get(i).get().sol);
+            }
+            assertTrue(scheduler.peakReserved <= SolveScheduler.estimate("FastMDA", 500) * 2);
+            assertEquals(0, scheduler.reservedBytes());
+        } finally {
+            scheduler.shutdown();
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package dca_ijoc;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.*;
+import java.net.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for SolverDaemon.
+ */
+class SolverDaemonTest {
+
+    private static String instanceRequest(String id, String algorithm, RAPNCTestUtils.RAPNCInstanceData data)
+            throws IOException {
+        StringWriter instance = new StringWriter();
+        RAPNCInstanceIO.writeInstance(data, instance);
+        return "{\"id\": " + id + ", \"algorithm\": \"" + algorithm + "\", \"instance\": " + instance + "}";
+    }
+
+    private static long[] toLongs(JsonArray array) {
+        long[] values = new long[array.size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = array.get(i).getAsLong();
+        }
+        return values;
+    }
+
+    @Test
+    void testServe() throws IOException {
+        RAPNCTestUtils.RAPNCInstanceData data = RAPNCTestUtils.generateInstanceData("fuel", 300, 100, new Random(47));
+        RAPNCTestUtils.RAPNCInstanceData other = RAPNCTestUtils.generateInstanceData("f", 200, 100, new Random(48));
+        File file = File.createTempFile("daemon", ".json.gz");
+        file.deleteOnExit();
+        RAPNCInstanceIO.writeInstance(other, file.getPath());
+
+        String requests = instanceRequest("\"a\"", "DCA", data) + "\n"
+            + "\n"
+            + "{\"id\": 2, \"algorithm\": \"FastMDA\", \"file\": \"" + file.getPath().replace("\\", "\\\\")
+            + "\", \"timeoutMs\": 600000}\n"
+            + "{\"id\": 3, \"algorithm\": \"Simplex\", \"file\": \"" + file.getPath().replace("\\", "\\\\") + "\"}\n"
+            + "{\"id\": \"broken\", \n";
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        SolverDaemon daemon = new SolverDaemon(2);
+        try {
+            daemon.serve(new ByteArrayInputStream(requests.getBytes(StandardCharsets.UTF_8)), out);
+        } finally {
+            daemon.shutdown();
+        }
+
+        Map<String, JsonObject> responses = new HashMap<String, JsonObject>();
+        int errors = 0;
+        for (String line : new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n")) {
+            JsonObject response = new JsonParser().parse(line).getAsJsonObject();
+            if (response.has("id")) {
+                responses.put(response.get("id").getAsString(), response);
+            }
+            if (response.has("error")) {
+                errors++;
+            }
+        }
+        assertEquals(2, errors);
+        JsonObject first = responses.get("a");
+        assertEquals("SOLVED", first.get("status").getAsString());
+        assertTrue(first.get("feasible").getAsBoolean());
+        assertArrayEquals(data.toRAPNC().solveIntegerDCA().sol, toLongs(first.getAsJsonArray("sol")));
+        assertTrue(first.get("solveNanos").getAsLong() > 0);
+        JsonObject second = responses.get("2");
+        assertTrue(second.get("id").getAsJsonPrimitive().isNumber());
+        assertEquals("FastMDA", second.get("algorithm").getAsString());
+        assertArrayEquals(other.toRAPNC().solveIntegerDCA().sol, toLongs(second.getAsJsonArray("sol")));
+        assertFalse(responses.get("3").has("sol"));
+        assertTrue(responses.get("3").has("error"));
+    }
+
+    @Test
+    void testFileRoot() throws IOException {
+        RAPNCTestUtils.RAPNCInstanceData data = RAPNCTestUtils.generateInstanceData("f", 100, 100, new Random(50));
+        File root = Files.createTempDirectory("daemon").toFile();
+        root.deleteOnExit();
+        File inside = new File(root, "inside.json");
+        inside.deleteOnExit();
+        RAPNCInstanceIO.writeInstance(data, inside.getPath());
+        File broken = new File(root, "broken.json");
+        broken.deleteOnExit();
+        Files.write(broken.toPath(), "{\"secret\": ".getBytes(StandardCharsets.UTF_8));
+        File outside = File.createTempFile("daemon", ".json");
+        outside.deleteOnExit();
+        RAPNCInstanceIO.writeInstance(data, outside.getPath());
+
+        String requests = "{\"id\": 1, \"file\": \"inside.json\"}\n"
+            + "{\"id\": 2, \"file\": \"" + outside.getPath().replace("\\", "\\\\") + "\"}\n"
+            + "{\"id\": 3, \"file\": \"../" + outside.getName() + "\"}\n"
+            + "{\"id\": 4, \"file\": \"broken.json\"}\n";
+        SolverDaemon daemon = new SolverDaemon(1);
+        Map<String, JsonObject> responses = new HashMap<String, JsonObject>();
+        try {
+            daemon.setFileRoot(root.toPath());
+            for (JsonObject response : serve(daemon, requests)) {
+                responses.put(response.get("id").getAsString(), response);
+            }
+            daemon.setFileRoot(null);
+            JsonObject disabled = serve(daemon, "{\"id\": 5, \"file\": \"inside.json\"}\n").get(0);
+            assertTrue(disabled.get("error").getAsString().contains("disabled"));
+        } finally {
+            daemon.shutdown();
+        }
+        assertArrayEquals(data.toFreshRAPNC().solveIntegerDCA().sol, toLongs(responses.get("1").getAsJsonArray("sol")));
+        for (String id : new String[]{"2", "3", "4"}) {
+            assertFalse(responses.get(id).has("sol"));
+            String error = responses.get(id).get("error").getAsString();
+            assertFalse(error.contains(outside.getName()) || error.contains("secret"), error);
+        }
+    }
+
+    @Test
+    void testMaxDimension() throws IOException {
+        RAPNCTestUtils.RAPNCInstanceData data = RAPNCTestUtils.generateInstanceData("f", 100, 100, new Random(51));
+        //the declared dimension alone would need gigabytes
+        String requests = "{\"id\": 1, \"instance\": {\"objFuncType\": \"f\", \"dimension\": 1500000000,"
+            + " \"capacity\": [1]}}\n"
+            + "{\"id\": 2, \"instance\": {\"objFuncType\": \"f\", \"dimension\": 5,"
+            + " \"capacity\": [1, 2, 3, 4, 5, 6]}}\n"
+            + instanceRequest("3", "DCA", data) + "\n";
+        SolverDaemon daemon = new SolverDaemon(1);
+        Map<String, JsonObject> responses = new HashMap<String, JsonObject>();
+        try {
+            for (JsonObject response : serve(daemon, requests)) {
+                responses.put(response.get("id").getAsString(), response);
+            }
+            daemon.setMaxDimension(99);
+            JsonObject limited = serve(daemon, instanceRequest("4", "DCA", data) + "\n").get(0);
+            assertTrue(limited.get("error").getAsString().contains("exceeds"));
+        } finally {
+            daemon.shutdown();
+        }
+        assertTrue(responses.get("1").get("error").getAsString().contains("1500000000"));
+        assertTrue(responses.get("2").has("error"));
+        assertArrayEquals(data.toRAPNC().solveIntegerDCA().sol, toLongs(responses.get("3").getAsJsonArray("sol")));
+    }
+
+    private static List<JsonObject> serve(SolverDaemon daemon, String requests) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        daemon.serve(new ByteArrayInputStream(requests.getBytes(StandardCharsets.UTF_8)), out);
+        List<JsonObject> responses = new ArrayList<JsonObject>();
+        for (String line : new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n")) {
+            responses.add(new JsonParser().parse(line).getAsJsonObject());
+        }
+        return responses;
+    }
+
+    @Test
+    void testListen() throws Exception {
+        RAPNCTestUtils.RAPNCInstanceData data = RAPNCTestUtils.generateInstanceData("crash", 100, 100, new Random(49));
+        SolverDaemon daemon = new SolverDaemon(1);
+        assertTrue(daemon.warmUp(1) > 0);
+        Thread listener;
+        try (ServerSocket server = new ServerSocket(0, 50, InetAddress.getLoopbackAddress())) {
+            listener = new Thread(() -> {
+                try {
+                    daemon.listen(server);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+            listener.start();
+            try (Socket client = new Socket(InetAddress.getLoopbackAddress(), server.getLocalPort())) {
+                Writer writer = new OutputStreamWriter(client.getOutputStream(), StandardCharsets.UTF_8);
+                writer.write(instanceRequest("7", "DCA", data) + "\n");
+                writer.flush();
+                BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(client.getInputStream(), StandardCharsets.UTF_8));
+                JsonObject response = new JsonParser().parse(reader.readLine()).getAsJsonObject();
+                assertEquals(7, response.get("id").getAsInt());
+                assertArrayEquals(data.toRAPNC().solveIntegerDCA().sol, toLongs(response.getAsJsonArray("sol")));
+            }
+        } finally {
+            daemon.shutdown();
+        }
+        //the listener returns once the socket is closed
+        listener.join(10000);
+        assertFalse(listener.isAlive());
+    }
+}
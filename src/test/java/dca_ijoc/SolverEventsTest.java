@@ -0,0 +1,91 @@
+package dca_ijoc;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for SolverEvents.
+ */
+class SolverEventsTest {
+
+    //Solve the instance by the algorithm in a recording of the solver events and return the events by name
+    private static Map<String, List<RecordedEvent>> record(RAPNC instance, String algorithm) throws IOException {
+        SolverEvents.register();
+        File file = File.createTempFile("solver", ".jfr");
+        file.deleteOnExit();
+        try (Recording recording = new Recording()) {
+            recording.enable("dca_ijoc.DCASplit");
+            recording.enable("dca_ijoc.RAPSolve");
+            recording.enable("dca_ijoc.MDAMerge");
+            recording.start();
+            assertTrue(instance.solve(algorithm).feasible);
+            recording.stop();
+            recording.dump(file.toPath());
+        }
+        Map<String, List<RecordedEvent>> events = new HashMap<String, List<RecordedEvent>>();
+        for (RecordedEvent event : RecordingFile.readAllEvents(file.toPath())) {
+            events.computeIfAbsent(event.getEventType().getName(), name -> new ArrayList<RecordedEvent>()).add(event);
+        }
+        return events;
+    }
+
+    @Test
+    void testDCAEvents() throws IOException {
+        int dimension = 400;
+        RAPNC instance = RAPNCTestUtils.generateInstanceData("f", dimension, 100, new Random(28)).toRAPNC();
+        Map<String, List<RecordedEvent>> events = record(instance, "DCA");
+
+        List<RecordedEvent> splits = events.get("dca_ijoc.DCASplit");
+        //every split creates two subproblems
+        assertEquals(instance.number_subproblem, 2 * splits.size() + 1);
+        for (RecordedEvent split : splits) {
+            int start = split.getInt("segmentStart");
+            int size = split.getInt("segmentSize");
+            assertTrue(size >= 2 && start >= 0 && start + size <= dimension);
+            assertTrue(split.getInt("index") >= start && split.getInt("index") < start + size - 1);
+            assertTrue(split.getLong("violation") > 0);
+            assertTrue(split.getInt("depth") >= 0);
+        }
+        assertEquals(0, splits.get(0).getInt("depth"));
+        assertEquals(dimension, splits.get(0).getInt("segmentSize"));
+
+        List<RecordedEvent> raps = events.get("dca_ijoc.RAPSolve");
+        assertTrue(raps.size() > splits.size() && raps.size() <= instance.number_subproblem);
+        for (RecordedEvent rap : raps) {
+            assertEquals("scaling", rap.getString("algorithm"));
+            assertTrue(rap.getInt("dimension") >= 2 && rap.getInt("dimension") <= dimension);
+            assertTrue(rap.getLong("budget") >= 0);
+            assertTrue(rap.getBoolean("feasible"));
+            assertTrue(!rap.getDuration().isNegative());
+        }
+        assertTrue(!events.containsKey("dca_ijoc.MDAMerge"));
+    }
+
+    @Test
+    void testFastMDAEvents() throws IOException {
+        int dimension = 256;
+        RAPNC instance = RAPNCTestUtils.generateInstanceData("crash", dimension, 100, new Random(28)).toRAPNC();
+        Map<String, List<RecordedEvent>> events = record(instance, "FastMDA");
+
+        //one merge per internal node of the binary tree over the variables
+        List<RecordedEvent> merges = events.get("dca_ijoc.MDAMerge");
+        assertEquals(dimension - 1, merges.size());
+        for (RecordedEvent merge : merges) {
+            assertTrue(merge.getInt("v") >= 0 && merge.getInt("v") < merge.getInt("w") && merge.getInt("w") < dimension);
+        }
+        for (RecordedEvent rap : events.get("dca_ijoc.RAPSolve")) {
+            assertTrue(rap.getString("algorithm").startsWith("scaling"));
+            assertTrue(rap.getInt("dimension") >= 2 && rap.getInt("dimension") <= dimension);
+        }
+        assertTrue(!events.containsKey("dca_ijoc.DCASplit"));
+    }
+}
@@ -0,0 +1,63 @@
+package dca_ijoc;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for SolverStats.
+ */
+class SolverStatsTest {
+
+    @Test
+    void testDCAStats() {
+        RAPNCTestUtils.RAPNCInstanceData data = RAPNCTestUtils.generateInstanceData("f", 1600, 100, new Random(1));
+        RAPNC instance = data.toRAPNC();
+        SolverStats stats = new SolverStats();
+        instance.setStats(stats);
+        ResultTypeRAPNC res = instance.solveIntegerDCA();
+
+        assertTrue(res.feasible);
+        assertEquals("DCA", stats.algorithm);
+        assertEquals(1600, stats.dimension);
+        // every subproblem of dimension > 1 solves one RAP and every split creates two subproblems
+        assertEquals(instance.number_subproblem, 2 * stats.dcaSplits + 1);
+        assertTrue(stats.rapCalls > 0 && stats.rapCalls <= instance.number_subproblem);
+        long histogramTotal = 0;
+        for (long count : stats.rapSizeHistogram) {
+            histogramTotal += count;
+        }
+        assertEquals(stats.rapCalls, histogramTotal);
+        assertTrue(stats.oracleEvaluations > 0);
+        assertTrue(stats.heapOperations > 0);
+        assertTrue(stats.averageSplitBalance() >= 0 && stats.averageSplitBalance() <= 0.5);
+        assertTrue(stats.totalNanos >= stats.rapNanos);
+    }
+
+    @Test
+    void testFastMDAStats() {
+        RAPNCTestUtils.RAPNCInstanceData data = RAPNCTestUtils.generateInstanceData("crash", 1600, 100, new Random(2));
+        RAPNC instance = data.toRAPNC();
+        SolverStats stats = new SolverStats();
+        instance.setStats(stats);
+        instance.FastMDA();
+
+        assertEquals("FastMDA", stats.algorithm);
+        // a binary recursion over 1600 leaves merges 1599 times
+        assertEquals(1599, stats.mdaMerges);
+        assertEquals(0, stats.dcaSplits);
+        assertEquals(0, stats.messageCount);
+    }
+
+    @Test
+    void testStatsDisabled() {
+        RAPNCTestUtils.RAPNCInstanceData data = RAPNCTestUtils.generateInstanceData("linear", 800, 100, new Random(3));
+        RAPNC instance = data.toRAPNC();
+        ResultTypeRAPNC res = instance.solveIntegerLinearDCA();
+        assertTrue(res.feasible);
+        assertTrue(instance.number_subproblem >= 1);
+    }
+}
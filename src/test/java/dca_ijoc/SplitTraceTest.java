@@ -0,0 +1,130 @@
+package dca_ijoc;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Unit test for SplitTrace.
+ */
+class SplitTraceTest {
+
+    //Solve the instance by the algorithm with a trace in memory and read the trace back
+    private static List<SplitTrace.Entry> trace(RAPNC instance, String algorithm, boolean feasible) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (SplitTrace.Writer writer = new SplitTrace.Writer(out)) {
+            instance.setTrace(writer);
+            assertEquals(feasible, instance.solve(algorithm).feasible);
+        }
+        List<SplitTrace.Entry> entries = new ArrayList<SplitTrace.Entry>();
+        try (SplitTrace.Reader reader = new SplitTrace.Reader(new ByteArrayInputStream(out.toByteArray()))) {
+            SplitTrace.Entry entry;
+            while ((entry = reader.next()) != null) {
+                entries.add(entry);
+            }
+            assertNull(reader.next());
+        }
+        assertEquals(8 + SplitTrace.ENTRY_BYTES * entries.size(), out.size());
+        return entries;
+    }
+
+    private static SplitTrace.Summary summarize(List<SplitTrace.Entry> entries) {
+        SplitTrace.Summary summary = new SplitTrace.Summary();
+        for (SplitTrace.Entry entry : entries) {
+            summary.add(entry);
+        }
+        return summary;
+    }
+
+    @Test
+    void testDCATrace() throws IOException {
+        for (String algorithm : new String[]{"DCA", "LinearDCA"}) {
+            String objFuncType = algorithm.equals("DCA") ? "f" : "linear";
+            RAPNC instance = RAPNCTestUtils.generateInstanceData(objFuncType, 800, 100, new Random(29)).toRAPNC();
+            List<SplitTrace.Entry> entries = trace(instance, algorithm, true);
+            SplitTrace.Summary summary = summarize(entries);
+
+            //one entry per subproblem, and every split creates two subproblems
+            assertEquals(instance.number_subproblem, entries.size());
+            assertEquals(instance.number_subproblem, 2 * summary.splits + 1);
+            assertEquals(summary.splits + 1, summary.leaves);
+            assertEquals(0, summary.infeasibleLeaves);
+            assertEquals(0, summary.merges);
+
+            //pre-order: the root comes first and the leaves cover the instance
+            assertEquals(800, entries.get(0).size);
+            assertEquals(0, entries.get(0).depth);
+            long covered = 0;
+            for (SplitTrace.Entry entry : entries) {
+                if (entry.kind == SplitTrace.DCA_SPLIT) {
+                    assertTrue(entry.splitIndex >= entry.start && entry.splitIndex < entry.start + entry.size - 1);
+                    assertTrue(entry.violation > 0);
+                } else {
+                    covered += entry.size;
+                }
+            }
+            assertEquals(800, covered);
+        }
+    }
+
+    @Test
+    void testFastMDATrace() throws IOException {
+        RAPNC instance = RAPNCTestUtils.generateInstanceData("crash", 500, 100, new Random(29)).toRAPNC();
+        File file = File.createTempFile("trace", ".bin");
+        file.deleteOnExit();
+        try (SplitTrace.Writer writer = new SplitTrace.Writer(file.getPath())) {
+            instance.setTrace(writer);
+            assertTrue(instance.solve("FastMDA").feasible);
+            assertEquals(499, writer.entries);
+        }
+
+        //one merge per internal node, in post-order: the root [0, 499] comes last
+        List<SplitTrace.Entry> entries = SplitTrace.read(file.getPath());
+        assertEquals(499, entries.size());
+        SplitTrace.Entry root = entries.get(entries.size() - 1);
+        assertEquals(SplitTrace.MDA_MERGE, root.kind);
+        assertEquals(0, root.start);
+        assertEquals(500, root.size);
+        SplitTrace.Summary summary = SplitTrace.summarize(file.getPath());
+        assertEquals(499, summary.merges);
+        assertEquals(0, summary.splits + summary.leaves + summary.infeasibleLeaves);
+    }
+
+    @Test
+    void testInfeasibleTrace() throws IOException {
+        //x1 + x2 + x3 = 6 and x1 + x2 >= 9 with 0 <= x <= 4: the relaxation is feasible, both parts are not
+        RAPNC instance = new RAPNC(3);
+        for (int i = 0; i < 3; i++) {
+            instance.obj.add(RAPNCTestUtils.buildObjectFunction(1, 0, "quadratic"));
+            instance.ubVar[i] = 4;
+            instance.ubNested[i] = 100;
+        }
+        instance.lbNested[1] = 9;
+        instance.lbNested[2] = 6;
+        instance.ubNested[2] = 6;
+        List<SplitTrace.Entry> entries = trace(instance, "DCA", false);
+        SplitTrace.Summary summary = summarize(entries);
+
+        assertEquals(instance.number_subproblem, entries.size());
+        assertEquals(1, summary.splits);
+        assertEquals(2, summary.infeasibleLeaves);
+        assertEquals(SplitTrace.SHORTAGE, entries.get(0).direction);
+        assertEquals(2, entries.get(1).size);
+        assertEquals(1, entries.get(2).size);
+        assertTrue(summary.toString().contains("infeasibleLeaves=2"));
+    }
+
+    @Test
+    void testNotATrace() {
+        assertThrows(IOException.class, () -> new SplitTrace.Reader(new ByteArrayInputStream(new byte[8])));
+    }
+}